@@ -0,0 +1,150 @@
+package fr.tp.inf112.projects.robotsim.app;
+
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.Collection;
+
+import javax.swing.JPanel;
+
+import fr.tp.inf112.projects.canvas.model.Canvas;
+import fr.tp.inf112.projects.canvas.model.Figure;
+import fr.tp.inf112.projects.canvas.model.Style;
+import fr.tp.inf112.projects.canvas.view.CanvasPainter;
+import fr.tp.inf112.projects.canvas.view.Scale;
+import fr.tp.inf112.projects.robotsim.model.Factory;
+
+/**
+ * Paints a factory in two layers. The static figures are painted once into an image, which is painted again only
+ * when the size of the panel or the layout of the factory changes, such as when a door is opened or closed. The
+ * dynamic figures are painted over this image at each repaint, so that the cost of a frame depends on the number of
+ * robots rather than on the number of components. Canvases other than factories are painted as by the canvas
+ * viewer.
+ */
+@SuppressWarnings("serial")
+public class LayeredCanvasPanel extends JPanel {
+
+	private Canvas canvasModel;
+
+	private BufferedImage staticLayer;
+
+	private long staticLayerLayoutHash;
+
+	public LayeredCanvasPanel(final Canvas canvasModel) {
+		super();
+
+		setCanvas(canvasModel);
+	}
+
+	/**
+	 * Sets the canvas to be painted, painting the static layer again only if it is another canvas.
+	 */
+	public void setCanvas(final Canvas canvasModel) {
+		if (this.canvasModel != canvasModel) {
+			this.canvasModel = canvasModel;
+			staticLayer = null;
+		}
+	}
+
+	@Override
+	public void paint(final Graphics painter) {
+		super.paint(painter);
+
+		if (canvasModel != null && getWidth() > 0 && getHeight() > 0) {
+			final Scale scale = new Scale((double) getWidth() / canvasModel.getWidth(),
+										  (double) getHeight() / canvasModel.getHeight());
+
+			if (canvasModel instanceof Factory) {
+				final Factory factory = (Factory) canvasModel;
+				painter.drawImage(getStaticLayer(factory, scale), 0, 0, null);
+				new CanvasPainter(new FigureLayer(factory, factory.getDynamicFigures(), null)).paint(painter, scale);
+			}
+			else {
+				new CanvasPainter(canvasModel).paint(painter, scale);
+			}
+		}
+	}
+
+	private BufferedImage getStaticLayer(final Factory factory,
+										 final Scale scale) {
+		final long layoutHash = factory.computeLayoutHash();
+
+		if (staticLayer == null || staticLayer.getWidth() != getWidth() || staticLayer.getHeight() != getHeight() ||
+			staticLayerLayoutHash != layoutHash) {
+			// Opaque, as the panel, so that drawing it is a plain copy.
+			staticLayer = new BufferedImage(getWidth(), getHeight(), BufferedImage.TYPE_INT_RGB);
+			staticLayerLayoutHash = layoutHash;
+
+			final Graphics2D staticLayerPainter = staticLayer.createGraphics();
+
+			try {
+				staticLayerPainter.setColor(getBackground());
+				staticLayerPainter.fillRect(0, 0, getWidth(), getHeight());
+				staticLayerPainter.setColor(getForeground());
+				staticLayerPainter.setFont(getFont());
+				new CanvasPainter(new FigureLayer(factory, factory.getStaticFigures(), factory.getStyle())).paint(staticLayerPainter, scale);
+			}
+			finally {
+				staticLayerPainter.dispose();
+			}
+		}
+
+		return staticLayer;
+	}
+
+	/**
+	 * Some figures of a canvas, painted with the given canvas style: the dynamic layer has no style, so that
+	 * painting it does not fill the background over the static layer.
+	 */
+	private static final class FigureLayer implements Canvas {
+
+		private final Canvas canvasModel;
+
+		private final Collection<Figure> figures;
+
+		private final Style style;
+
+		private FigureLayer(final Canvas canvasModel,
+							final Collection<Figure> figures,
+							final Style style) {
+			this.canvasModel = canvasModel;
+			this.figures = figures;
+			this.style = style;
+		}
+
+		@Override
+		public String getId() {
+			return canvasModel.getId();
+		}
+
+		@Override
+		public void setId(final String id) {
+			canvasModel.setId(id);
+		}
+
+		@Override
+		public String getName() {
+			return canvasModel.getName();
+		}
+
+		@Override
+		public int getWidth() {
+			return canvasModel.getWidth();
+		}
+
+		@Override
+		public int getHeight() {
+			return canvasModel.getHeight();
+		}
+
+		@Override
+		public Collection<Figure> getFigures() {
+			return figures;
+		}
+
+		@Override
+		public Style getStyle() {
+			return style;
+		}
+	}
+}
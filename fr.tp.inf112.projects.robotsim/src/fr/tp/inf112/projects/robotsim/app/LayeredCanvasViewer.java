@@ -0,0 +1,39 @@
+package fr.tp.inf112.projects.robotsim.app;
+
+import fr.tp.inf112.projects.canvas.controller.CanvasViewerController;
+import fr.tp.inf112.projects.canvas.view.CanvasViewer;
+
+/**
+ * A canvas viewer painting its canvas with a {@link LayeredCanvasPanel} instead of repainting every figure when
+ * the model changes.
+ */
+@SuppressWarnings("serial")
+public class LayeredCanvasViewer extends CanvasViewer {
+
+	private final CanvasViewerController controller;
+
+	private final LayeredCanvasPanel canvasPanel;
+
+	public LayeredCanvasViewer(final CanvasViewerController controller) {
+		super(controller);
+
+		this.controller = controller;
+		canvasPanel = new LayeredCanvasPanel(controller.getCanvas());
+		setContentPane(canvasPanel);
+		revalidate();
+	}
+
+	/**
+	 * Also follows the canvas of the controller, which changes when a canvas is opened.
+	 */
+	@Override
+	public void modelChanged() {
+		super.modelChanged();
+
+		// Called by the constructor of the viewer before the panel is created.
+		if (canvasPanel != null) {
+			canvasPanel.setCanvas(controller.getCanvas());
+			canvasPanel.repaint();
+		}
+	}
+}
@@ -2,12 +2,14 @@ package fr.tp.inf112.projects.robotsim.app;
 
 import java.awt.Component;
 import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.BiFunction;
 import java.util.logging.Logger;
 
 import javax.swing.SwingUtilities;
 
 import fr.tp.inf112.projects.canvas.model.impl.BasicVertex;
-import fr.tp.inf112.projects.canvas.view.CanvasViewer;
 import fr.tp.inf112.projects.robotsim.model.Area;
 import fr.tp.inf112.projects.robotsim.model.Battery;
 import fr.tp.inf112.projects.robotsim.model.ChargingStation;
@@ -17,9 +19,14 @@ import fr.tp.inf112.projects.robotsim.model.Factory;
 import fr.tp.inf112.projects.robotsim.model.Machine;
 import fr.tp.inf112.projects.robotsim.model.Robot;
 import fr.tp.inf112.projects.robotsim.model.Room;
+import fr.tp.inf112.projects.robotsim.model.path.AbstractFactoryPathFinder;
+import fr.tp.inf112.projects.robotsim.model.path.ContractionHierarchyFactoryPathFinder;
 import fr.tp.inf112.projects.robotsim.model.path.CustomDijkstraFactoryPathFinder;
 import fr.tp.inf112.projects.robotsim.model.path.FactoryPathFinder;
+import fr.tp.inf112.projects.robotsim.model.path.ImplicitGridFactoryPathFinder;
 import fr.tp.inf112.projects.robotsim.model.path.JGraphTDijkstraFactoryPathFinder;
+import fr.tp.inf112.projects.robotsim.model.path.QuadtreeFactoryPathFinder;
+import fr.tp.inf112.projects.robotsim.model.path.SparseJGraphTDijkstraFactoryPathFinder;
 import fr.tp.inf112.projects.robotsim.model.shapes.BasicPolygonShape;
 import fr.tp.inf112.projects.robotsim.model.shapes.CircularShape;
 import fr.tp.inf112.projects.robotsim.model.shapes.RectangularShape;
@@ -28,6 +35,26 @@ public class SimulatorApplication {
 
 	private static final Logger LOGGER = Logger.getLogger(SimulatorApplication.class.getName());
 
+	private static final String PATH_FINDER_ARG = "--path-finder=";
+
+	private static final String DIAGONAL_MOVES_ARG = "--diagonal-moves";
+
+	private static final String PATH_SMOOTHING_ARG = "--path-smoothing";
+
+	private static final int PATH_FINDER_RESOLUTION = 5;
+
+	/**
+	 * Path finders that may be given to all the robots with the {@link #PATH_FINDER_ARG} argument.
+	 */
+	private static final Map<String, BiFunction<Factory, Integer, AbstractFactoryPathFinder<?, ?>>> PATH_FINDERS = Map.of(
+		"custom", CustomDijkstraFactoryPathFinder::new,
+		"jgrapht", JGraphTDijkstraFactoryPathFinder::new,
+		"sparse", SparseJGraphTDijkstraFactoryPathFinder::new,
+		"contraction-hierarchy", ContractionHierarchyFactoryPathFinder::new,
+		"implicit-grid", ImplicitGridFactoryPathFinder::new,
+		"quadtree", QuadtreeFactoryPathFinder::new
+	);
+
 	public static void main(String[] args) {
 		LOGGER.info("Starting the robot simulator...");
 		
@@ -63,14 +90,14 @@ public class SimulatorApplication {
 		new Door(chargingRoom, Room.WALL.RIGHT, 10, 20, false, "Entrance");
 		final ChargingStation chargingStation = new ChargingStation(factory, new RectangularShape(150, 145, 15, 15), "Charging Station");
 
-		final FactoryPathFinder jgraphPahtFinder = new JGraphTDijkstraFactoryPathFinder(factory, 5);
+		final FactoryPathFinder jgraphPahtFinder = createPathFinder(factory, args, JGraphTDijkstraFactoryPathFinder::new);
 		final Robot robot1 = new Robot(factory, jgraphPahtFinder, new CircularShape(5, 5, 2), new Battery(10), "Robot 1");
 		robot1.addTargetComponent(machine1);
 		robot1.addTargetComponent(machine2);
 		robot1.addTargetComponent(new Conveyor(factory, conveyorShape, "Conveyor 1"));
 		robot1.addTargetComponent(chargingStation);
 
-		final FactoryPathFinder customPathFinder = new CustomDijkstraFactoryPathFinder(factory, 5);
+		final FactoryPathFinder customPathFinder = createPathFinder(factory, args, CustomDijkstraFactoryPathFinder::new);
 		final Robot robot2 = new Robot(factory, customPathFinder, new CircularShape(45, 5, 2), new Battery(10), "Robot 2");
 		robot2.addTargetComponent(machine1);
 		robot2.addTargetComponent(machine2);
@@ -82,10 +109,49 @@ public class SimulatorApplication {
 			@Override
 	        public void run() {
 				final RemoteFileCanvasChooser canvasChooser = new RemoteFileCanvasChooser("factory", "Puck Factory");
-				final Component factoryViewer = new CanvasViewer(new RemoteSimulatorController(factory, new RemoteFactoryPersistenceManager(canvasChooser)));
+				final Component factoryViewer = new LayeredCanvasViewer(new RemoteSimulatorController(factory, new RemoteFactoryPersistenceManager(canvasChooser)));
 				canvasChooser.setViewer(factoryViewer);
 				//new CanvasViewer(factory);
 			}
 		});
 	}
+
+	/**
+	 * Creates the path finder of a robot: the one named by the {@link #PATH_FINDER_ARG} argument if any, the given
+	 * one otherwise, robots moving diagonally with the {@link #DIAGONAL_MOVES_ARG} argument and following smoothed
+	 * paths with the {@link #PATH_SMOOTHING_ARG} argument. The quadtree finder only moves orthogonally.
+	 */
+	private static FactoryPathFinder createPathFinder(final Factory factory,
+													  final String[] args,
+													  final BiFunction<Factory, Integer, AbstractFactoryPathFinder<?, ?>> defaultPathFinder) {
+		BiFunction<Factory, Integer, AbstractFactoryPathFinder<?, ?>> pathFinderConstructor = defaultPathFinder;
+		boolean diagonalMovesEnabled = false;
+		boolean pathSmoothingEnabled = false;
+
+		for (final String arg : args) {
+			if (arg.startsWith(PATH_FINDER_ARG)) {
+				final String pathFinderName = arg.substring(PATH_FINDER_ARG.length());
+
+				if (PATH_FINDERS.containsKey(pathFinderName)) {
+					pathFinderConstructor = PATH_FINDERS.get(pathFinderName);
+				}
+				else {
+					LOGGER.warning("Unknown path finder " + pathFinderName + ", expecting one of " +
+								   new TreeSet<>(PATH_FINDERS.keySet()) + ".");
+				}
+			}
+			else if (arg.equals(DIAGONAL_MOVES_ARG)) {
+				diagonalMovesEnabled = true;
+			}
+			else if (arg.equals(PATH_SMOOTHING_ARG)) {
+				pathSmoothingEnabled = true;
+			}
+		}
+
+		final AbstractFactoryPathFinder<?, ?> pathFinder = pathFinderConstructor.apply(factory, PATH_FINDER_RESOLUTION);
+		pathFinder.setDiagonalMovesEnabled(diagonalMovesEnabled);
+		pathFinder.setPathSmoothingEnabled(pathSmoothingEnabled);
+
+		return pathFinder;
+	}
 }
@@ -19,6 +19,11 @@ public class Battery implements Serializable {
 		level = capacity;
 	}
 	
+	public Battery(final Battery battery) {
+		this.capacity = battery.capacity;
+		level = battery.level;
+	}
+	
 	public float consume(float energy) {
 		level-= energy;
 		
@@ -30,6 +35,10 @@ public class Battery implements Serializable {
 		
 		return level;
 	}
+	
+	public float getLevel() {
+		return level;
+	}
 
 	@Override
 	public String toString() {
@@ -11,17 +11,24 @@ import com.fasterxml.jackson.annotation.ObjectIdGenerators;
 import fr.tp.inf112.projects.canvas.model.Figure;
 import fr.tp.inf112.projects.canvas.model.Style;
 import fr.tp.inf112.projects.robotsim.model.shapes.PositionedShape;
+import fr.tp.inf112.projects.robotsim.model.simulation.TickClock;
 import fr.tp.inf112.projects.canvas.model.Shape;
 
 @JsonIdentityInfo(
-    generator = ObjectIdGenerators.IntSequenceGenerator.class, 
-    property = "@id"
+    generator = ObjectIdGenerators.PropertyGenerator.class, 
+    property = "componentId"
 )
 public abstract class Component implements Figure, Serializable, Runnable {
 	
 	private static final long serialVersionUID = -5960950869184030220L;
 
 	private String id;
+	
+	/**
+	 * Identifier of the component in its factory, assigned when it is added and never reused, or -1.
+	 * @see Factory#getComponent(int)
+	 */
+	private int componentId;
 
 	@JsonBackReference
 	private final Factory factory;
@@ -40,23 +47,32 @@ public abstract class Component implements Figure, Serializable, Runnable {
 		this.factory = factory;
 		this.positionedShape = shape;
 		this.name = name;
+		componentId = -1;
 
 		if (factory != null) {
 			factory.addComponent(this);
 		}
 	}
 
+	/**
+	 * Makes the component behave at the fixed rate of the ticks of its factory until the simulation is stopped.
+	 */
 	@Override
 	public void run(){
+		final TickClock tickClock = new TickClock(getFactory().getTickStatistics());
+		
 		while (isSimulationStarted()) {
 			behave();
 			try {
-				Thread.sleep(50);
+				tickClock.awaitNextTick();
 			} catch (InterruptedException e) {
 				Thread.currentThread().interrupt();
 				break;
 			}
+			getFactory().notifyPendingObservers();
 		}
+		
+		tickClock.stop();
 	}
 	
 	public String getId() {
@@ -67,6 +83,14 @@ public abstract class Component implements Figure, Serializable, Runnable {
 		this.id = id;
 	}
 
+	public int getComponentId() {
+		return componentId;
+	}
+
+	void setComponentId(final int componentId) {
+		this.componentId = componentId;
+	}
+
 	public PositionedShape getPositionedShape() {
 		return positionedShape;
 	}
@@ -145,6 +169,15 @@ public abstract class Component implements Figure, Serializable, Runnable {
 	    return false;
 	}
 	
+	/**
+	 * Returns the component to be used by the given fork of the factory (see {@link Factory#fork()}): fixed 
+	 * components are shared by the factory and its forks, while mobile components add a copy of themselves to the 
+	 * fork.
+	 */
+	protected Component forkInto(final Factory fork) {
+		return this;
+	}
+	
 	@JsonIgnore
 	public boolean isMobile() {
 		return false;
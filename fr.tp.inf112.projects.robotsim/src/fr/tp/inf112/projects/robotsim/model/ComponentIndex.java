@@ -0,0 +1,313 @@
+package fr.tp.inf112.projects.robotsim.model;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.function.Predicate;
+
+import fr.tp.inf112.projects.robotsim.model.shapes.PositionedShape;
+
+/**
+ * A tree of the bounding boxes of the fixed components of a factory, to find the components nearest to a shape by
+ * visiting a logarithmic number of nodes instead of measuring the distance to every component. Each node holds
+ * the bounding box of its components, and its two children the components on each side of the median of the
+ * centers of its components along its longest side.
+ *
+ * Distances are Euclidean distances between bounding boxes. Moving a shape by a given length changes its distance
+ * to a box by at most this length, so that the distance from a robot to a component is a lower bound of the length
+ * of any path of the robot reaching the component. The fixed components do not move: the factory builds a new
+ * index when fixed components are added or removed.
+ */
+public class ComponentIndex {
+
+	/**
+	 * Maximum number of components of the leaves, whose distances are computed one by one.
+	 */
+	private static final int LEAF_SIZE = 8;
+
+	public static ComponentIndex build(final Factory factory) {
+		final List<Component> components = new ArrayList<>();
+
+		for (final Component component : factory.getComponents()) {
+			if (!component.isMobile() && component.getPositionedShape() != null) {
+				components.add(component);
+			}
+		}
+
+		return new ComponentIndex(components);
+	}
+
+	/**
+	 * @return The Euclidean distance between the bounding boxes of the given shapes, 0 if they overlap.
+	 */
+	public static double getDistance(final PositionedShape shape1,
+									 final PositionedShape shape2) {
+		return getDistance(shape1.getxCoordinate(), shape1.getyCoordinate(),
+						   shape1.getxCoordinate() + shape1.getWidth(), shape1.getyCoordinate() + shape1.getHeight(),
+						   shape2.getxCoordinate(), shape2.getyCoordinate(),
+						   shape2.getxCoordinate() + shape2.getWidth(), shape2.getyCoordinate() + shape2.getHeight());
+	}
+
+	private static double getDistance(final int minxCoordinate1,
+									  final int minyCoordinate1,
+									  final int maxxCoordinate1,
+									  final int maxyCoordinate1,
+									  final int minxCoordinate2,
+									  final int minyCoordinate2,
+									  final int maxxCoordinate2,
+									  final int maxyCoordinate2) {
+		final int xDistance = Math.max(0, Math.max(minxCoordinate2 - maxxCoordinate1, minxCoordinate1 - maxxCoordinate2));
+		final int yDistance = Math.max(0, Math.max(minyCoordinate2 - maxyCoordinate1, minyCoordinate1 - maxyCoordinate2));
+
+		return Math.hypot(xDistance, yDistance);
+	}
+
+	/**
+	 * The components in the order of the leaves of the tree, the components of a node being contiguous.
+	 */
+	private final Component[] components;
+
+	private final int[] minxCoordinates;
+
+	private final int[] minyCoordinates;
+
+	private final int[] maxxCoordinates;
+
+	private final int[] maxyCoordinates;
+
+	private final int[] nodeStarts;
+
+	private final int[] nodeEnds;
+
+	/**
+	 * Index of the first child of the nodes, the second child following it, or -1 for the leaves.
+	 */
+	private final int[] nodeChildren;
+
+	private final int[] nodeMinxCoordinates;
+
+	private final int[] nodeMinyCoordinates;
+
+	private final int[] nodeMaxxCoordinates;
+
+	private final int[] nodeMaxyCoordinates;
+
+	private int nodesCount;
+
+	private ComponentIndex(final List<Component> components) {
+		final int maxNodesCount = Math.max(1, 4 * components.size() / LEAF_SIZE + 1);
+		nodeStarts = new int[maxNodesCount];
+		nodeEnds = new int[maxNodesCount];
+		nodeChildren = new int[maxNodesCount];
+		nodeMinxCoordinates = new int[maxNodesCount];
+		nodeMinyCoordinates = new int[maxNodesCount];
+		nodeMaxxCoordinates = new int[maxNodesCount];
+		nodeMaxyCoordinates = new int[maxNodesCount];
+		nodesCount = 1;
+		buildNode(0, components, 0, components.size());
+
+		this.components = components.toArray(new Component[components.size()]);
+		minxCoordinates = new int[this.components.length];
+		minyCoordinates = new int[this.components.length];
+		maxxCoordinates = new int[this.components.length];
+		maxyCoordinates = new int[this.components.length];
+
+		for (int index = 0; index < this.components.length; index++) {
+			final PositionedShape shape = this.components[index].getPositionedShape();
+			minxCoordinates[index] = shape.getxCoordinate();
+			minyCoordinates[index] = shape.getyCoordinate();
+			maxxCoordinates[index] = shape.getxCoordinate() + shape.getWidth();
+			maxyCoordinates[index] = shape.getyCoordinate() + shape.getHeight();
+		}
+	}
+
+	/**
+	 * Sets the bounding box of the given node from its components and splits it if they are too many, sorting
+	 * them so that the components of each child are contiguous.
+	 */
+	private void buildNode(final int node,
+						   final List<Component> components,
+						   final int start,
+						   final int end) {
+		int minxCoordinate = Integer.MAX_VALUE;
+		int minyCoordinate = Integer.MAX_VALUE;
+		int maxxCoordinate = Integer.MIN_VALUE;
+		int maxyCoordinate = Integer.MIN_VALUE;
+
+		for (int index = start; index < end; index++) {
+			final PositionedShape shape = components.get(index).getPositionedShape();
+			minxCoordinate = Math.min(minxCoordinate, shape.getxCoordinate());
+			minyCoordinate = Math.min(minyCoordinate, shape.getyCoordinate());
+			maxxCoordinate = Math.max(maxxCoordinate, shape.getxCoordinate() + shape.getWidth());
+			maxyCoordinate = Math.max(maxyCoordinate, shape.getyCoordinate() + shape.getHeight());
+		}
+
+		nodeStarts[node] = start;
+		nodeEnds[node] = end;
+		nodeChildren[node] = -1;
+		nodeMinxCoordinates[node] = minxCoordinate;
+		nodeMinyCoordinates[node] = minyCoordinate;
+		nodeMaxxCoordinates[node] = maxxCoordinate;
+		nodeMaxyCoordinates[node] = maxyCoordinate;
+
+		if (end - start > LEAF_SIZE) {
+			final Comparator<Component> centerComparator;
+
+			if (maxxCoordinate - minxCoordinate >= maxyCoordinate - minyCoordinate) {
+				centerComparator = Comparator.comparingInt(component -> 2 * component.getxCoordinate() + component.getWidth());
+			}
+			else {
+				centerComparator = Comparator.comparingInt(component -> 2 * component.getyCoordinate() + component.getHeight());
+			}
+
+			components.subList(start, end).sort(centerComparator);
+
+			final int middle = (start + end) >>> 1;
+			final int children = nodesCount;
+			nodesCount += 2;
+			nodeChildren[node] = children;
+			buildNode(children, components, start, middle);
+			buildNode(children + 1, components, middle, end);
+		}
+	}
+
+	public int getComponentsCount() {
+		return components.length;
+	}
+
+	/**
+	 * @return The given number of components nearest to the given shape that are accepted by the given filter,
+	 * nearest first, or fewer if there are not as many.
+	 */
+	public List<Component> getNearestComponents(final PositionedShape shape,
+												final int count,
+												final Predicate<Component> filter) {
+		final List<Component> nearestComponents = new ArrayList<>(count);
+		final Iterator<Component> nearestIterator = nearest(shape);
+
+		while (nearestComponents.size() < count && nearestIterator.hasNext()) {
+			final Component component = nearestIterator.next();
+
+			if (filter.test(component)) {
+				nearestComponents.add(component);
+			}
+		}
+
+		return nearestComponents;
+	}
+
+	/**
+	 * @return The components ordered by their distance to the given shape, nearest first, the tree being visited
+	 * as the components are iterated so that iterating the first components only visits the nodes close to the
+	 * shape.
+	 * @see #getDistance(PositionedShape, PositionedShape)
+	 */
+	public Iterator<Component> nearest(final PositionedShape shape) {
+		return new NearestIterator(shape.getxCoordinate(),
+								   shape.getyCoordinate(),
+								   shape.getxCoordinate() + shape.getWidth(),
+								   shape.getyCoordinate() + shape.getHeight());
+	}
+
+	/**
+	 * A node or a component of the tree to be visited, the nodes and the components being visited by increasing
+	 * distance, so that a component is returned only when no unvisited node can hold a nearer component.
+	 */
+	private static final class Entry {
+
+		private final double distance;
+
+		private final int node;
+
+		private final int componentIndex;
+
+		private Entry(final double distance,
+					  final int node,
+					  final int componentIndex) {
+			this.distance = distance;
+			this.node = node;
+			this.componentIndex = componentIndex;
+		}
+	}
+
+	private final class NearestIterator implements Iterator<Component> {
+
+		private final int minxCoordinate;
+
+		private final int minyCoordinate;
+
+		private final int maxxCoordinate;
+
+		private final int maxyCoordinate;
+
+		private final PriorityQueue<Entry> entries;
+
+		private NearestIterator(final int minxCoordinate,
+								final int minyCoordinate,
+								final int maxxCoordinate,
+								final int maxyCoordinate) {
+			this.minxCoordinate = minxCoordinate;
+			this.minyCoordinate = minyCoordinate;
+			this.maxxCoordinate = maxxCoordinate;
+			this.maxyCoordinate = maxyCoordinate;
+			entries = new PriorityQueue<>(Comparator.comparingDouble(entry -> entry.distance));
+
+			if (components.length > 0) {
+				offerNode(0);
+			}
+		}
+
+		private void offerNode(final int node) {
+			entries.offer(new Entry(getDistance(minxCoordinate, minyCoordinate, maxxCoordinate, maxyCoordinate,
+												nodeMinxCoordinates[node], nodeMinyCoordinates[node],
+												nodeMaxxCoordinates[node], nodeMaxyCoordinates[node]),
+									node,
+									-1));
+		}
+
+		@Override
+		public boolean hasNext() {
+			Entry entry = entries.peek();
+
+			while (entry != null && entry.componentIndex < 0) {
+				entries.poll();
+				final int children = nodeChildren[entry.node];
+
+				if (children < 0) {
+					for (int index = nodeStarts[entry.node]; index < nodeEnds[entry.node]; index++) {
+						entries.offer(new Entry(getDistance(minxCoordinate, minyCoordinate, maxxCoordinate, maxyCoordinate,
+															minxCoordinates[index], minyCoordinates[index],
+															maxxCoordinates[index], maxyCoordinates[index]),
+												entry.node,
+												index));
+					}
+				}
+				else {
+					offerNode(children);
+					offerNode(children + 1);
+				}
+
+				entry = entries.peek();
+			}
+
+			return entry != null;
+		}
+
+		@Override
+		public Component next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+
+			return components[entries.poll().componentIndex];
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "ComponentIndex [components=" + components.length + ", nodes=" + nodesCount + "]";
+	}
+}
@@ -3,24 +3,58 @@ package fr.tp.inf112.projects.robotsim.model;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+import java.util.logging.Logger;
 
 import fr.tp.inf112.projects.canvas.controller.Observable;
 import fr.tp.inf112.projects.canvas.controller.Observer;
 import fr.tp.inf112.projects.canvas.model.Canvas;
 import fr.tp.inf112.projects.canvas.model.Figure;
 import fr.tp.inf112.projects.canvas.model.Style;
+import fr.tp.inf112.projects.robotsim.model.fleet.CongestionMap;
+import fr.tp.inf112.projects.robotsim.model.fleet.FleetReport;
+import fr.tp.inf112.projects.robotsim.model.fleet.JobDispatcher;
+import fr.tp.inf112.projects.robotsim.model.fleet.OneWayLane;
+import fr.tp.inf112.projects.robotsim.model.fleet.TravelCostEstimator;
+import fr.tp.inf112.projects.robotsim.model.fleet.WaitForGraph;
 import fr.tp.inf112.projects.robotsim.model.motion.Motion;
+import fr.tp.inf112.projects.robotsim.model.path.FactoryPathFinder;
+import fr.tp.inf112.projects.robotsim.model.path.NavigationData;
 import fr.tp.inf112.projects.robotsim.model.shapes.PositionedShape;
 import fr.tp.inf112.projects.robotsim.model.shapes.RectangularShape;
+import fr.tp.inf112.projects.robotsim.model.simulation.FactorySnapshot;
+import fr.tp.inf112.projects.robotsim.model.simulation.PartitionedSimulation;
+import fr.tp.inf112.projects.robotsim.model.simulation.SnapshotPublisher;
+import fr.tp.inf112.projects.robotsim.model.simulation.TickStatistics;
 
 public class Factory extends Component implements Canvas, Observable {
 
 	private static final long serialVersionUID = 5156526483612458192L;
 	
 	private static final ComponentStyle DEFAULT = new ComponentStyle(5.0f);
+	
+	private static final Logger LOGGER = Logger.getLogger(Factory.class.getName());
+	
+	/**
+	 * Period of the behavior of the components, in milliseconds.
+	 */
+	private static final long TICK_MILLIS = 50;
 
 
 	@JsonManagedReference
@@ -32,6 +66,78 @@ public class Factory extends Component implements Canvas, Observable {
 	@JsonInclude
 	private transient boolean simulationStarted;
 	
+	@JsonIgnore
+	private List<NavigationData> navigationData;
+	
+	@JsonIgnore
+	private transient WaitForGraph waitForGraph;
+	
+	@JsonIgnore
+	private JobDispatcher jobDispatcher;
+	
+	@JsonIgnore
+	private transient long simulationStartTime;
+	
+	@JsonIgnore
+	private transient CongestionMap congestionMap;
+	
+	@JsonIgnore
+	private List<OneWayLane> oneWayLanes;
+	
+	/**
+	 * Time at which the factory was last persisted, so that checkpoints of an older version of the factory are not
+	 * restored.
+	 */
+	@JsonIgnore
+	private long persistenceTime;
+	
+	@JsonIgnore
+	private transient PartitionedSimulation partitionedSimulation;
+	
+	@JsonIgnore
+	private transient volatile FleetStore fleetStore;
+	
+	@JsonIgnore
+	private transient SnapshotPublisher snapshotPublisher;
+	
+	@JsonIgnore
+	private transient FactoryCheckpointer checkpointer;
+	
+	@JsonIgnore
+	private transient TickStatistics tickStatistics;
+	
+	@JsonIgnore
+	private transient volatile boolean observersNotificationPending;
+	
+	@JsonIgnore
+	private transient volatile long lastObserversNotificationNanos;
+	
+	/**
+	 * The components by identifier, built again from the identifiers of the components when read.
+	 */
+	@JsonIgnore
+	private transient volatile Component[] componentsById;
+	
+	@JsonIgnore
+	private transient int nextComponentId;
+	
+	@JsonIgnore
+	private transient volatile ComponentIndex componentIndex;
+	
+	/**
+	 * Held for reading by the robots during each of their steps and for writing by {@link #fork()}, so that robots
+	 * are copied between two of their steps.
+	 */
+	@JsonIgnore
+	private transient ReadWriteLock stepsLock;
+	
+	/**
+	 * The copies of the path finders of the robots being forked into this factory, so that robots sharing a path
+	 * finder share its copy.
+	 */
+	@JsonIgnore
+	private transient Map<FactoryPathFinder, FactoryPathFinder> forkedPathFinders;
+	
 	public Factory() {
 		this(0, 0, null);
 	}
@@ -44,6 +150,22 @@ public class Factory extends Component implements Canvas, Observable {
 		components = new ArrayList<>();
 		observers = null;
 		simulationStarted = false;
+		navigationData = null;
+		jobDispatcher = null;
+		congestionMap = null;
+		oneWayLanes = null;
+		persistenceTime = 0;
+		partitionedSimulation = null;
+		fleetStore = null;
+		snapshotPublisher = null;
+		checkpointer = null;
+		tickStatistics = null;
+		observersNotificationPending = false;
+		lastObserversNotificationNanos = 0;
+		componentsById = null;
+		nextComponentId = 0;
+		stepsLock = new ReentrantReadWriteLock();
+		forkedPathFinders = null;
 	}
 	
 	@JsonIgnore
@@ -65,16 +187,53 @@ public class Factory extends Component implements Canvas, Observable {
 		return getObservers().remove(observer);
 	}
 	
+	/**
+	 * Notifies the observers of a change. While the simulation is behind its ticks, observers are notified at most 
+	 * once per tick: the notifications in between are put off until {@link #notifyPendingObservers()} is called 
+	 * at the end of a tick, and coalesced into one.
+	 */
 	public void notifyObservers() {
 		if (observers == null) return;
+		final long nowNanos = System.nanoTime();
+		if (isSimulationStarted() && tickStatistics != null && tickStatistics.isBehind() &&
+			nowNanos - lastObserversNotificationNanos < TimeUnit.MILLISECONDS.toNanos(TICK_MILLIS)) {
+			observersNotificationPending = true;
+			return;
+		}
+		observersNotificationPending = false;
+		lastObserversNotificationNanos = nowNanos;
 		for (final Observer observer : getObservers()) {
 			observer.modelChanged();
 		}
 	}
 	
+	/**
+	 * Notifies the observers of the changes whose notification was put off, if any.
+	 */
+	public void notifyPendingObservers() {
+		if (observersNotificationPending) {
+			notifyObservers();
+		}
+	}
+	
 	public boolean addComponent(final Component component) {
 		if (components == null) return false;
 		if (components.add(component)) {
+			if (componentsById == null) {
+				indexComponents();
+			}
+			else {
+				indexComponent(component);
+			}
+			
+			if (!component.isMobile()) {
+				componentIndex = null;
+			}
+			
+			if (fleetStore != null && component instanceof Robot) {
+				fleetStore = FleetStore.build(this);
+			}
+			
 			notifyObservers();
 			
 			return true;
@@ -86,6 +245,18 @@ public class Factory extends Component implements Canvas, Observable {
 	public boolean removeComponent(final Component component) {
 		if (components == null) return false;
 		if (components.remove(component)) {
+			if (getComponent(component.getComponentId()) == component) {
+				componentsById[component.getComponentId()] = null;
+			}
+			
+			if (!component.isMobile()) {
+				componentIndex = null;
+			}
+			
+			if (fleetStore != null && component instanceof Robot) {
+				fleetStore = FleetStore.build(this);
+			}
+			
 			notifyObservers();
 			
 			return true;
@@ -97,6 +268,65 @@ public class Factory extends Component implements Canvas, Observable {
 	public List<Component> getComponents() {
 		return components;
 	}
+	
+	/**
+	 * @return The component of the factory with the given identifier, or {@code null} if there is none.
+	 * @see Component#getComponentId()
+	 */
+	public Component getComponent(final int componentId) {
+		Component[] index = componentsById;
+		
+		if (index == null) {
+			index = indexComponents();
+		}
+		
+		return componentId >= 0 && componentId < index.length ? index[componentId] : null;
+	}
+	
+	/**
+	 * Builds the index of the components by identifier, keeping the identifiers of the components read or forked 
+	 * and giving new ones to the components without one.
+	 */
+	private synchronized Component[] indexComponents() {
+		// Factories read from streams written before components had identifiers have the identifier 0.
+		setComponentId(-1);
+		nextComponentId = 0;
+		
+		for (final Component component : components) {
+			nextComponentId = Math.max(nextComponentId, component.getComponentId() + 1);
+		}
+		
+		componentsById = new Component[Math.max(16, nextComponentId)];
+		
+		for (final Component component : components) {
+			indexComponent(component);
+		}
+		
+		return componentsById;
+	}
+	
+	private void readObject(final ObjectInputStream input)
+	throws IOException, ClassNotFoundException {
+		input.defaultReadObject();
+		indexComponents();
+		stepsLock = new ReentrantReadWriteLock();
+	}
+	
+	private void indexComponent(final Component component) {
+		int componentId = component.getComponentId();
+		
+		if (componentId < 0 || componentId < componentsById.length && componentsById[componentId] != null) {
+			componentId = nextComponentId;
+			component.setComponentId(componentId);
+		}
+		
+		if (componentId >= componentsById.length) {
+			componentsById = Arrays.copyOf(componentsById, Math.max(2 * componentsById.length, componentId + 1));
+		}
+		
+		componentsById[componentId] = component;
+		nextComponentId = Math.max(nextComponentId, componentId + 1);
+	}
 
 	@SuppressWarnings({ "unchecked", "rawtypes" })
 	@Override
@@ -104,6 +334,36 @@ public class Factory extends Component implements Canvas, Observable {
 	public Collection<Figure> getFigures() {
 		return (Collection) components;
 	}
+	
+	/**
+	 * @return The figures of the fixed components, which only change when the layout of the factory changes (see
+	 * {@link #computeLayoutHash()}), so that viewers can paint them once and paint the robots over them.
+	 */
+	@JsonIgnore
+	public List<Figure> getStaticFigures() {
+		return getFigures(false);
+	}
+	
+	/**
+	 * @return The figures of the mobile components, to be painted over the static figures.
+	 */
+	@JsonIgnore
+	public List<Figure> getDynamicFigures() {
+		return getFigures(true);
+	}
+	
+	private List<Figure> getFigures(final boolean mobile) {
+		final List<Figure> figures = new ArrayList<>();
+		
+		if (components == null) return figures;
+		for (final Component component : getComponents()) {
+			if (component.isMobile() == mobile) {
+				figures.add(component);
+			}
+		}
+		
+		return figures;
+	}
 
 	@Override
 	public String toString() {
@@ -117,6 +377,11 @@ public class Factory extends Component implements Canvas, Observable {
 	public void startSimulation() {
 		if (!isSimulationStarted()) {
 			this.simulationStarted = true;
+			tickStatistics = new TickStatistics(TICK_MILLIS);
+			
+			if (simulationStartTime == 0) {
+				simulationStartTime = System.currentTimeMillis();
+			}
 			notifyObservers();
 			behave();
 
@@ -127,6 +392,7 @@ public class Factory extends Component implements Canvas, Observable {
 		if (isSimulationStarted()) {
 			this.simulationStarted = false;
 			
+			LOGGER.info(getName() + ": " + getFleetReport() + " " + tickStatistics);
 			notifyObservers();
 		}
 	}
@@ -135,25 +401,62 @@ public class Factory extends Component implements Canvas, Observable {
 	public boolean behave() {
 		if (components == null) return false;
 		for (final Component component : getComponents()) {
-			Thread componentThread = new Thread(component);
-			componentThread.start();
+			if (partitionedSimulation == null || !component.isMobile()) {
+				Thread componentThread = new Thread(component);
+				componentThread.start();
+			}
+		}
+		
+		if (partitionedSimulation != null) {
+			partitionedSimulation.start();
+		}
+		
+		if (snapshotPublisher != null) {
+			new Thread(snapshotPublisher, getName() + " snapshots").start();
+		}
+		
+		if (checkpointer != null) {
+			new Thread(checkpointer, getName() + " checkpoints").start();
 		}
 		
 		return true;
 	}
 	
-	public synchronized int moveComponent(final Motion motion, final Component componentToMove) {
-		Position targetPosition = motion.getTargetPosition();
+	public int moveComponent(final Motion motion, final Component componentToMove) {
+		if (partitionedSimulation != null) {
+			return partitionedSimulation.moveComponent(motion, componentToMove);
+		}
 		
-		PositionedShape targetShape = new RectangularShape(targetPosition.getxCoordinate(), 
-															 targetPosition.getyCoordinate(), 
-															 2, 2);
-
+		synchronized (this) {
+			Position targetPosition = motion.getTargetPosition();
+			
+			PositionedShape targetShape = new RectangularShape(targetPosition.getxCoordinate(), 
+																 targetPosition.getyCoordinate(), 
+																 2, 2);
+	
+			return moveComponentIfFree(targetShape, motion, componentToMove);
+		}
+	}
+	
+	/**
+	 * Moves the given component unless another mobile component overlays the given target shape. The caller must
+	 * hold the lock of the move.
+	 */
+	public int moveComponentIfFree(final PositionedShape targetShape,
+								   final Motion motion,
+								   final Component componentToMove) {
 		if (hasMobileComponentAt(targetShape, componentToMove)) {
 			return 0;
 		}
 		
-		return motion.moveToTarget();
+		final int displacement = motion.moveToTarget();
+		final FleetStore currentFleetStore = fleetStore;
+		
+		if (currentFleetStore != null && componentToMove instanceof Robot) {
+			currentFleetStore.updatePosition((Robot) componentToMove);
+		}
+		
+		return displacement;
 	}
 	public Style getStyle() {
 		return DEFAULT;
@@ -170,8 +473,445 @@ public class Factory extends Component implements Canvas, Observable {
 		return false;
 	}
 	
+	/**
+	 * Returns a hash of what determines where robots can go: the size of the factory, and the class, bounds and
+	 * overlay state of its fixed components. Opening or closing a door changes the hash.
+	 */
+	public long computeLayoutHash() {
+		long hash = 31L * getWidth() + getHeight();
+		
+		if (components == null) return hash;
+		for (final Component component : getComponents()) {
+			if (!component.isMobile()) {
+				final PositionedShape shape = component.getPositionedShape();
+				hash = 31 * hash + component.getClass().getName().hashCode();
+				
+				if (shape != null) {
+					hash = 31 * hash + shape.getxCoordinate();
+					hash = 31 * hash + shape.getyCoordinate();
+					hash = 31 * hash + shape.getWidth();
+					hash = 31 * hash + shape.getHeight();
+					hash = 31 * hash + (component.canBeOverlayed(shape) ? 1 : 0);
+				}
+			}
+		}
+		
+		return hash;
+	}
+	
+	/**
+	 * @return The time at which the factory was last persisted, in milliseconds, or 0 if it never was.
+	 */
+	@JsonIgnore
+	public long getPersistenceTime() {
+		return persistenceTime;
+	}
+	
+	void setPersistenceTime(final long persistenceTime) {
+		this.persistenceTime = persistenceTime;
+	}
+	
+	/**
+	 * @return The saved navigation data of the given resolution that is still valid for the current layout, 
+	 * preferably computed with the given connectivity, or {@code null} if there is none.
+	 */
+	public synchronized NavigationData getNavigationData(final int resolution,
+														 final boolean diagonalMovesEnabled) {
+		if (navigationData == null) {
+			return null;
+		}
+		
+		final long layoutHash = computeLayoutHash();
+		NavigationData validData = null;
+		
+		for (final NavigationData data : navigationData) {
+			if (data.isValidFor(layoutHash, resolution)) {
+				if (data.isDiagonalMovesEnabled() == diagonalMovesEnabled) {
+					return data;
+				}
+				
+				validData = data;
+			}
+		}
+		
+		return validData;
+	}
+	
+	/**
+	 * Saves the given navigation data with the factory, replacing the data of the same resolution and 
+	 * connectivity.
+	 */
+	public synchronized void putNavigationData(final NavigationData data) {
+		if (navigationData == null) {
+			navigationData = new ArrayList<>();
+		}
+		
+		final Iterator<NavigationData> dataIterator = navigationData.iterator();
+		
+		while (dataIterator.hasNext()) {
+			final NavigationData savedData = dataIterator.next();
+			
+			if (savedData.getResolution() == data.getResolution() && 
+				savedData.isDiagonalMovesEnabled() == data.isDiagonalMovesEnabled()) {
+				dataIterator.remove();
+			}
+		}
+		
+		navigationData.add(data);
+	}
+	
+	/**
+	 * @return The dispatcher assigning jobs to the robots, or {@code null} if each robot visits its own list of
+	 * target components.
+	 */
+	@JsonIgnore
+	public JobDispatcher getJobDispatcher() {
+		return jobDispatcher;
+	}
+	
+	@JsonIgnore
+	public void setJobDispatcher(final JobDispatcher jobDispatcher) {
+		this.jobDispatcher = jobDispatcher;
+	}
+	
+	/**
+	 * @return The congestion of the cells that planners add to the cost of moves, or {@code null} if robots
+	 * ignore the traffic.
+	 */
+	@JsonIgnore
+	public CongestionMap getCongestionMap() {
+		return congestionMap;
+	}
+	
+	@JsonIgnore
+	public void setCongestionMap(final CongestionMap congestionMap) {
+		this.congestionMap = congestionMap;
+	}
+	
+	@JsonIgnore
+	public List<OneWayLane> getOneWayLanes() {
+		if (oneWayLanes == null) {
+			oneWayLanes = new ArrayList<>();
+		}
+		
+		return oneWayLanes;
+	}
+	
+	public boolean addOneWayLane(final OneWayLane oneWayLane) {
+		return getOneWayLanes().add(oneWayLane);
+	}
+	
+	/**
+	 * Creates a copy of the factory for what-if runs, which can be simulated in parallel with the factory without
+	 * modifying it. The fixed components, the navigation data and the one-way lanes are shared with the factory:
+	 * robots only read them, and the fixed components still refer to this factory. The robots are copied between
+	 * two of their steps with their current targets and paths, and with copies of their path finders searching the
+	 * fork, so that simulating the fork never reads the congestion of this factory nor builds the graphs of its
+	 * path finders. The job dispatcher, if any, is copied with its waiting jobs and with its assigned jobs given to
+	 * the copies of their robots (see {@link JobDispatcher#forkInto(Factory)}), so that the robots of the fork go on
+	 * with the jobs of this factory without modifying its queue. The fork has no observer and no congestion map,
+	 * which may be set on it.
+	 * @see #simulateSteps(int)
+	 */
+	public Factory fork() {
+		final Factory fork = new Factory(getWidth(), getHeight(), getName());
+		fork.navigationData = navigationData == null ? null : new ArrayList<>(navigationData);
+		fork.oneWayLanes = oneWayLanes == null ? null : new ArrayList<>(oneWayLanes);
+		
+		if (componentsById == null) {
+			indexComponents();
+		}
+		
+		final Runnable forkComponents = () -> {
+			for (final Component component : getComponents()) {
+				final Component forkedComponent = component.forkInto(fork);
+				
+				if (forkedComponent == component) {
+					fork.components.add(component);
+				}
+				else {
+					forkedComponent.setComponentId(component.getComponentId());
+				}
+			}
+			
+			// The components forked were indexed before their identifiers were copied.
+			fork.componentsById = null;
+			
+			if (jobDispatcher != null) {
+				fork.jobDispatcher = jobDispatcher.forkInto(fork);
+			}
+		};
+		
+		fork.forkedPathFinders = new IdentityHashMap<>();
+		runWithStepsLocked(forkComponents);
+		fork.forkedPathFinders = null;
+		
+		return fork;
+	}
+	
+	/**
+	 * Creates a fork of this factory whose robots have the given states, published by the robots (see
+	 * {@link Robot#getPublishedState()}), instead of their current ones. This factory must not be simulated, so that
+	 * the states of the snapshots of a simulated factory are applied to one of its forks without holding its robots.
+	 * @param robotIds The identifiers of the robots whose states are given.
+	 */
+	public Factory forkWithRobotStates(final int[] robotIds,
+									   final byte[][] robotStates) {
+		final Factory fork = fork();
+		
+		try {
+			for (int index = 0; index < robotIds.length; index++) {
+				final Component component = fork.getComponent(robotIds[index]);
+				
+				if (component instanceof Robot) {
+					((Robot) component).readCheckpointState(new DataInputStream(new ByteArrayInputStream(robotStates[index])));
+				}
+			}
+		}
+		catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+		
+		return fork;
+	}
+	
+	/**
+	 * @return The copy searching this fork of the given path finder of a robot being forked.
+	 */
+	FactoryPathFinder forkPathFinder(final FactoryPathFinder pathFinder) {
+		if (pathFinder == null) {
+			return null;
+		}
+		
+		return forkedPathFinders.computeIfAbsent(pathFinder, forkedPathFinder -> forkedPathFinder.forkInto(this));
+	}
+	
+	/**
+	 * Runs the given action while no robot is in one of its steps and no component can move.
+	 */
+	void runWithStepsLocked(final Runnable action) {
+		stepsLock.writeLock().lock();
+		
+		try {
+			if (partitionedSimulation != null) {
+				partitionedSimulation.runWithMovesLocked(action);
+			}
+			else {
+				synchronized (this) {
+					action.run();
+				}
+			}
+		}
+		finally {
+			stepsLock.writeLock().unlock();
+		}
+	}
+	
+	/**
+	 * @return The lock held by the robots during each of their steps.
+	 */
+	Lock getStepLock() {
+		return stepsLock.readLock();
+	}
+	
+	/**
+	 * Simulates the given number of steps in the calling thread, without waiting between steps and waiting for 
+	 * the paths being planned, so that a fork can be simulated much faster than in real time. Must not be called 
+	 * while the simulation is started.
+	 */
+	public void simulateSteps(final int stepsCount) {
+		for (int step = 0; step < stepsCount; step++) {
+			synchronized (this) {
+				waitForGraph = null;
+			}
+			
+			for (final Component component : getComponents()) {
+				if (component.isMobile()) {
+					component.behave();
+					
+					if (component instanceof Robot) {
+						((Robot) component).awaitPathPlanning();
+					}
+				}
+			}
+		}
+	}
+	
+	/**
+	 * @return The engine simulating the robots by regions of the floor, or {@code null} if each component has its 
+	 * own thread and moves are synchronized on the factory.
+	 */
+	@JsonIgnore
+	public PartitionedSimulation getPartitionedSimulation() {
+		return partitionedSimulation;
+	}
+	
+	/**
+	 * Sets the engine simulating the robots by regions of the floor, which takes effect when the simulation is 
+	 * started.
+	 */
+	@JsonIgnore
+	public void setPartitionedSimulation(final PartitionedSimulation partitionedSimulation) {
+		this.partitionedSimulation = partitionedSimulation;
+	}
+	
+	@JsonIgnore
+	public SnapshotPublisher getSnapshotPublisher() {
+		return snapshotPublisher;
+	}
+	
+	/**
+	 * Sets the publisher of the snapshots of the factory, which starts publishing when the simulation is started.
+	 */
+	@JsonIgnore
+	public void setSnapshotPublisher(final SnapshotPublisher snapshotPublisher) {
+		this.snapshotPublisher = snapshotPublisher;
+	}
+	
+	/**
+	 * @return The statistics of the ticks of the last simulation started, or {@code null} if none was.
+	 */
+	@JsonIgnore
+	public TickStatistics getTickStatistics() {
+		return tickStatistics;
+	}
+	
+	@JsonIgnore
+	public FactoryCheckpointer getCheckpointer() {
+		return checkpointer;
+	}
+	
+	/**
+	 * Sets the writer of the checkpoints of the factory, which starts writing when the simulation is started and 
+	 * needs a snapshot publisher.
+	 */
+	@JsonIgnore
+	public void setCheckpointer(final FactoryCheckpointer checkpointer) {
+		this.checkpointer = checkpointer;
+	}
+	
+	/**
+	 * @return The last snapshot of the factory, or {@code null} if the factory has no snapshot publisher.
+	 */
+	@JsonIgnore
+	public FactorySnapshot getSnapshot() {
+		return snapshotPublisher == null ? null : snapshotPublisher.getSnapshot();
+	}
+	
+	/**
+	 * @return The state of the robots stored as arrays, or {@code null} if the fleet loops use the components.
+	 */
+	@JsonIgnore
+	public FleetStore getFleetStore() {
+		return fleetStore;
+	}
+	
+	@JsonIgnore
+	public void setFleetStoreEnabled(final boolean fleetStoreEnabled) {
+		fleetStore = fleetStoreEnabled ? FleetStore.build(this) : null;
+	}
+	
+	/**
+	 * @return The throughput of the robots since the simulation was first started.
+	 */
+	@JsonIgnore
+	public FleetReport getFleetReport() {
+		return FleetReport.of(this, simulationStartTime == 0 ? 0 : System.currentTimeMillis() - simulationStartTime);
+	}
+	
+	/**
+	 * @return The robots waiting for each other, as they were at most one simulation step ago.
+	 */
+	@JsonIgnore
+	public synchronized WaitForGraph getWaitForGraph() {
+		if (waitForGraph == null || waitForGraph.isOutdated()) {
+			waitForGraph = WaitForGraph.build(this);
+		}
+		
+		return waitForGraph;
+	}
+	
+	/**
+	 * @return The index of the fixed components by position, built again when fixed components are added or
+	 * removed.
+	 */
+	@JsonIgnore
+	public ComponentIndex getComponentIndex() {
+		ComponentIndex index = componentIndex;
+		
+		if (index == null) {
+			index = ComponentIndex.build(this);
+			componentIndex = index;
+		}
+		
+		return index;
+	}
+	
+	/**
+	 * @return The given number of fixed components accepted by the given filter that are nearest to the given
+	 * component, nearest first, by Euclidean distance between their bounding boxes.
+	 */
+	public List<Component> getNearestComponents(final Component component,
+												final int count,
+												final Predicate<Component> filter) {
+		return getComponentIndex().getNearestComponents(component.getPositionedShape(), count, filter);
+	}
+	
+	/**
+	 * Finds the fixed component accepted by the given filter with the lowest travel cost from the given robot. The 
+	 * candidates are visited by increasing Euclidean distance, which is a lower bound of the travel costs of the 
+	 * estimators of the fleet, and the search stops at the first candidate whose distance is not lower than the 
+	 * best cost found, so that the travel cost, such as the length of a planned path, is only estimated for the 
+	 * candidates that can be nearer than the nearest one found.
+	 * @return The nearest component, or {@code null} if the robot cannot reach any.
+	 */
+	public Component findNearestComponent(final Robot robot,
+										  final Predicate<Component> filter,
+										  final TravelCostEstimator costEstimator) {
+		final PositionedShape robotShape = robot.getPositionedShape();
+		final Iterator<Component> candidates = getComponentIndex().nearest(robotShape);
+		Component nearestComponent = null;
+		double nearestCost = TravelCostEstimator.UNREACHABLE;
+		
+		while (candidates.hasNext()) {
+			final Component candidate = candidates.next();
+			
+			if (ComponentIndex.getDistance(robotShape, candidate.getPositionedShape()) >= nearestCost) {
+				break;
+			}
+			
+			if (filter.test(candidate)) {
+				final double cost = costEstimator.estimate(robot, candidate);
+				
+				if (cost < nearestCost) {
+					nearestComponent = candidate;
+					nearestCost = cost;
+				}
+			}
+		}
+		
+		return nearestComponent;
+	}
+	
+	/**
+	 * @return The charging station no other robot is on that the given robot can reach with the shortest path, or 
+	 * {@code null} if there is none.
+	 */
+	public ChargingStation findNearestFreeChargingStation(final Robot robot) {
+		final Predicate<Component> freeChargingStation = component -> component instanceof ChargingStation &&
+																	  !hasMobileComponentAt(component.getPositionedShape(), robot);
+		
+		return (ChargingStation) findNearestComponent(robot, freeChargingStation, TravelCostEstimator.PATH_LENGTH);
+	}
+	
 	public boolean hasMobileComponentAt(final PositionedShape shape,
 										final Component movingComponent) {
+		final FleetStore currentFleetStore = fleetStore;
+		
+		if (currentFleetStore != null) {
+			return currentFleetStore.getRobotAt(shape, movingComponent) != null;
+		}
+		
 		if (components == null) return false;
 		for (final Component component : getComponents()) {
 			if (component != movingComponent && component.isMobile() && component.overlays(shape)) {
@@ -197,6 +937,12 @@ public class Factory extends Component implements Canvas, Observable {
 			return null;
 		}
 		
+		final FleetStore currentFleetStore = fleetStore;
+		
+		if (currentFleetStore != null) {
+			return currentFleetStore.getRobotAt(shape, ignoredComponent);
+		}
+		
 		for (final Component component : getComponents()) {
 			if (component != ignoredComponent && component.isMobile() && component.overlays(shape)) {
 				return component;
@@ -0,0 +1,507 @@
+package fr.tp.inf112.projects.robotsim.model;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+import fr.tp.inf112.projects.robotsim.model.fleet.JobDispatcher;
+import fr.tp.inf112.projects.robotsim.model.simulation.FactorySnapshot;
+import fr.tp.inf112.projects.robotsim.model.simulation.SnapshotPublisher;
+
+/**
+ * Writes checkpoints of a running simulation in a directory, from which {@link #restore(Path)} rebuilds the
+ * factory after a crash of the simulation process. Checkpoints are written in a thread of their own from the
+ * snapshots of the factory (see {@link SnapshotPublisher}), so that the robots are never held while writing.
+ *
+ * The directory holds a base, the factory serialized as by the {@link FactoryPersistenceManager}, and a log of
+ * the states of the robots and of the job dispatcher of the factory, if any. The base is only written again when
+ * robots are added or removed. Each checkpoint appends to the log a record of the robots whose state changed since
+ * the previous checkpoint, of their identifiers (see {@link Factory#getComponent(int)}) and
+ * {@link Robot#CHECKPOINT_STATE_SIZE} bytes per robot, followed by the jobs and metrics of the dispatcher if they
+ * changed (see {@link JobDispatcher#writeCheckpointState(DataOutput)}). Every {@link #KEYFRAME_INTERVAL}
+ * checkpoints, the log is replaced by a single record of all the robots and of the dispatcher, so that it does not
+ * grow without bound. Records carry a checksum: a record torn by a crash ends the log when restoring.
+ */
+public class FactoryCheckpointer implements Runnable {
+
+	private static final Logger LOGGER = Logger.getLogger(FactoryCheckpointer.class.getName());
+
+	private static final String BASE_FILE_NAME = "factory.base";
+
+	private static final String LOG_FILE_NAME = "robots.log";
+
+	/**
+	 * Number of checkpoints between two records of all the robots.
+	 */
+	private static final int KEYFRAME_INTERVAL = 100;
+
+	private static final int RECORD_HEADER_SIZE = 2 * Integer.BYTES;
+
+	private static final byte KEYFRAME_RECORD = 0;
+
+	private static final byte DELTA_RECORD = 1;
+
+	/**
+	 * @return {@code true} if the given directory holds a checkpoint to restore.
+	 */
+	public static boolean exists(final Path directory) {
+		return Files.isRegularFile(directory.resolve(BASE_FILE_NAME));
+	}
+
+	/**
+	 * Deletes the checkpoint written in the given directory and the directory itself, unless it holds other files.
+	 */
+	public static void delete(final Path directory)
+	throws IOException {
+		Files.deleteIfExists(directory.resolve(LOG_FILE_NAME));
+		Files.deleteIfExists(directory.resolve(LOG_FILE_NAME + ".tmp"));
+		Files.deleteIfExists(directory.resolve(BASE_FILE_NAME));
+		Files.deleteIfExists(directory.resolve(BASE_FILE_NAME + ".tmp"));
+
+		try {
+			Files.deleteIfExists(directory);
+		}
+		catch (DirectoryNotEmptyException ex) {
+			LOGGER.warning("Checkpoint directory " + directory + " not deleted, as it holds other files.");
+		}
+	}
+
+	/**
+	 * Rebuilds the factory from the last complete checkpoint written in the given directory. The paths of the
+	 * robots are planned again when the simulation of the restored factory is started.
+	 * @throws IOException If the directory holds no checkpoint or its base cannot be read.
+	 */
+	public static Factory restore(final Path directory)
+	throws IOException {
+		final Factory factory;
+
+		try (
+			final InputStream fileInputStream = Files.newInputStream(directory.resolve(BASE_FILE_NAME));
+			final InputStream bufInputStream = new BufferedInputStream(fileInputStream);
+			final ObjectInputStream objectInputStream = new ObjectInputStream(bufInputStream);
+		) {
+			factory = (Factory) objectInputStream.readObject();
+		}
+		catch (ClassNotFoundException | ClassCastException ex) {
+			throw new IOException(ex);
+		}
+
+		final List<Robot> robots = getRobots(factory);
+		final Path logPath = directory.resolve(LOG_FILE_NAME);
+		int recordsCount = 0;
+
+		if (Files.exists(logPath)) {
+			try (final DataInputStream logInput = new DataInputStream(new BufferedInputStream(Files.newInputStream(logPath)))) {
+				while (readRecord(logInput, factory, robots.size())) {
+					recordsCount++;
+				}
+			}
+		}
+
+		LOGGER.info(factory.getName() + ": restored from " + directory + " with " + recordsCount + " records.");
+
+		return factory;
+	}
+
+	/**
+	 * Applies the next record of the log to the robots of the given factory.
+	 * @return {@code false} if the log ended, possibly by a torn or foreign record.
+	 */
+	private static boolean readRecord(final DataInputStream logInput,
+									  final Factory factory,
+									  final int robotsCount)
+	throws IOException {
+		final byte[] payload;
+		final int checksum;
+
+		try {
+			payload = new byte[logInput.readInt()];
+			checksum = logInput.readInt();
+			logInput.readFully(payload);
+		}
+		catch (EOFException | NegativeArraySizeException ex) {
+			return false;
+		}
+
+		if (getChecksum(payload) != checksum) {
+			LOGGER.warning("Checkpoint record with a wrong checksum, ignoring the end of the log.");
+
+			return false;
+		}
+
+		final DataInputStream recordInput = new DataInputStream(new ByteArrayInputStream(payload));
+		recordInput.readByte();
+		recordInput.readLong();
+		recordInput.readLong();
+
+		if (recordInput.readInt() != robotsCount) {
+			LOGGER.warning("Checkpoint record of another fleet, ignoring the end of the log.");
+
+			return false;
+		}
+
+		final int changedRobotsCount = recordInput.readInt();
+
+		for (int index = 0; index < changedRobotsCount; index++) {
+			final Component component = factory.getComponent(recordInput.readInt());
+
+			if (!(component instanceof Robot)) {
+				LOGGER.warning("Checkpoint record of an unknown robot, ignoring the end of the log.");
+
+				return false;
+			}
+
+			((Robot) component).readCheckpointState(recordInput);
+		}
+
+		if (recordInput.available() > 0 && recordInput.readBoolean()) {
+			final byte[] dispatcherState = new byte[recordInput.readInt()];
+			recordInput.readFully(dispatcherState);
+			final JobDispatcher jobDispatcher = factory.getJobDispatcher();
+
+			if (jobDispatcher == null) {
+				LOGGER.warning("Checkpoint record of an unknown job dispatcher, ignoring the end of the log.");
+
+				return false;
+			}
+
+			jobDispatcher.readCheckpointState(new DataInputStream(new ByteArrayInputStream(dispatcherState)), factory);
+		}
+
+		return true;
+	}
+
+	private static List<Robot> getRobots(final Factory factory) {
+		final List<Robot> robots = new ArrayList<>();
+
+		for (final Component component : factory.getComponents()) {
+			if (component instanceof Robot) {
+				robots.add((Robot) component);
+			}
+		}
+
+		return robots;
+	}
+
+	private static int getChecksum(final byte[] payload) {
+		final CRC32 crc = new CRC32();
+		crc.update(payload);
+
+		return (int) crc.getValue();
+	}
+
+	private final Factory factory;
+
+	private final Path directory;
+
+	private final int snapshotsPerCheckpoint;
+
+	private int[] baseRobotIds;
+
+	private byte[][] robotStates;
+
+	private byte[] dispatcherState;
+
+	private FileChannel logChannel;
+
+	private int checkpointsCount;
+
+	private long writtenBytesCount;
+
+	private boolean deleted;
+
+	/**
+	 * @param snapshotsPerCheckpoint The number of snapshots published between two checkpoints, the factory
+	 * needing a {@link SnapshotPublisher}.
+	 */
+	public FactoryCheckpointer(final Factory factory,
+							   final Path directory,
+							   final int snapshotsPerCheckpoint) {
+		this.factory = factory;
+		this.directory = directory;
+		this.snapshotsPerCheckpoint = snapshotsPerCheckpoint;
+		baseRobotIds = null;
+		robotStates = null;
+		dispatcherState = null;
+		logChannel = null;
+		checkpointsCount = 0;
+		writtenBytesCount = 0;
+		deleted = false;
+	}
+
+	public Path getDirectory() {
+		return directory;
+	}
+
+	public synchronized int getCheckpointsCount() {
+		return checkpointsCount;
+	}
+
+	/**
+	 * @return The number of bytes written to the log since the checkpointer was created.
+	 */
+	public synchronized long getWrittenBytesCount() {
+		return writtenBytesCount;
+	}
+
+	@Override
+	public void run() {
+		final SnapshotPublisher snapshotPublisher = factory.getSnapshotPublisher();
+
+		if (snapshotPublisher == null) {
+			LOGGER.warning(factory.getName() + ": no snapshot publisher, no checkpoint written.");
+
+			return;
+		}
+
+		try {
+			long nextVersion = snapshotPublisher.getSnapshot().getVersion();
+
+			while (factory.isSimulationStarted()) {
+				final FactorySnapshot snapshot = snapshotPublisher.awaitSnapshot(nextVersion);
+				checkpoint(snapshot);
+				nextVersion = snapshot.getVersion() + snapshotsPerCheckpoint;
+			}
+
+			checkpoint(snapshotPublisher.getSnapshot());
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+		finally {
+			closeLog();
+		}
+	}
+
+	/**
+	 * Writes a checkpoint of the given snapshot, logging the failures so that the next checkpoint is tried.
+	 */
+	public synchronized void checkpoint(final FactorySnapshot snapshot) {
+		if (deleted) {
+			return;
+		}
+
+		try {
+			final int[] robotIds = snapshot.getRobotIds();
+
+			if (!Arrays.equals(robotIds, baseRobotIds)) {
+				writeBase();
+				baseRobotIds = robotIds;
+				robotStates = null;
+			}
+
+			final byte[] record = encodeRecord(snapshot);
+
+			if (record != null) {
+				writeRecord(record);
+			}
+
+			checkpointsCount++;
+		}
+		catch (IOException | RuntimeException ex) {
+			LOGGER.warning(factory.getName() + ": checkpoint of snapshot " + snapshot.getVersion() + " failed: " + ex);
+			baseRobotIds = null;
+			closeLog();
+		}
+	}
+
+	/**
+	 * Serializes the factory itself rather than its snapshot, whose static components belong to the factory. The
+	 * factory is serialized in memory between two steps of the robots, which are held meanwhile, and written to the
+	 * disk once they are released.
+	 */
+	private void writeBase()
+	throws IOException {
+		final ByteArrayOutputStream baseBytes = new ByteArrayOutputStream();
+
+		try {
+			factory.runWithStepsLocked(() -> {
+				try (final ObjectOutputStream objOutStream = new ObjectOutputStream(baseBytes)) {
+					objOutStream.writeObject(factory);
+				}
+				catch (IOException ex) {
+					throw new UncheckedIOException(ex);
+				}
+			});
+		}
+		catch (UncheckedIOException ex) {
+			throw ex.getCause();
+		}
+
+		Files.createDirectories(directory);
+		final Path basePath = directory.resolve(BASE_FILE_NAME);
+		final Path temporaryPath = directory.resolve(BASE_FILE_NAME + ".tmp");
+
+		try (final OutputStream fileOutStream = Files.newOutputStream(temporaryPath)) {
+			baseBytes.writeTo(fileOutStream);
+		}
+
+		Files.move(temporaryPath, basePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * @return The payload of a record of the robots whose state changed since the previous checkpoint, all of them
+	 * for a keyframe, and of the job dispatcher of the factory if it changed or for a keyframe, or {@code null} if
+	 * nothing changed.
+	 */
+	private byte[] encodeRecord(final FactorySnapshot snapshot)
+	throws IOException {
+		final boolean keyframe = robotStates == null || checkpointsCount % KEYFRAME_INTERVAL == 0;
+		final int[] robotIds = snapshot.getRobotIds();
+		final byte[][] newRobotStates = snapshot.getRobotStates();
+		final ByteArrayOutputStream recordBytes = new ByteArrayOutputStream();
+		final DataOutputStream recordOutput = new DataOutputStream(recordBytes);
+		int changedRobotsCount = 0;
+
+		for (int index = 0; index < robotIds.length; index++) {
+			if (keyframe || !Arrays.equals(newRobotStates[index], robotStates[index])) {
+				recordOutput.writeInt(robotIds[index]);
+				recordOutput.write(newRobotStates[index]);
+				changedRobotsCount++;
+			}
+		}
+
+		robotStates = newRobotStates;
+
+		final JobDispatcher jobDispatcher = factory.getJobDispatcher();
+		byte[] newDispatcherState = null;
+
+		if (jobDispatcher != null) {
+			final ByteArrayOutputStream dispatcherBytes = new ByteArrayOutputStream();
+			jobDispatcher.writeCheckpointState(new DataOutputStream(dispatcherBytes));
+			newDispatcherState = dispatcherBytes.toByteArray();
+		}
+
+		final boolean dispatcherChanged = newDispatcherState != null &&
+										  (keyframe || !Arrays.equals(newDispatcherState, dispatcherState));
+		dispatcherState = newDispatcherState;
+
+		if (!keyframe && changedRobotsCount == 0 && !dispatcherChanged) {
+			return null;
+		}
+
+		final ByteArrayOutputStream payloadBytes = new ByteArrayOutputStream(recordBytes.size() + 32);
+		final DataOutputStream payloadOutput = new DataOutputStream(payloadBytes);
+		payloadOutput.writeByte(keyframe ? KEYFRAME_RECORD : DELTA_RECORD);
+		payloadOutput.writeLong(snapshot.getVersion());
+		payloadOutput.writeLong(snapshot.getCreationTime());
+		payloadOutput.writeInt(robotIds.length);
+		payloadOutput.writeInt(changedRobotsCount);
+		recordBytes.writeTo(payloadOutput);
+		payloadOutput.writeBoolean(dispatcherChanged);
+
+		if (dispatcherChanged) {
+			payloadOutput.writeInt(newDispatcherState.length);
+			payloadOutput.write(newDispatcherState);
+		}
+
+		return payloadBytes.toByteArray();
+	}
+
+	/**
+	 * Appends the given record to the log, or replaces the log by a new one starting with it if it is a
+	 * keyframe, the record being forced to the disk before returning.
+	 */
+	private void writeRecord(final byte[] payload)
+	throws IOException {
+		final ByteBuffer buffer = ByteBuffer.allocate(RECORD_HEADER_SIZE + payload.length);
+		buffer.putInt(payload.length);
+		buffer.putInt(getChecksum(payload));
+		buffer.put(payload);
+		buffer.flip();
+
+		if (payload[0] == KEYFRAME_RECORD) {
+			closeLog();
+
+			final Path temporaryPath = directory.resolve(LOG_FILE_NAME + ".tmp");
+
+			try (final FileChannel temporaryChannel = FileChannel.open(temporaryPath,
+																	  StandardOpenOption.CREATE,
+																	  StandardOpenOption.WRITE,
+																	  StandardOpenOption.TRUNCATE_EXISTING)) {
+				writeFully(temporaryChannel, buffer);
+			}
+
+			Files.move(temporaryPath, directory.resolve(LOG_FILE_NAME), StandardCopyOption.REPLACE_EXISTING,
+					   StandardCopyOption.ATOMIC_MOVE);
+		}
+		else {
+			if (logChannel == null) {
+				logChannel = FileChannel.open(directory.resolve(LOG_FILE_NAME),
+											  StandardOpenOption.CREATE,
+											  StandardOpenOption.WRITE,
+											  StandardOpenOption.APPEND);
+			}
+
+			writeFully(logChannel, buffer);
+		}
+
+		writtenBytesCount += RECORD_HEADER_SIZE + payload.length;
+	}
+
+	private static void writeFully(final FileChannel channel,
+								   final ByteBuffer buffer)
+	throws IOException {
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+
+		channel.force(false);
+	}
+
+	private synchronized void closeLog() {
+		if (logChannel != null) {
+			try {
+				logChannel.close();
+			}
+			catch (IOException ex) {
+				LOGGER.warning(factory.getName() + ": checkpoint log could not be closed: " + ex);
+			}
+
+			logChannel = null;
+		}
+	}
+
+	/**
+	 * Deletes the checkpoints, which are only needed until the simulation is stopped normally, and stops writing
+	 * new ones.
+	 * @see #delete(Path)
+	 */
+	public synchronized void delete()
+	throws IOException {
+		deleted = true;
+		closeLog();
+		delete(directory);
+		baseRobotIds = null;
+		robotStates = null;
+		dispatcherState = null;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "FactoryCheckpointer [directory=" + directory + ", checkpoints=" + checkpointsCount +
+			   ", writtenBytes=" + writtenBytesCount + "]";
+	}
+}
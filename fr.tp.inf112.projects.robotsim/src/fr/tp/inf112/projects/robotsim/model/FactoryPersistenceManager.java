@@ -10,13 +10,18 @@ import java.io.InputStream;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.OutputStream;
+import java.util.logging.Logger;
 
 import fr.tp.inf112.projects.canvas.model.Canvas;
 import fr.tp.inf112.projects.canvas.model.CanvasChooser;
 import fr.tp.inf112.projects.canvas.model.impl.AbstractCanvasPersistenceManager;
+import fr.tp.inf112.projects.robotsim.model.path.AbstractFactoryPathFinder;
+import fr.tp.inf112.projects.robotsim.model.path.FactoryPathFinder;
 
 public class FactoryPersistenceManager extends AbstractCanvasPersistenceManager {
 	
+	private static final Logger LOGGER = Logger.getLogger(FactoryPersistenceManager.class.getName());
+	
 	public FactoryPersistenceManager(final CanvasChooser canvasChooser) {
 		super(canvasChooser);
 	}
@@ -42,10 +47,18 @@ public class FactoryPersistenceManager extends AbstractCanvasPersistenceManager
 
 	/**
 	 * {@inheritDoc}
+	 * 
+	 * The navigation data of the path finders of the robots is saved with a factory, so that it does not have to
+	 * be computed again when the factory is read, and so is the time it is persisted at.
 	 */
 	@Override
 	public void persist(Canvas canvasModel)
 	throws IOException {
+		if (canvasModel instanceof Factory) {
+			saveNavigationData((Factory) canvasModel);
+			((Factory) canvasModel).setPersistenceTime(System.currentTimeMillis());
+		}
+		
 		try (
 			final OutputStream fileOutStream = new FileOutputStream(canvasModel.getId());
 			final OutputStream bufOutStream = new BufferedOutputStream(fileOutStream);
@@ -55,6 +68,24 @@ public class FactoryPersistenceManager extends AbstractCanvasPersistenceManager
 		}
 	}
 
+	private void saveNavigationData(final Factory factory) {
+		for (final Component component : factory.getComponents()) {
+			if (component instanceof Robot) {
+				final FactoryPathFinder pathFinder = ((Robot) component).getPathFinder();
+				
+				if (pathFinder instanceof AbstractFactoryPathFinder<?, ?> && 
+					((AbstractFactoryPathFinder<?, ?>) pathFinder).getFactoryModel() == factory) {
+					try {
+						factory.putNavigationData(((AbstractFactoryPathFinder<?, ?>) pathFinder).createNavigationData());
+					}
+					catch (final RuntimeException ex) {
+						LOGGER.warning("Navigation data of " + component.getName() + " could not be computed: " + ex);
+					}
+				}
+			}
+		}
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
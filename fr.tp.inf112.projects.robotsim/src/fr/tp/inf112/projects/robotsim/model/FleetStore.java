@@ -0,0 +1,239 @@
+package fr.tp.inf112.projects.robotsim.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import fr.tp.inf112.projects.robotsim.model.fleet.FleetReport;
+import fr.tp.inf112.projects.robotsim.model.fleet.WaitForGraph;
+import fr.tp.inf112.projects.robotsim.model.shapes.PositionedShape;
+
+/**
+ * The state of the robots of a factory stored as a structure of arrays indexed by the fleet index of the robots,
+ * so that the loops over the whole fleet, such as looking for the robot at a position before each move, read
+ * contiguous primitive arrays instead of following the components to their shapes and positions. The robots
+ * remain the components drawn on the canvas and serialized with the factory.
+ *
+ * The robots of a store are fixed: the factory builds a new store when robots are added or removed. Positions
+ * are written by the factory when a robot moves, while holding the lock of the move, and the other fields by the
+ * robots at the end of each of their steps, for the {@link WaitForGraph wait-for graph} and the
+ * {@link FleetReport fleet report}.
+ */
+public class FleetStore {
+
+	/**
+	 * Number of robots whose bounding boxes are tested at once before testing them one by one.
+	 */
+	private static final int BLOCK_SIZE = 64;
+
+	public static FleetStore build(final Factory factory) {
+		final List<Robot> robots = new ArrayList<>();
+
+		for (final Component component : factory.getComponents()) {
+			if (component instanceof Robot) {
+				robots.add((Robot) component);
+			}
+		}
+
+		return new FleetStore(robots.toArray(new Robot[robots.size()]));
+	}
+
+	private final Robot[] robots;
+
+	private final int[] xCoordinates;
+
+	private final int[] yCoordinates;
+
+	private final int[] widths;
+
+	private final int[] heights;
+
+	private final boolean[] blockedFlags;
+
+	private final float[] batteryLevels;
+
+	private final int[] visitedTargetsCounts;
+
+	private final int[] travelledDistances;
+
+	private FleetStore(final Robot[] robots) {
+		this.robots = robots;
+		xCoordinates = new int[robots.length];
+		yCoordinates = new int[robots.length];
+		widths = new int[robots.length];
+		heights = new int[robots.length];
+		blockedFlags = new boolean[robots.length];
+		batteryLevels = new float[robots.length];
+		visitedTargetsCounts = new int[robots.length];
+		travelledDistances = new int[robots.length];
+
+		for (int index = 0; index < robots.length; index++) {
+			robots[index].fleetIndex = index;
+			widths[index] = robots[index].getWidth();
+			heights[index] = robots[index].getHeight();
+			updatePosition(robots[index]);
+			updateState(robots[index]);
+		}
+	}
+
+	public int getRobotsCount() {
+		return robots.length;
+	}
+
+	public Robot getRobot(final int fleetIndex) {
+		return robots[fleetIndex];
+	}
+
+	public int getxCoordinate(final int fleetIndex) {
+		return xCoordinates[fleetIndex];
+	}
+
+	public int getyCoordinate(final int fleetIndex) {
+		return yCoordinates[fleetIndex];
+	}
+
+	public int getWidth(final int fleetIndex) {
+		return widths[fleetIndex];
+	}
+
+	public int getHeight(final int fleetIndex) {
+		return heights[fleetIndex];
+	}
+
+	public boolean isBlocked(final int fleetIndex) {
+		return blockedFlags[fleetIndex];
+	}
+
+	public float getBatteryLevel(final int fleetIndex) {
+		return batteryLevels[fleetIndex];
+	}
+
+	public int getBlockedRobotsCount() {
+		int blockedRobotsCount = 0;
+
+		for (final boolean blocked : blockedFlags) {
+			if (blocked) {
+				blockedRobotsCount++;
+			}
+		}
+
+		return blockedRobotsCount;
+	}
+
+	public double getTotalBatteryLevel() {
+		double totalBatteryLevel = 0;
+
+		for (final float batteryLevel : batteryLevels) {
+			totalBatteryLevel += batteryLevel;
+		}
+
+		return totalBatteryLevel;
+	}
+
+	public int getVisitedTargetsCount() {
+		int visitedTargetsCount = 0;
+
+		for (final int robotVisitedTargetsCount : visitedTargetsCounts) {
+			visitedTargetsCount += robotVisitedTargetsCount;
+		}
+
+		return visitedTargetsCount;
+	}
+
+	public long getTravelledDistance() {
+		long travelledDistance = 0;
+
+		for (final int robotTravelledDistance : travelledDistances) {
+			travelledDistance += robotTravelledDistance;
+		}
+
+		return travelledDistance;
+	}
+
+	/**
+	 * @return {@code true} if the given robot is stored here, which is not the case of the robots added to the
+	 * factory after the store was built.
+	 */
+	public boolean contains(final Robot robot) {
+		return robot.fleetIndex >= 0 && robot.fleetIndex < robots.length && robots[robot.fleetIndex] == robot;
+	}
+
+	void updatePosition(final Robot robot) {
+		if (contains(robot)) {
+			xCoordinates[robot.fleetIndex] = robot.getxCoordinate();
+			yCoordinates[robot.fleetIndex] = robot.getyCoordinate();
+		}
+	}
+
+	void updateState(final Robot robot) {
+		if (contains(robot)) {
+			blockedFlags[robot.fleetIndex] = robot.isBlocked();
+			batteryLevels[robot.fleetIndex] = robot.getBatteryLevel();
+			visitedTargetsCounts[robot.fleetIndex] = robot.getVisitedTargetsCount();
+			travelledDistances[robot.fleetIndex] = robot.getTravelledDistance();
+		}
+	}
+
+	/**
+	 * @return The first robot other than the ignored component overlaying the given shape, the bounding boxes
+	 * being tested on the stored positions before the exact test on the robots.
+	 */
+	public Robot getRobotAt(final PositionedShape shape,
+							final Component ignoredComponent) {
+		final int xMin = shape.getxCoordinate();
+		final int yMin = shape.getyCoordinate();
+		final int xMax = xMin + shape.getWidth();
+		final int yMax = yMin + shape.getHeight();
+
+		for (int blockStart = 0; blockStart < robots.length; blockStart += BLOCK_SIZE) {
+			final int blockEnd = Math.min(robots.length, blockStart + BLOCK_SIZE);
+
+			if (hasBoundingBoxOverlap(blockStart, blockEnd, xMin, yMin, xMax, yMax)) {
+				for (int index = blockStart; index < blockEnd; index++) {
+					if (getBoundingBoxOverlap(index, xMin, yMin, xMax, yMax) < 0 &&
+						robots[index] != ignoredComponent && robots[index].overlays(shape)) {
+						return robots[index];
+					}
+				}
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * Tests a block of robots without branching, so that the loop is compiled to vector instructions.
+	 * @return {@code true} if the bounding box of a robot of the block overlays the given one.
+	 */
+	private boolean hasBoundingBoxOverlap(final int blockStart,
+										  final int blockEnd,
+										  final int xMin,
+										  final int yMin,
+										  final int xMax,
+										  final int yMax) {
+		int overlaps = 0;
+
+		for (int index = blockStart; index < blockEnd; index++) {
+			overlaps |= getBoundingBoxOverlap(index, xMin, yMin, xMax, yMax);
+		}
+
+		return overlaps < 0;
+	}
+
+	/**
+	 * @return A negative value if the bounding box of the robot overlays the given one, the four strict
+	 * comparisons being the signs of differences.
+	 */
+	private int getBoundingBoxOverlap(final int index,
+									  final int xMin,
+									  final int yMin,
+									  final int xMax,
+									  final int yMax) {
+		return (xCoordinates[index] - xMax) & (xMin - xCoordinates[index] - widths[index]) &
+			   (yCoordinates[index] - yMax) & (yMin - yCoordinates[index] - heights[index]);
+	}
+
+	@Override
+	public String toString() {
+		return "FleetStore [robots=" + robots.length + "]";
+	}
+}
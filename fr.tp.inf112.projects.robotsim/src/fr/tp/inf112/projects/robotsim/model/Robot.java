@@ -1,8 +1,17 @@
 package fr.tp.inf112.projects.robotsim.model;
 
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.locks.Lock;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import com.fasterxml.jackson.annotation.JsonIdentityReference;
@@ -10,6 +19,9 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 
 import fr.tp.inf112.projects.canvas.model.Style;
 import fr.tp.inf112.projects.canvas.model.impl.RGBColor;
+import fr.tp.inf112.projects.robotsim.model.fleet.CongestionMap;
+import fr.tp.inf112.projects.robotsim.model.fleet.JobDispatcher;
+import fr.tp.inf112.projects.robotsim.model.fleet.WaitForGraph;
 import fr.tp.inf112.projects.robotsim.model.motion.Motion;
 import fr.tp.inf112.projects.robotsim.model.path.FactoryPathFinder;
 import fr.tp.inf112.projects.robotsim.model.shapes.CircularShape;
@@ -26,6 +38,11 @@ public class Robot extends Component {
 
     private static final Style BLOCKED_STYLE = new ComponentStyle(RGBColor.RED, RGBColor.BLACK, 3.0f, new float[]{4.0f});
 
+    /**
+     * Number of bytes written by {@link #writeCheckpointState(DataOutput)}.
+     */
+    static final int CHECKPOINT_STATE_SIZE = 29;
+
     private final Battery battery;
     
     private int speed;
@@ -33,11 +50,22 @@ public class Robot extends Component {
     @JsonIdentityReference(alwaysAsId = true)
     private List<Component> targetComponents;
     
-    private transient Iterator<Component> targetComponentsIterator;
+    /**
+     * Index in the list of targets of the next target to visit.
+     */
+    private int nextTargetIndex;
     
     private Component currTargetComponent;
     
-    private transient Iterator<Position> currentPathPositionsIter;
+    /**
+     * Positions of the current path, as indexes of cells of a grid of unit cells {@link #pathCellsWidth} wide, so 
+     * that the path is serialized with the robot and followed again without planning it once read.
+     */
+    private int[] currentPathCells;
+    
+    private int pathCellsWidth;
+    
+    private transient CompletableFuture<List<Position>> pendingPathPositions;
     
     private boolean blocked;
     
@@ -47,9 +75,28 @@ public class Robot extends Component {
 
     private Position nextPosition; 
     
+    private Position currentWaypoint;
+    
     private FactoryPathFinder pathFinder;
 
     private transient boolean pathFinderInitialized = false;
+    
+    private transient int travelledDistance;
+    
+    private transient int visitedTargetsCount;
+    
+    private int pathCursor;
+    
+    /**
+     * The state written by {@link #writeCheckpointState(DataOutput)} at the end of the last step of the robot, 
+     * read by the snapshot publisher of its factory without holding the robot.
+     */
+    private transient volatile byte[] publishedState;
+    
+    /**
+     * Index of the robot in the {@link FleetStore} of its factory.
+     */
+    transient int fleetIndex = -1;
 
     public Robot(final Factory factory,
                  final FactoryPathFinder pathFinder,
@@ -64,18 +111,65 @@ public class Robot extends Component {
         
         targetComponents = new ArrayList<>();
         currTargetComponent = null;
-        currentPathPositionsIter = null;
+        nextTargetIndex = 0;
+        currentPathCells = null;
+        pathCursor = 0;
         speed = 5;
         blocked = false;
         pathNotFound = false;
         memorizedTargetPosition = null;
         nextPosition = null; 
         pathFinderInitialized = true; 
+        travelledDistance = 0;
+        visitedTargetsCount = 0;
     }
     
     public Robot() {
         this(null, null, null, null, null);
     }
+    
+    /**
+     * Copies the state of the given robot into a robot of the given fork of its factory, with a copy of its path 
+     * finder searching the fork, and sharing its target components and its current path, which are not modified 
+     * once computed. Called by {@link Factory#fork()} between two steps of the robot.
+     */
+    private Robot(final Factory fork,
+                  final Robot robot) {
+        super(fork, 
+              new CircularShape(robot.getxCoordinate(), robot.getyCoordinate(), ((CircularShape) robot.getPositionedShape()).radius), 
+              robot.getName());
+        
+        pathFinder = fork.forkPathFinder(robot.pathFinder);
+        battery = robot.battery == null ? null : new Battery(robot.battery);
+        speed = robot.speed;
+        targetComponents = new ArrayList<>(robot.getTargetComponents());
+        currTargetComponent = robot.currTargetComponent;
+        nextTargetIndex = robot.nextTargetIndex;
+        currentPathCells = robot.currentPathCells;
+        pathCellsWidth = robot.pathCellsWidth;
+        pathCursor = robot.pathCursor;
+        
+        final CompletableFuture<List<Position>> plannedPathPositions = robot.pendingPathPositions;
+        
+        if (plannedPathPositions != null) {
+            // A dependent future, so that the fork cancelling its planning does not cancel the one of the robot.
+            pendingPathPositions = plannedPathPositions.thenApply(positions -> positions);
+        }
+        
+        blocked = robot.blocked;
+        pathNotFound = robot.pathNotFound;
+        memorizedTargetPosition = robot.memorizedTargetPosition;
+        nextPosition = robot.nextPosition;
+        currentWaypoint = robot.currentWaypoint;
+        pathFinderInitialized = robot.pathFinderInitialized;
+        travelledDistance = robot.travelledDistance;
+        visitedTargetsCount = robot.visitedTargetsCount;
+    }
+    
+    @Override
+    protected Component forkInto(final Factory fork) {
+        return new Robot(fork, this);
+    }
 
     @Override
     public String toString() {
@@ -95,6 +189,22 @@ public class Robot extends Component {
         return memorizedTargetPosition;
     }
     
+    /**
+     * @return The distance travelled by the robot since it was created or loaded.
+     */
+    @JsonIgnore
+    public int getTravelledDistance() {
+        return travelledDistance;
+    }
+    
+    /**
+     * @return The number of targets the robot reached since it was created or loaded.
+     */
+    @JsonIgnore
+    public int getVisitedTargetsCount() {
+        return visitedTargetsCount;
+    }
+    
     public List<Component> getTargetComponents() {
         if (targetComponents == null) {
             targetComponents = new ArrayList<>();
@@ -118,6 +228,36 @@ public class Robot extends Component {
 
     @Override
     public boolean behave() {
+        final Lock stepLock = getFactory().getStepLock();
+        final boolean moved;
+        stepLock.lock();
+        
+        try {
+            moved = behaveStep();
+            final FleetStore fleetStore = getFactory().getFleetStore();
+            
+            if (fleetStore != null) {
+                fleetStore.updateState(this);
+            }
+            
+            if (getFactory().getSnapshotPublisher() != null) {
+                publishedState = encodeCheckpointState();
+            }
+        }
+        finally {
+            stepLock.unlock();
+        }
+        
+        final JobDispatcher jobDispatcher = getFactory().getJobDispatcher();
+        
+        if (jobDispatcher != null) {
+            jobDispatcher.dispatch();
+        }
+        
+        return moved;
+    }
+    
+    private boolean behaveStep() {
         if (pathFinder instanceof fr.tp.inf112.projects.robotsim.model.path.AbstractFactoryPathFinder) {
             var abstractFinder = (fr.tp.inf112.projects.robotsim.model.path.AbstractFactoryPathFinder) pathFinder;
             
@@ -129,18 +269,40 @@ public class Robot extends Component {
                     pathFinderInitialized = true;
                     LOGGER.info("Robot " + getName() + ": PathFinder graph built successfully.");
                 } catch (Throwable e) {
-                    LOGGER.severe("Robot " + getName() + ": CRITICAL ERROR building graph! " + e.toString());
-                    e.printStackTrace();
+                    LOGGER.log(Level.SEVERE, "Robot " + getName() + ": CRITICAL ERROR building graph!", e);
                     return false;
                 }
             }
         }
 
-        if (getTargetComponents().isEmpty()) {
+        if (getFactory().getJobDispatcher() == null && getTargetComponents().isEmpty()) {
             LOGGER.fine("Robot " + getName() + ": No target components");
             return false;
         }
         
+        if (isPlanningPath()) {
+            if (!applyPlannedPath()) {
+                return false;
+            }
+            
+            if (pathNotFound) {
+                final JobDispatcher jobDispatcher = getFactory().getJobDispatcher();
+                
+                if (jobDispatcher != null) {
+                    LOGGER.warning("Robot " + getName() + ": Cannot reach " + currTargetComponent.getName() + " - job given back to the dispatcher");
+                    jobDispatcher.releaseJob(this);
+                    currTargetComponent = null;
+                    pathNotFound = false;
+                    blocked = false;
+                    notifyObservers();
+                    return false;
+                }
+                
+                LOGGER.warning("Robot " + getName() + ": Cannot reach " + currTargetComponent.getName() + " - robot will stay blocked");
+                return false;
+            }
+        }
+        
         if (pathNotFound) {
             if (!blocked) {
                 blocked = true; 
@@ -153,18 +315,16 @@ public class Robot extends Component {
         if (currTargetComponent == null || hasReachedCurrentTarget()) {
             if (currTargetComponent != null) {
                 LOGGER.info("Robot " + getName() + " REACHED target: " + currTargetComponent.getName() + " at position " + getPosition());
+                visitedTargetsCount++;
             }
             currTargetComponent = nextTargetComponentToVisit();
             
             if (currTargetComponent != null) {
                 LOGGER.info("Robot " + getName() + " NEW TARGET: " + currTargetComponent.getName() + " at position " + currTargetComponent.getPosition());
                 computePathToCurrentTargetComponent();
-                
-                if (pathNotFound) {
-                    LOGGER.warning("Robot " + getName() + ": Cannot reach " + currTargetComponent.getName() + " - robot will stay blocked");
-                    return false;
-                }
             }
+            
+            return false;
         }
 
         int displacement = moveToNextPathPosition();
@@ -172,12 +332,28 @@ public class Robot extends Component {
         return displacement != 0;
     }
         
+    /**
+     * @return The target of the next job of the robot when the factory dispatches jobs, the next component of its
+     * list of targets otherwise.
+     */
     private Component nextTargetComponentToVisit() {
-        if (targetComponentsIterator == null || !targetComponentsIterator.hasNext()) {
-            targetComponentsIterator = getTargetComponents().iterator();
+        final JobDispatcher jobDispatcher = getFactory().getJobDispatcher();
+        
+        if (jobDispatcher != null) {
+            return jobDispatcher.nextTarget(this);
+        }
+        
+        final List<Component> targetComponents = getTargetComponents();
+        
+        if (targetComponents.isEmpty()) {
+            return null;
         }
         
-        return targetComponentsIterator.hasNext() ? targetComponentsIterator.next() : null;
+        if (nextTargetIndex >= targetComponents.size()) {
+            nextTargetIndex = 0;
+        }
+        
+        return targetComponents.get(nextTargetIndex++);
     }
     
     private int moveToNextPathPosition() {
@@ -193,14 +369,17 @@ public class Robot extends Component {
 
         if (displacement != 0) {
             blocked = false;
+            if (motion.isWaypointReached() && motion.getWaypointPosition() == currentWaypoint) {
+                currentWaypoint = null;
+            }
             LOGGER.info("Robot " + getName() + ": Moved successfully, displacement=" + displacement + ", new position=" + getPosition());
             notifyObservers();
         }
         else if (isLivelyLocked()) {
             LOGGER.info("Robot " + getName() + ": LIVELOCK DETECTED at position " + getPosition());
             
-            final Component otherComponent = getFactory().getMobileComponentAt(memorizedTargetPosition, this);
-            if (otherComponent instanceof Robot && ((Robot) otherComponent).isPathNotFound()) {
+            final Robot otherRobot = getFactory().getWaitForGraph().getWaitedRobot(this);
+            if (otherRobot != null && otherRobot.isPathNotFound()) {
                 LOGGER.info("Robot " + getName() + ": Other robot is permanently blocked, skipping to next target");
                 currTargetComponent = nextTargetComponentToVisit();
                 if (currTargetComponent != null) {
@@ -232,6 +411,14 @@ public class Robot extends Component {
         } else {
             LOGGER.info("Robot " + getName() + ": Blocked but no livelock, waiting... memorizedTargetPosition=" + memorizedTargetPosition);
         }
+        travelledDistance += displacement;
+        
+        final CongestionMap congestionMap = getFactory().getCongestionMap();
+        
+        if (congestionMap != null) {
+            congestionMap.recordOccupancy(getPosition());
+        }
+        
         return displacement;
     }
     
@@ -259,51 +446,130 @@ public class Robot extends Component {
     }
 
     private void computePathToCurrentTargetComponent() {
+        LOGGER.info("Robot " + getName() + ": Computing path from " + getPosition() + " to " + currTargetComponent.getName() + " at " + currTargetComponent.getPosition());
+        
+        if (pendingPathPositions != null) {
+            pendingPathPositions.cancel(false);
+        }
+        
+        clearCurrentPath();
+        currentWaypoint = null;
+        pendingPathPositions = pathFinder.findPathAsync(this, currTargetComponent);
+    }
+    
+    private boolean isPlanningPath() {
+        return pendingPathPositions != null;
+    }
+    
+    /**
+     * Waits for the path requested by {@link #computePathToCurrentTargetComponent()}, if any, so that it is 
+     * adopted at the next step of a simulation run step by step.
+     */
+    void awaitPathPlanning() {
+        final CompletableFuture<List<Position>> plannedPathPositions = pendingPathPositions;
+        
+        if (plannedPathPositions != null) {
+            try {
+                plannedPathPositions.join();
+            } catch (RuntimeException e) {
+                // Reported when the path is adopted.
+            }
+        }
+    }
+    
+    /**
+     * Adopts the path requested by {@link #computePathToCurrentTargetComponent()} once the planner has finished.
+     * @return {@code false} if the planner is still running, in which case the robot simply waits for this tick.
+     */
+    private boolean applyPlannedPath() {
+        if (!pendingPathPositions.isDone()) {
+            LOGGER.fine("Robot " + getName() + ": Waiting for path planning to complete");
+            return false;
+        }
+        
+        final CompletableFuture<List<Position>> plannedPathPositions = pendingPathPositions;
+        pendingPathPositions = null;
+        
         try {
-            LOGGER.info("Robot " + getName() + ": Computing path from " + getPosition() + " to " + currTargetComponent.getName() + " at " + currTargetComponent.getPosition());
-            final List<Position> currentPathPositions = pathFinder.findPath(this, currTargetComponent);
+            final List<Position> currentPathPositions = plannedPathPositions.join();
             
             if (currentPathPositions != null && !currentPathPositions.isEmpty()) {
                 LOGGER.info("Robot " + getName() + ": Path found with " + currentPathPositions.size() + " steps.");
-                currentPathPositionsIter = currentPathPositions.iterator();
+                setCurrentPath(currentPathPositions);
+                pathNotFound = false;
+                blocked = false;
+            } else if (hasReachedCurrentTarget()) {
+                LOGGER.info("Robot " + getName() + ": Already at " + currTargetComponent.getName());
+                clearCurrentPath();
                 pathNotFound = false;
                 blocked = false;
             } else {
                 LOGGER.warning("Robot " + getName() + ": No path found to " + currTargetComponent.getName());
-                currentPathPositionsIter = null;
+                clearCurrentPath();
                 pathNotFound = true;
                 blocked = true;
             }
-        } catch (Exception e) {
-            LOGGER.severe("Robot " + getName() + ": Error computing path: " + e.getMessage());
-            e.printStackTrace();
+        } catch (CompletionException e) {
+            LOGGER.log(Level.SEVERE, "Robot " + getName() + ": Error computing path.", e.getCause());
             pathNotFound = true;
             blocked = true;
         }
+        
+        return true;
+    }
+    
+    /**
+     * Stores the given path as cell indexes, in a grid as wide as the rightmost position of the path.
+     */
+    private void setCurrentPath(final List<Position> pathPositions) {
+        int width = 1;
+        
+        for (final Position position : pathPositions) {
+            width = Math.max(width, position.getxCoordinate() + 1);
+        }
+        
+        final int[] pathCells = new int[pathPositions.size()];
+        
+        for (int index = 0; index < pathCells.length; index++) {
+            pathCells[index] = pathPositions.get(index).getyCoordinate() * width + pathPositions.get(index).getxCoordinate();
+        }
+        
+        currentPathCells = pathCells;
+        pathCellsWidth = width;
+        pathCursor = 0;
+    }
+    
+    private void clearCurrentPath() {
+        currentPathCells = null;
+        pathCursor = 0;
+    }
+    
+    private Position getPathPosition(final int index) {
+        return new Position(currentPathCells[index] % pathCellsWidth, currentPathCells[index] / pathCellsWidth);
     }
     
     private Motion computeMotion() {
-        Position targetPosition = getTargetPosition();
+        final Position waypointPosition = advanceTargetPosition();
         
-        if (targetPosition == null) {
+        if (waypointPosition == null) {
             LOGGER.info("Robot " + getName() + ": No target position (path exhausted or not computed)");
             if (currTargetComponent != null && !hasReachedCurrentTarget()) {
                 LOGGER.info("Robot " + getName() + ": Path exhausted but target not reached, recomputing path...");
                 computePathToCurrentTargetComponent();
-                targetPosition = getTargetPosition();
-                if (targetPosition != null) {
-                    LOGGER.info("Robot " + getName() + ": New path computed, target position: " + targetPosition);
-                } else {
-                    blocked = true;
-                    return null;
-                }
+                return null;
             } else {
                 blocked = true;
                 return null;
             }
         }
         
-        LOGGER.info("Robot " + getName() + ": Target position is " + targetPosition);
+        LOGGER.info("Robot " + getName() + ": Target position is " + waypointPosition);
+        
+        final Motion motion = new Motion(getPosition(), waypointPosition, getSpeed());
+        final Position targetPosition = motion.getTargetPosition();
+        if (!motion.isWaypointReached()) {
+            currentWaypoint = waypointPosition;
+        }
         
         final PositionedShape shape = new RectangularShape(targetPosition.getxCoordinate(),
                                                            targetPosition.getyCoordinate(),
@@ -320,10 +586,40 @@ public class Robot extends Component {
         this.memorizedTargetPosition = null;
         blocked = false;
             
-        return new Motion(getPosition(), targetPosition);
+        return motion;
     }
     
+    /**
+     * @return The position the robot moves towards in its next step: its escape position, the position it is 
+     * waiting for, its current waypoint or the next position of its path. Does not modify the robot, unlike 
+     * {@link #advanceTargetPosition()}.
+     */
+    @JsonIgnore
     public Position getTargetPosition() {
+        if (nextPosition != null) {
+            return nextPosition;
+        }
+        
+        if (memorizedTargetPosition != null) {
+            return memorizedTargetPosition;
+        }
+        
+        if (currentWaypoint != null) {
+            return currentWaypoint;
+        }
+        
+        if (currentPathCells != null && pathCursor < currentPathCells.length) {
+            return getPathPosition(pathCursor);
+        }
+        
+        return null;
+    }
+    
+    /**
+     * Returns the same position as {@link #getTargetPosition()}, using up the escape position and moving on to 
+     * the next position of the path when it is one of them.
+     */
+    private Position advanceTargetPosition() {
         if (this.nextPosition != null) {
             Position temp = this.nextPosition;
             this.nextPosition = null;
@@ -336,8 +632,13 @@ public class Robot extends Component {
             return this.memorizedTargetPosition;
         }
 
-        if (currentPathPositionsIter != null && currentPathPositionsIter.hasNext()) {
-            Position next = currentPathPositionsIter.next();
+        if (this.currentWaypoint != null) {
+            LOGGER.info("Robot " + getName() + ": Continuing towards waypoint " + currentWaypoint);
+            return this.currentWaypoint;
+        }
+
+        if (currentPathCells != null && pathCursor < currentPathCells.length) {
+            Position next = getPathPosition(pathCursor++);
             LOGGER.info("Robot " + getName() + ": Next position from path " + next);
             return next;
         }
@@ -346,28 +647,124 @@ public class Robot extends Component {
         return null;
     }
     
+    /**
+     * A robot is lively locked when it was chosen to break a cycle of robots waiting for each other, whatever its
+     * length, or when it waits for a robot that will never move.
+     * @see WaitForGraph
+     */
     @JsonIgnore
     public boolean isLivelyLocked() {
         if (memorizedTargetPosition == null) {
             return false;
         }
             
-        final Component otherComponent = getFactory().getMobileComponentAt(memorizedTargetPosition, this);
+        final WaitForGraph waitForGraph = getFactory().getWaitForGraph();
 
-        if (otherComponent instanceof Robot) {
-            Robot otherRobot = (Robot) otherComponent;
-            if (getPosition().equals(otherRobot.getMemorizedTargetPosition())) {
-                return true;
-            }
-            if (otherRobot.isPathNotFound()) {
-                LOGGER.info("Robot " + getName() + ": Other robot " + otherRobot.getName() + " is permanently blocked, need to go around");
-                return true;
-            }
+        if (waitForGraph.mustYield(this)) {
+            return true;
+        }
+        
+        final Robot otherRobot = waitForGraph.getWaitedRobot(this);
+
+        if (otherRobot != null && otherRobot.isPathNotFound()) {
+            LOGGER.info("Robot " + getName() + ": Other robot " + otherRobot.getName() + " is permanently blocked, need to go around");
+            return true;
         }
         
         return false;
     }
     
+    @JsonIgnore
+    public float getBatteryLevel() {
+        return battery == null ? 0 : battery.getLevel();
+    }
+    
+    /**
+     * Writes the state of the robot changed by the simulation in {@link #CHECKPOINT_STATE_SIZE} bytes: its 
+     * position, its flags, the index of its current target and its counters. The current path is not written: a 
+     * restored robot plans it again.
+     */
+    void writeCheckpointState(final DataOutput output)
+    throws IOException {
+        output.writeInt(getxCoordinate());
+        output.writeInt(getyCoordinate());
+        output.writeByte((blocked ? 1 : 0) | (pathNotFound ? 2 : 0));
+        output.writeInt(targetComponents.indexOf(currTargetComponent));
+        output.writeInt(speed);
+        output.writeInt(travelledDistance);
+        output.writeInt(visitedTargetsCount);
+        output.writeFloat(getBatteryLevel());
+    }
+    
+    /**
+     * @return The state of the robot published at the end of its last step when its factory has a snapshot 
+     * publisher, its current state if none was published yet. The array must not be modified.
+     */
+    @JsonIgnore
+    public byte[] getPublishedState() {
+        final byte[] state = publishedState;
+        
+        return state == null ? encodeCheckpointState() : state;
+    }
+    
+    private byte[] encodeCheckpointState() {
+        final ByteArrayOutputStream stateBytes = new ByteArrayOutputStream(CHECKPOINT_STATE_SIZE);
+        
+        try {
+            writeCheckpointState(new DataOutputStream(stateBytes));
+        }
+        catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        
+        return stateBytes.toByteArray();
+    }
+    
+    /**
+     * Restores the state written by {@link #writeCheckpointState(DataOutput)}. A robot whose target was assigned 
+     * by a job dispatcher restarts without target and asks the dispatcher again.
+     */
+    void readCheckpointState(final DataInput input)
+    throws IOException {
+        setxCoordinate(input.readInt());
+        setyCoordinate(input.readInt());
+        
+        final int flags = input.readByte();
+        blocked = (flags & 1) != 0;
+        pathNotFound = (flags & 2) != 0;
+        
+        final int currentTargetIndex = input.readInt();
+        
+        if (currentTargetIndex >= 0 && currentTargetIndex < targetComponents.size()) {
+            currTargetComponent = targetComponents.get(currentTargetIndex);
+            nextTargetIndex = currentTargetIndex + 1;
+        }
+        else {
+            currTargetComponent = null;
+            nextTargetIndex = 0;
+        }
+        
+        speed = input.readInt();
+        travelledDistance = input.readInt();
+        visitedTargetsCount = input.readInt();
+        
+        final float batteryLevel = input.readFloat();
+        
+        if (battery != null) {
+            battery.charge(batteryLevel - battery.getLevel());
+        }
+        
+        if (pendingPathPositions != null) {
+            pendingPathPositions.cancel(false);
+            pendingPathPositions = null;
+        }
+        
+        clearCurrentPath();
+        memorizedTargetPosition = null;
+        nextPosition = null;
+        currentWaypoint = null;
+    }
+    
     public boolean isBlocked() {
         return blocked;
     }
@@ -381,8 +778,12 @@ public class Robot extends Component {
         return pathNotFound;
     }
 
+    /**
+     * Paths lead to the cell of the position of the target, which is the corner of its bounding box and may lie
+     * outside of a non rectangular target: reaching its bounding box is enough.
+     */
     private boolean hasReachedCurrentTarget() {
-        return getPositionedShape().overlays(currTargetComponent.getPositionedShape());
+        return getPositionedShape().boundingBoxOverlays(currTargetComponent.getPositionedShape());
     }
     
     @Override
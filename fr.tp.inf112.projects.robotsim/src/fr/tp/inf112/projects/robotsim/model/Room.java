@@ -22,6 +22,17 @@ public class Room extends Component {
 	
 	private final PositionedShape bottomWall;
 	
+	/**
+	 * Bounding box of the walls and doors: shapes that do not overlay it overlay none of them. Computed from the
+	 * shape of the room when first needed, so that rooms saved without it still have it.
+	 */
+	private transient volatile PositionedShape outline;
+	
+	/**
+	 * Inside of the walls: shapes whose bounding box is contained in it overlay no wall and no door.
+	 */
+	private transient volatile PositionedShape inside;
+	
 	private final List<Area> areas;
 
 	private final List<Door> doors;
@@ -68,12 +79,20 @@ public class Room extends Component {
 
 	@Override
 	public boolean overlays(final PositionedShape shape) {
+		if (!mayOverlayWalls(shape)) {
+			return false;
+		}
+		
 		return leftWall.overlays(shape) || rightWall.overlays(shape) || 
 			   topWall.overlays(shape) || bottomWall.overlays(shape);
 	}
 
 	@Override
 	public boolean canBeOverlayed(final PositionedShape shape) {
+		if (!mayOverlayWalls(shape)) {
+			return true;
+		}
+		
 		final Door overlayedDoor = getOverlayedDoor(shape);
 		
 		if (overlayedDoor != null) {
@@ -88,6 +107,38 @@ public class Room extends Component {
 		return true;
 	}
 	
+	/**
+	 * Broad phase of the overlay tests, on the bounding box of the given shape only.
+	 */
+	private boolean mayOverlayWalls(final PositionedShape shape) {
+		if (!getOutline().boundingBoxOverlays(shape)) {
+			return false;
+		}
+		
+		final PositionedShape inside = getInside();
+		
+		return shape.getxCoordinate() < inside.getxCoordinate() ||
+			   shape.getyCoordinate() < inside.getyCoordinate() ||
+			   shape.getxCoordinate() + shape.getWidth() > inside.getxCoordinate() + inside.getWidth() ||
+			   shape.getyCoordinate() + shape.getHeight() > inside.getyCoordinate() + inside.getHeight();
+	}
+	
+	private PositionedShape getOutline() {
+		if (outline == null) {
+			outline = new RectangularShape(getxCoordinate(), getyCoordinate(), getWidth() + WALL_THICKNESS, getHeight() + WALL_THICKNESS);
+		}
+		
+		return outline;
+	}
+	
+	private PositionedShape getInside() {
+		if (inside == null) {
+			inside = new RectangularShape(getxCoordinate() + WALL_THICKNESS, getyCoordinate() + WALL_THICKNESS, getWidth() - WALL_THICKNESS, getHeight() - WALL_THICKNESS);
+		}
+		
+		return inside;
+	}
+	
 	private Door getOverlayedDoor(final PositionedShape shape) {
 		for (final Door door : getDoors()) {
 			if (door.overlays(shape)) {
@@ -0,0 +1,138 @@
+package fr.tp.inf112.projects.robotsim.model.fleet;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import fr.tp.inf112.projects.robotsim.model.Robot;
+
+/**
+ * Solves the assignment problem of the round with the Hungarian algorithm on the rectangular matrix of the costs
+ * of the jobs for the robots, so that the smaller of the two sides is fully assigned and the rest is left
+ * unassigned until the next round, in O(n * n * m) time for n jobs or robots, whichever are fewer, and m of the
+ * others.
+ * @see DispatchPolicy#BATCH
+ */
+public class BatchDispatchPolicy implements DispatchPolicy {
+
+	private static final long serialVersionUID = -1745204926373305418L;
+
+	@Override
+	public Map<Job, Robot> assign(final List<Robot> robots,
+								  final List<Job> jobs,
+								  final TravelCostEstimator costEstimator) {
+		final Map<Job, Robot> assignments = new LinkedHashMap<>();
+
+		if (robots.isEmpty() || jobs.isEmpty()) {
+			return assignments;
+		}
+
+		final boolean jobRows = jobs.size() <= robots.size();
+		final double[][] costs = jobRows ? new double[jobs.size()][robots.size()] : new double[robots.size()][jobs.size()];
+
+		for (int jobIndex = 0; jobIndex < jobs.size(); jobIndex++) {
+			for (int robotIndex = 0; robotIndex < robots.size(); robotIndex++) {
+				final double cost = Math.min(TravelCostEstimator.UNREACHABLE,
+											 costEstimator.estimate(robots.get(robotIndex), jobs.get(jobIndex).getNextStop()));
+
+				if (jobRows) {
+					costs[jobIndex][robotIndex] = cost;
+				}
+				else {
+					costs[robotIndex][jobIndex] = cost;
+				}
+			}
+		}
+
+		final int[] columns = solve(costs);
+
+		for (int row = 0; row < columns.length; row++) {
+			if (costs[row][columns[row]] < TravelCostEstimator.UNREACHABLE) {
+				final int jobIndex = jobRows ? row : columns[row];
+				final int robotIndex = jobRows ? columns[row] : row;
+				assignments.put(jobs.get(jobIndex), robots.get(robotIndex));
+			}
+		}
+
+		return assignments;
+	}
+
+	/**
+	 * Assigns each row of the given cost matrix, which has no more rows than columns, to a distinct column so that
+	 * the total cost is minimal, with the potentials of the shortest augmenting paths method.
+	 * @return The column assigned to each row.
+	 */
+	static int[] solve(final double[][] costs) {
+		final int rowsCount = costs.length;
+		final int columnsCount = costs[0].length;
+		final double[] rowPotentials = new double[rowsCount + 1];
+		final double[] columnPotentials = new double[columnsCount + 1];
+		// The row assigned to each column, from 1, 0 being the row being added.
+		final int[] columnRows = new int[columnsCount + 1];
+		final int[] previousColumns = new int[columnsCount + 1];
+		final double[] minSlacks = new double[columnsCount + 1];
+		final boolean[] visitedColumns = new boolean[columnsCount + 1];
+
+		for (int row = 1; row <= rowsCount; row++) {
+			columnRows[0] = row;
+			int column = 0;
+			Arrays.fill(minSlacks, Double.POSITIVE_INFINITY);
+			Arrays.fill(visitedColumns, false);
+
+			do {
+				visitedColumns[column] = true;
+				final int columnRow = columnRows[column];
+				double delta = Double.POSITIVE_INFINITY;
+				int nextColumn = 0;
+
+				for (int otherColumn = 1; otherColumn <= columnsCount; otherColumn++) {
+					if (!visitedColumns[otherColumn]) {
+						final double slack = costs[columnRow - 1][otherColumn - 1] - rowPotentials[columnRow] -
+											 columnPotentials[otherColumn];
+
+						if (slack < minSlacks[otherColumn]) {
+							minSlacks[otherColumn] = slack;
+							previousColumns[otherColumn] = column;
+						}
+
+						if (minSlacks[otherColumn] < delta) {
+							delta = minSlacks[otherColumn];
+							nextColumn = otherColumn;
+						}
+					}
+				}
+
+				for (int otherColumn = 0; otherColumn <= columnsCount; otherColumn++) {
+					if (visitedColumns[otherColumn]) {
+						rowPotentials[columnRows[otherColumn]] += delta;
+						columnPotentials[otherColumn] -= delta;
+					}
+					else {
+						minSlacks[otherColumn] -= delta;
+					}
+				}
+
+				column = nextColumn;
+			}
+			while (columnRows[column] != 0);
+
+			do {
+				final int previousColumn = previousColumns[column];
+				columnRows[column] = columnRows[previousColumn];
+				column = previousColumn;
+			}
+			while (column != 0);
+		}
+
+		final int[] rowColumns = new int[rowsCount];
+
+		for (int column = 1; column <= columnsCount; column++) {
+			if (columnRows[column] != 0) {
+				rowColumns[columnRows[column] - 1] = column - 1;
+			}
+		}
+
+		return rowColumns;
+	}
+}
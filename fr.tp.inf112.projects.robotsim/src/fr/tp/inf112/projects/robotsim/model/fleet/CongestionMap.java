@@ -0,0 +1,128 @@
+package fr.tp.inf112.projects.robotsim.model.fleet;
+
+import fr.tp.inf112.projects.robotsim.model.Position;
+
+/**
+ * A live measure of how often robots occupy each cell of a factory, kept as an exponentially decayed count: every
+ * sample of a robot in a cell adds to the cell, and the counts of all cells lose half of their value every half
+ * life. Samples are weighted so that the count of a cell where a robot stands permanently tends to 1.
+ *
+ * Planners add the count of the cell entered by a move, multiplied by {@link #getCostWeight()}, to the cost of
+ * the move, so that robots avoid the corridors where others queue.
+ */
+public class CongestionMap {
+
+	private final int xSize;
+
+	private final int ySize;
+
+	private final int resolution;
+
+	private final long halfLifeMillis;
+
+	private final double costWeight;
+
+	private final double sampleWeight;
+
+	private final double[] occupancies;
+
+	private final long[] updateTimes;
+
+	/**
+	 * @param samplePeriodMillis The period at which each robot records its position.
+	 * @param costWeight The cost added to a move entering a permanently occupied cell, in orthogonal moves.
+	 */
+	public CongestionMap(final int width,
+						 final int height,
+						 final int resolution,
+						 final long halfLifeMillis,
+						 final long samplePeriodMillis,
+						 final double costWeight) {
+		this.xSize = Math.max(1, width / resolution);
+		this.ySize = Math.max(1, height / resolution);
+		this.resolution = resolution;
+		this.halfLifeMillis = halfLifeMillis;
+		this.costWeight = costWeight;
+		sampleWeight = 1.0 - Math.pow(0.5, (double) samplePeriodMillis / halfLifeMillis);
+		occupancies = new double[xSize * ySize];
+		updateTimes = new long[xSize * ySize];
+	}
+
+	public int getResolution() {
+		return resolution;
+	}
+
+	public double getCostWeight() {
+		return costWeight;
+	}
+
+	/**
+	 * Adds a sample of a robot at the given position to the cell containing it.
+	 */
+	public synchronized void recordOccupancy(final Position position) {
+		final int cell = getCell(position.getxCoordinate(), position.getyCoordinate());
+
+		if (cell >= 0) {
+			final long time = System.currentTimeMillis();
+			occupancies[cell] = getDecayedOccupancy(cell, time) + sampleWeight;
+			updateTimes[cell] = time;
+		}
+	}
+
+	/**
+	 * @return The occupancy of the cell containing the given coordinates, decayed to the current time.
+	 */
+	public synchronized double getOccupancy(final int xCoordinate,
+											final int yCoordinate) {
+		final int cell = getCell(xCoordinate, yCoordinate);
+
+		return cell < 0 ? 0 : getDecayedOccupancy(cell, System.currentTimeMillis());
+	}
+
+	/**
+	 * @return The occupancies of all the cells decayed to the current time, indexed by
+	 * {@code xIndex * ySize + yIndex} for cells of the resolution of the map, so that a search reads a consistent
+	 * state without locking the map for each move.
+	 */
+	public synchronized double[] getOccupancies() {
+		final long time = System.currentTimeMillis();
+		final double[] decayedOccupancies = new double[occupancies.length];
+
+		for (int cell = 0; cell < occupancies.length; cell++) {
+			if (occupancies[cell] != 0) {
+				decayedOccupancies[cell] = getDecayedOccupancy(cell, time);
+			}
+		}
+
+		return decayedOccupancies;
+	}
+
+	/**
+	 * @return The index of the cell containing the given coordinates in {@link #getOccupancies()}, or {@code -1}
+	 * if they are outside of the map.
+	 */
+	public int getCell(final int xCoordinate,
+					   final int yCoordinate) {
+		final int xIndex = Math.floorDiv(xCoordinate, resolution);
+		final int yIndex = Math.floorDiv(yCoordinate, resolution);
+
+		if (xIndex < 0 || yIndex < 0 || xIndex >= xSize || yIndex >= ySize) {
+			return -1;
+		}
+
+		return xIndex * ySize + yIndex;
+	}
+
+	private double getDecayedOccupancy(final int cell,
+									   final long time) {
+		final long elapsedMillis = time - updateTimes[cell];
+
+		return elapsedMillis <= 0 ? occupancies[cell] : occupancies[cell] * Math.pow(0.5, (double) elapsedMillis / halfLifeMillis);
+	}
+
+	@Override
+	public String toString() {
+		return "CongestionMap [xSize=" + xSize + ", ySize=" + ySize + ", resolution=" + resolution +
+			   ", halfLifeMillis=" + halfLifeMillis + ", costWeight=" + costWeight + "]";
+	}
+}
@@ -0,0 +1,44 @@
+package fr.tp.inf112.projects.robotsim.model.fleet;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.Map;
+
+import fr.tp.inf112.projects.robotsim.model.Robot;
+
+/**
+ * Chooses which idle robots the waiting jobs of a {@link JobDispatcher} are assigned to in a dispatch round.
+ */
+@FunctionalInterface
+public interface DispatchPolicy extends Serializable {
+
+	/**
+	 * Gives each job, in order, to the idle robot with the lowest travel cost to it: the oldest jobs are served
+	 * first, with as many cost estimates as jobs and robots.
+	 */
+	DispatchPolicy NEAREST_IDLE = new NearestIdleDispatchPolicy();
+
+	/**
+	 * Assigns the jobs of the round so that the total travel cost is minimal: fewer robots travel far, at the
+	 * cost of solving an assignment problem for each round.
+	 */
+	DispatchPolicy BATCH = new BatchDispatchPolicy();
+
+	/**
+	 * Assigns the jobs of the highest priority first with the given policy, then the jobs of the next priority to
+	 * the robots that are still idle, and so on.
+	 */
+	static DispatchPolicy byPriority(final DispatchPolicy policy) {
+		return new PriorityDispatchPolicy(policy);
+	}
+
+	/**
+	 * @param idleRobots The robots without a job.
+	 * @param jobs The waiting jobs of the round, by decreasing priority then by submission.
+	 * @return The robot assigned to each job of the round that is assigned one. Jobs are never assigned to robots
+	 * that cannot reach them at a cost lower than {@link TravelCostEstimator#UNREACHABLE}.
+	 */
+	Map<Job, Robot> assign(List<Robot> idleRobots,
+						   List<Job> jobs,
+						   TravelCostEstimator costEstimator);
+}
@@ -0,0 +1,184 @@
+package fr.tp.inf112.projects.robotsim.model.fleet;
+
+import fr.tp.inf112.projects.robotsim.model.Component;
+import fr.tp.inf112.projects.robotsim.model.Factory;
+import fr.tp.inf112.projects.robotsim.model.FleetStore;
+import fr.tp.inf112.projects.robotsim.model.Robot;
+
+/**
+ * Throughput of the robots of a factory over a simulation, computed from the counters of the robots so that fleets
+ * following static lists of targets and fleets served by a {@link JobDispatcher} can be compared: each target
+ * reached counts as a completed job. The counters are read from the {@link FleetStore} of the factory when it has
+ * one. The queue and latency metrics of the {@link JobDispatcher} of the factory, if any, are reported as well.
+ */
+public class FleetReport {
+
+	public static FleetReport of(final Factory factory,
+								 final long elapsedMillis) {
+		final FleetStore fleetStore = factory.getFleetStore();
+		final JobDispatcher jobDispatcher = factory.getJobDispatcher();
+
+		if (fleetStore != null) {
+			return new FleetReport(fleetStore.getRobotsCount(),
+								   fleetStore.getVisitedTargetsCount(),
+								   fleetStore.getTravelledDistance(),
+								   fleetStore.getBlockedRobotsCount(),
+								   fleetStore.getTotalBatteryLevel(),
+								   elapsedMillis,
+								   jobDispatcher);
+		}
+
+		int robotsCount = 0;
+		int visitedTargetsCount = 0;
+		long travelledDistance = 0;
+		int blockedRobotsCount = 0;
+		double totalBatteryLevel = 0;
+
+		for (final Component component : factory.getComponents()) {
+			if (component instanceof Robot) {
+				final Robot robot = (Robot) component;
+				robotsCount++;
+				visitedTargetsCount += robot.getVisitedTargetsCount();
+				travelledDistance += robot.getTravelledDistance();
+
+				if (robot.isBlocked()) {
+					blockedRobotsCount++;
+				}
+
+				totalBatteryLevel += robot.getBatteryLevel();
+			}
+		}
+
+		return new FleetReport(robotsCount, visitedTargetsCount, travelledDistance, blockedRobotsCount,
+							   totalBatteryLevel, elapsedMillis, jobDispatcher);
+	}
+
+	private final int robotsCount;
+
+	private final int completedJobsCount;
+
+	private final long travelledDistance;
+
+	private final int blockedRobotsCount;
+
+	private final double totalBatteryLevel;
+
+	private final long elapsedMillis;
+
+	private final int queueDepth;
+
+	private final int maxQueueDepth;
+
+	private final double meanWaitingMillis;
+
+	private final double meanCompletionMillis;
+
+	public FleetReport(final int robotsCount,
+					   final int completedJobsCount,
+					   final long travelledDistance,
+					   final int blockedRobotsCount,
+					   final double totalBatteryLevel,
+					   final long elapsedMillis) {
+		this(robotsCount, completedJobsCount, travelledDistance, blockedRobotsCount, totalBatteryLevel, elapsedMillis,
+			 null);
+	}
+
+	/**
+	 * @param jobDispatcher The dispatcher whose queue and latency metrics are reported, or {@code null} if the
+	 * robots visit their own lists of targets.
+	 */
+	public FleetReport(final int robotsCount,
+					   final int completedJobsCount,
+					   final long travelledDistance,
+					   final int blockedRobotsCount,
+					   final double totalBatteryLevel,
+					   final long elapsedMillis,
+					   final JobDispatcher jobDispatcher) {
+		this.robotsCount = robotsCount;
+		this.completedJobsCount = completedJobsCount;
+		this.travelledDistance = travelledDistance;
+		this.blockedRobotsCount = blockedRobotsCount;
+		this.totalBatteryLevel = totalBatteryLevel;
+		this.elapsedMillis = elapsedMillis;
+
+		if (jobDispatcher == null) {
+			queueDepth = 0;
+			maxQueueDepth = 0;
+			meanWaitingMillis = 0;
+			meanCompletionMillis = 0;
+		}
+		else {
+			queueDepth = jobDispatcher.getQueueDepth();
+			maxQueueDepth = jobDispatcher.getMaxQueueDepth();
+			meanWaitingMillis = jobDispatcher.getMeanWaitingMillis();
+			meanCompletionMillis = jobDispatcher.getMeanCompletionMillis();
+		}
+	}
+
+	public int getRobotsCount() {
+		return robotsCount;
+	}
+
+	public int getCompletedJobsCount() {
+		return completedJobsCount;
+	}
+
+	public long getTravelledDistance() {
+		return travelledDistance;
+	}
+
+	public int getBlockedRobotsCount() {
+		return blockedRobotsCount;
+	}
+
+	public double getMeanBatteryLevel() {
+		return robotsCount == 0 ? 0 : totalBatteryLevel / robotsCount;
+	}
+
+	public long getElapsedMillis() {
+		return elapsedMillis;
+	}
+
+	public double getJobsPerHour() {
+		return elapsedMillis == 0 ? 0 : completedJobsCount * 3_600_000.0 / elapsedMillis;
+	}
+
+	public double getMeanTravelPerJob() {
+		return completedJobsCount == 0 ? 0 : (double) travelledDistance / completedJobsCount;
+	}
+
+	/**
+	 * @return The number of jobs submitted to the dispatcher and not yet assigned to a robot.
+	 */
+	public int getQueueDepth() {
+		return queueDepth;
+	}
+
+	public int getMaxQueueDepth() {
+		return maxQueueDepth;
+	}
+
+	/**
+	 * @return The mean time from the submission of a job to its assignment to a robot, in milliseconds.
+	 */
+	public double getMeanWaitingMillis() {
+		return meanWaitingMillis;
+	}
+
+	/**
+	 * @return The mean time from the submission of a job to its completion, in milliseconds.
+	 */
+	public double getMeanCompletionMillis() {
+		return meanCompletionMillis;
+	}
+
+	@Override
+	public String toString() {
+		return "FleetReport [robots=" + robotsCount + ", completedJobs=" + completedJobsCount + ", jobsPerHour=" +
+			   String.format("%.1f", getJobsPerHour()) + ", meanTravelPerJob=" +
+			   String.format("%.1f", getMeanTravelPerJob()) + ", blockedRobots=" + blockedRobotsCount +
+			   ", meanBatteryLevel=" + String.format("%.1f", getMeanBatteryLevel()) + ", queueDepth=" + queueDepth +
+			   ", maxQueueDepth=" + maxQueueDepth + ", meanWaitingMillis=" + String.format("%.1f", meanWaitingMillis) +
+			   ", meanCompletionMillis=" + String.format("%.1f", meanCompletionMillis) + ", elapsedMillis=" + elapsedMillis + "]";
+	}
+}
@@ -0,0 +1,211 @@
+package fr.tp.inf112.projects.robotsim.model.fleet;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.Serializable;
+
+import fr.tp.inf112.projects.robotsim.model.Component;
+import fr.tp.inf112.projects.robotsim.model.Factory;
+import fr.tp.inf112.projects.robotsim.model.Robot;
+
+/**
+ * A request for a robot to visit a component, submitted to a {@link JobDispatcher}, such as a transport job to pick
+ * a load at a conveyor and drop it at a machine. Jobs are ordered by decreasing priority, then by submission.
+ */
+public class Job implements Serializable, Comparable<Job> {
+
+	private static final long serialVersionUID = 3537003207724024784L;
+
+	private final long sequenceNumber;
+
+	private final Component pickup;
+
+	private final Component target;
+
+	private final int priority;
+
+	private final long submissionTime;
+
+	private Robot robot;
+
+	private long assignmentTime;
+
+	private boolean started;
+
+	private boolean pickedUp;
+
+	private long completionTime;
+
+	private int travelledDistance;
+
+	Job(final long sequenceNumber,
+		final Component pickup,
+		final Component target,
+		final int priority) {
+		this(sequenceNumber, pickup, target, priority, System.currentTimeMillis());
+	}
+
+	private Job(final long sequenceNumber,
+				final Component pickup,
+				final Component target,
+				final int priority,
+				final long submissionTime) {
+		this.sequenceNumber = sequenceNumber;
+		this.pickup = pickup;
+		this.target = target;
+		this.priority = priority;
+		this.submissionTime = submissionTime;
+		robot = null;
+		started = false;
+		pickedUp = false;
+	}
+
+	/**
+	 * Reads a job written by {@link #writeCheckpointState(DataOutput)}, its components and robot being looked up by
+	 * identifier in the given factory.
+	 * @throws IOException If a component of the job is not in the factory.
+	 */
+	static Job readCheckpointState(final DataInput input,
+								   final Factory factory)
+	throws IOException {
+		final long sequenceNumber = input.readLong();
+		final int pickupId = input.readInt();
+		final Component target = factory.getComponent(input.readInt());
+		final Component pickup = pickupId < 0 ? null : factory.getComponent(pickupId);
+
+		if (target == null || (pickupId >= 0 && pickup == null)) {
+			throw new IOException("Job " + sequenceNumber + " of an unknown component.");
+		}
+
+		final Job job = new Job(sequenceNumber, pickup, target, input.readInt(), input.readLong());
+		final int robotId = input.readInt();
+		final Component robot = robotId < 0 ? null : factory.getComponent(robotId);
+		job.robot = robot instanceof Robot ? (Robot) robot : null;
+		job.assignmentTime = input.readLong();
+
+		final int flags = input.readByte();
+		job.started = (flags & 1) != 0;
+		job.pickedUp = (flags & 2) != 0;
+		job.travelledDistance = input.readInt();
+
+		return job;
+	}
+
+	/**
+	 * @return The component where the robot picks the load up before visiting the target, or {@code null} if the
+	 * robot only visits the target.
+	 */
+	public Component getPickup() {
+		return pickup;
+	}
+
+	public Component getTarget() {
+		return target;
+	}
+
+	/**
+	 * @return The pickup until the robot picked the load up, the target then.
+	 */
+	public Component getNextStop() {
+		return pickup == null || pickedUp ? target : pickup;
+	}
+
+	public int getPriority() {
+		return priority;
+	}
+
+	public long getSubmissionTime() {
+		return submissionTime;
+	}
+
+	/**
+	 * @return The robot the job was assigned to, or {@code null} if it waits for one.
+	 */
+	public Robot getRobot() {
+		return robot;
+	}
+
+	public long getAssignmentTime() {
+		return assignmentTime;
+	}
+
+	public boolean isStarted() {
+		return started;
+	}
+
+	public boolean isCompleted() {
+		return completionTime != 0;
+	}
+
+	public long getCompletionTime() {
+		return completionTime;
+	}
+
+	/**
+	 * @return The distance travelled by the robot from the assignment of the job to its completion.
+	 */
+	public int getTravelledDistance() {
+		return travelledDistance;
+	}
+
+	/**
+	 * Writes the job with the identifiers of its components and robot (see {@link Factory#getComponent(int)}).
+	 */
+	void writeCheckpointState(final DataOutput output)
+	throws IOException {
+		output.writeLong(sequenceNumber);
+		output.writeInt(pickup == null ? -1 : pickup.getComponentId());
+		output.writeInt(target.getComponentId());
+		output.writeInt(priority);
+		output.writeLong(submissionTime);
+		output.writeInt(robot == null ? -1 : robot.getComponentId());
+		output.writeLong(assignmentTime);
+		output.writeByte((started ? 1 : 0) | (pickedUp ? 2 : 0));
+		output.writeInt(travelledDistance);
+	}
+
+	void assign(final Robot robot) {
+		this.robot = robot;
+		assignmentTime = System.currentTimeMillis();
+		travelledDistance = robot.getTravelledDistance();
+	}
+
+	void start() {
+		started = true;
+	}
+
+	void pickUp() {
+		pickedUp = true;
+	}
+
+	/**
+	 * Gives the job back to the queue, when its robot gave up before reaching the target, the load being left at
+	 * the pickup.
+	 */
+	void release() {
+		robot = null;
+		started = false;
+		pickedUp = false;
+	}
+
+	void complete() {
+		completionTime = System.currentTimeMillis();
+		travelledDistance = robot.getTravelledDistance() - travelledDistance;
+	}
+
+	@Override
+	public int compareTo(final Job job) {
+		if (priority != job.priority) {
+			return Integer.compare(job.priority, priority);
+		}
+
+		return Long.compare(sequenceNumber, job.sequenceNumber);
+	}
+
+	@Override
+	public String toString() {
+		return "Job [pickup=" + (pickup == null ? null : pickup.getName()) + ", target=" + (target == null ? null : target.getName()) + ", robot=" +
+			   (robot == null ? null : robot.getName()) + ", priority=" + priority + ", completed=" + isCompleted() + "]";
+	}
+}
@@ -0,0 +1,534 @@
+package fr.tp.inf112.projects.robotsim.model.fleet;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+import fr.tp.inf112.projects.robotsim.model.Component;
+import fr.tp.inf112.projects.robotsim.model.Factory;
+import fr.tp.inf112.projects.robotsim.model.Robot;
+
+/**
+ * Assigns the jobs of a queue to the idle robots of a factory, instead of having each robot visit its own list of
+ * target components. When robots are idle and jobs are waiting, a dispatch round assigns the waiting jobs of the
+ * highest priorities, oldest first, to idle robots as chosen by a {@link DispatchPolicy}.
+ *
+ * Jobs are submitted without locking, through a lock-free queue emptied by the robots when they ask for their
+ * next target, so that any number of producers can submit jobs while a round is being dispatched. Robots ask for
+ * their next target with {@link #nextTarget(Robot)} whenever they reached their target or have none, which also
+ * completes the job of a robot that reached it.
+ *
+ * Rounds are run by the robots with {@link #dispatch()} after their steps, outside the step lock of the factory,
+ * and their travel costs, which may be path searches, are estimated without locking the dispatcher: one round runs
+ * at a time, and the jobs it assigns are started by the robots in their next steps. A round considers the
+ * {@link #MAX_ROUND_JOBS} oldest waiting jobs and the idle robots nearest to them, at most
+ * {@link #ROUND_ROBOTS_PER_JOB} per job.
+ */
+public class JobDispatcher implements Serializable {
+
+	private static final long serialVersionUID = -2744107142322384477L;
+
+	private static final Logger LOGGER = Logger.getLogger(JobDispatcher.class.getName());
+
+	/**
+	 * Oldest waiting jobs considered by a dispatch round.
+	 */
+	private static final int MAX_ROUND_JOBS = 32;
+
+	/**
+	 * Idle robots considered by a dispatch round for each of its jobs, chosen by Manhattan distance, which bounds
+	 * with {@link #MAX_ROUND_JOBS} the number of cost estimates and the size of the assignment problem.
+	 */
+	private static final int ROUND_ROBOTS_PER_JOB = 4;
+
+	private final TravelCostEstimator costEstimator;
+
+	private final DispatchPolicy dispatchPolicy;
+
+	/**
+	 * The jobs submitted since the last call of a robot, added to the waiting jobs by the next call.
+	 */
+	private final Queue<Job> submittedJobs;
+
+	private final AtomicInteger submittedJobsCount;
+
+	private final AtomicLong nextSequenceNumber;
+
+	private final NavigableSet<Job> waitingJobsQueue;
+
+	private final Map<Robot, Job> assignedJobs;
+
+	private final Set<Robot> idleRobots;
+
+	/**
+	 * The stops each robot found no path to since it last completed a job, which are not assigned to it again.
+	 */
+	private final Map<Robot, Set<Component>> unreachableStops;
+
+	/**
+	 * Whether a round may assign jobs, read without locking by the robots calling {@link #dispatch()}.
+	 */
+	private volatile boolean dispatchNeeded;
+
+	private transient boolean dispatchRunning;
+
+	private int maxQueueDepth;
+
+	private int assignmentsCount;
+
+	private long totalWaitingMillis;
+
+	private int completedJobsCount;
+
+	private long totalCompletionMillis;
+
+	private long totalTravelledDistance;
+
+	public JobDispatcher() {
+		this(TravelCostEstimator.MANHATTAN);
+	}
+
+	public JobDispatcher(final TravelCostEstimator costEstimator) {
+		this(costEstimator, DispatchPolicy.BATCH);
+	}
+
+	public JobDispatcher(final TravelCostEstimator costEstimator,
+						 final DispatchPolicy dispatchPolicy) {
+		this.costEstimator = costEstimator;
+		this.dispatchPolicy = dispatchPolicy;
+		submittedJobs = new ConcurrentLinkedQueue<>();
+		submittedJobsCount = new AtomicInteger();
+		nextSequenceNumber = new AtomicLong();
+		waitingJobsQueue = new TreeSet<>();
+		assignedJobs = new HashMap<>();
+		idleRobots = new LinkedHashSet<>();
+		unreachableStops = new HashMap<>();
+		dispatchNeeded = false;
+		maxQueueDepth = 0;
+		assignmentsCount = 0;
+		totalWaitingMillis = 0;
+		completedJobsCount = 0;
+		totalCompletionMillis = 0;
+		totalTravelledDistance = 0;
+	}
+
+	public DispatchPolicy getDispatchPolicy() {
+		return dispatchPolicy;
+	}
+
+	/**
+	 * Adds a job to visit the given component at the end of the queue.
+	 */
+	public Job submit(final Component target) {
+		return submit(null, target, 0);
+	}
+
+	/**
+	 * Adds a job to pick a load up at the given pickup and drop it at the given target at the end of the queue.
+	 */
+	public Job submit(final Component pickup,
+					  final Component target) {
+		return submit(pickup, target, 0);
+	}
+
+	/**
+	 * Adds a job to pick a load up at the given pickup, if any, and drop it at the given target, after the waiting
+	 * jobs of the same or a higher priority. Does not lock the dispatcher.
+	 */
+	public Job submit(final Component pickup,
+					  final Component target,
+					  final int priority) {
+		final Job job = new Job(nextSequenceNumber.getAndIncrement(), pickup, target, priority);
+		submittedJobsCount.incrementAndGet();
+		submittedJobs.offer(job);
+
+		return job;
+	}
+
+	public synchronized List<Job> getWaitingJobs() {
+		pollSubmittedJobs();
+
+		return new ArrayList<>(waitingJobsQueue);
+	}
+
+	/**
+	 * @return The number of jobs submitted and not yet assigned to a robot.
+	 */
+	public synchronized int getQueueDepth() {
+		return waitingJobsQueue.size() + submittedJobsCount.get();
+	}
+
+	/**
+	 * @return The highest number of waiting jobs seen by the robots asking for their next target.
+	 */
+	public synchronized int getMaxQueueDepth() {
+		return maxQueueDepth;
+	}
+
+	/**
+	 * @return The mean time from the submission of a job to its assignment to a robot, in milliseconds.
+	 */
+	public synchronized double getMeanWaitingMillis() {
+		return assignmentsCount == 0 ? 0 : (double) totalWaitingMillis / assignmentsCount;
+	}
+
+	/**
+	 * @return The mean time from the submission of a job to its completion, in milliseconds.
+	 */
+	public synchronized double getMeanCompletionMillis() {
+		return completedJobsCount == 0 ? 0 : (double) totalCompletionMillis / completedJobsCount;
+	}
+
+	public synchronized int getCompletedJobsCount() {
+		return completedJobsCount;
+	}
+
+	/**
+	 * @return The mean distance travelled by robots from the assignment of a job to its completion.
+	 */
+	public synchronized double getMeanTravelPerJob() {
+		return completedJobsCount == 0 ? 0 : (double) totalTravelledDistance / completedJobsCount;
+	}
+
+	/**
+	 * Completes the stop of the job of the given robot if it reached it, or gives the job back to the queue
+	 * otherwise, then returns the next stop of its job, which is the target of a job whose load was picked up, or
+	 * the first stop of the job assigned to the robot by the last round.
+	 * @return The component to visit, or {@code null} if the robot has no job for now, in which case it waits for
+	 * the next round.
+	 */
+	public synchronized Component nextTarget(final Robot robot) {
+		final Job job = completeStop(robot);
+
+		if (job != null) {
+			return startJob(job);
+		}
+
+		if (idleRobots.add(robot)) {
+			dispatchNeeded = true;
+		}
+
+		return null;
+	}
+
+	/**
+	 * Runs a dispatch round if robots are idle and jobs are waiting and no other round is running. Called by the
+	 * robots after each of their steps, outside the step lock of their factory, so that the costs of a round never
+	 * hold the steps of the other robots.
+	 */
+	public void dispatch() {
+		final List<Robot> roundRobots;
+		final List<Job> roundJobs;
+		final TravelCostEstimator roundCostEstimator;
+
+		if (!dispatchNeeded && submittedJobsCount.get() == 0) {
+			return;
+		}
+
+		synchronized (this) {
+			pollSubmittedJobs();
+
+			if (dispatchRunning || !dispatchNeeded || waitingJobsQueue.isEmpty() || idleRobots.isEmpty()) {
+				return;
+			}
+
+			dispatchNeeded = false;
+			dispatchRunning = true;
+			roundJobs = new ArrayList<>(Math.min(MAX_ROUND_JOBS, waitingJobsQueue.size()));
+			final Iterator<Job> waitingJobsIterator = waitingJobsQueue.iterator();
+
+			while (roundJobs.size() < MAX_ROUND_JOBS && waitingJobsIterator.hasNext()) {
+				roundJobs.add(waitingJobsIterator.next());
+			}
+
+			roundRobots = new ArrayList<>(idleRobots);
+			roundCostEstimator = getRoundCostEstimator(roundRobots);
+		}
+
+		Map<Job, Robot> assignments = Map.of();
+
+		try {
+			assignments = dispatchPolicy.assign(getNearestRobots(roundRobots, roundJobs), roundJobs, roundCostEstimator);
+		}
+		finally {
+			synchronized (this) {
+				dispatchRunning = false;
+				applyAssignments(assignments);
+			}
+		}
+	}
+
+	/**
+	 * @return The given idle robots if there are at most {@link #ROUND_ROBOTS_PER_JOB} per job, the ones nearest to
+	 * the jobs by Manhattan distance otherwise.
+	 */
+	private static List<Robot> getNearestRobots(final List<Robot> robots,
+												final List<Job> jobs) {
+		final int maxRobotsCount = ROUND_ROBOTS_PER_JOB * jobs.size();
+
+		if (robots.size() <= maxRobotsCount) {
+			return robots;
+		}
+
+		final Map<Robot, Double> distances = new HashMap<>();
+
+		for (final Robot robot : robots) {
+			double distance = Double.POSITIVE_INFINITY;
+
+			for (final Job job : jobs) {
+				distance = Math.min(distance, TravelCostEstimator.MANHATTAN.estimate(robot, job.getNextStop()));
+			}
+
+			distances.put(robot, distance);
+		}
+
+		final List<Robot> nearestRobots = new ArrayList<>(robots);
+		nearestRobots.sort(Comparator.comparingDouble(distances::get));
+
+		return nearestRobots.subList(0, maxRobotsCount);
+	}
+
+	/**
+	 * Gives the job of the given robot back to the queue, when the robot found no path to its next stop, so that
+	 * it is assigned to another robot. The robot becomes idle on its next call of {@link #nextTarget(Robot)}, and
+	 * is not assigned jobs to this stop again until it completes a job.
+	 */
+	public synchronized void releaseJob(final Robot robot) {
+		final Job job = assignedJobs.remove(robot);
+
+		if (job != null) {
+			unreachableStops.computeIfAbsent(robot, unreachableRobot -> new HashSet<>()).add(job.getNextStop());
+			job.release();
+			waitingJobsQueue.add(job);
+			dispatchNeeded = true;
+
+			LOGGER.info("Job to " + job.getNextStop().getName() + " released by " + robot.getName() + ".");
+		}
+	}
+
+	/**
+	 * Completes the stop of the job of the given robot if it reached it, or gives the job back to the queue
+	 * otherwise.
+	 * @return The job of the robot whose next stop is still to visit, or {@code null} if the robot is idle.
+	 */
+	private Job completeStop(final Robot robot) {
+		pollSubmittedJobs();
+		final Job job = assignedJobs.get(robot);
+
+		if (job != null && job.isStarted()) {
+			final Component stop = job.getNextStop();
+
+			if (robot.getPositionedShape().boundingBoxOverlays(stop.getPositionedShape())) {
+				if (stop != job.getTarget()) {
+					job.pickUp();
+
+					return job;
+				}
+
+				assignedJobs.remove(robot);
+				unreachableStops.remove(robot);
+				job.complete();
+				completedJobsCount++;
+				totalCompletionMillis += job.getCompletionTime() - job.getSubmissionTime();
+				totalTravelledDistance += job.getTravelledDistance();
+			}
+			else {
+				assignedJobs.remove(robot);
+				job.release();
+				waitingJobsQueue.add(job);
+				dispatchNeeded = true;
+			}
+
+			return null;
+		}
+
+		return job;
+	}
+
+	private Component startJob(final Job job) {
+		job.start();
+
+		return job.getNextStop();
+	}
+
+	private void pollSubmittedJobs() {
+		int polledJobsCount = 0;
+		Job job;
+
+		while ((job = submittedJobs.poll()) != null) {
+			waitingJobsQueue.add(job);
+			polledJobsCount++;
+		}
+
+		if (polledJobsCount > 0) {
+			submittedJobsCount.addAndGet(-polledJobsCount);
+			maxQueueDepth = Math.max(maxQueueDepth, waitingJobsQueue.size());
+			dispatchNeeded = true;
+		}
+	}
+
+	/**
+	 * @return The cost estimator of a round with the given robots, whose costs to the stops the robots found no
+	 * path to are {@link TravelCostEstimator#UNREACHABLE}, so that the policy does not assign them again.
+	 */
+	private TravelCostEstimator getRoundCostEstimator(final List<Robot> roundRobots) {
+		final Map<Robot, Set<Component>> roundUnreachableStops = new HashMap<>();
+
+		for (final Robot roundRobot : roundRobots) {
+			final Set<Component> stops = unreachableStops.get(roundRobot);
+
+			if (stops != null) {
+				roundUnreachableStops.put(roundRobot, new HashSet<>(stops));
+			}
+		}
+
+		if (roundUnreachableStops.isEmpty()) {
+			return costEstimator;
+		}
+
+		return (roundRobot, target) -> roundUnreachableStops.getOrDefault(roundRobot, Set.of()).contains(target) ?
+									   TravelCostEstimator.UNREACHABLE : costEstimator.estimate(roundRobot, target);
+	}
+
+	/**
+	 * Applies the assignments of a round whose costs were estimated without locking, skipping the robots and jobs
+	 * that are no longer idle or waiting.
+	 */
+	private void applyAssignments(final Map<Job, Robot> assignments) {
+		for (final Map.Entry<Job, Robot> assignment : assignments.entrySet()) {
+			final Job job = assignment.getKey();
+			final Robot robot = assignment.getValue();
+
+			if (!idleRobots.contains(robot) || !waitingJobsQueue.contains(job)) {
+				dispatchNeeded = true;
+
+				continue;
+			}
+
+			job.assign(robot);
+			assignedJobs.put(robot, job);
+			idleRobots.remove(robot);
+			waitingJobsQueue.remove(job);
+			assignmentsCount++;
+			totalWaitingMillis += job.getAssignmentTime() - job.getSubmissionTime();
+
+			LOGGER.info("Job to " + job.getNextStop().getName() + " assigned to " + robot.getName() + ".");
+		}
+	}
+
+	/**
+	 * @return A copy of the dispatcher for the given fork of its factory, whose jobs are assigned to the robots of
+	 * the fork, so that dispatching the jobs of the fork does not modify this dispatcher. Called by
+	 * {@link Factory#fork()} between two steps of the robots.
+	 */
+	public JobDispatcher forkInto(final Factory fork) {
+		final ByteArrayOutputStream stateBytes = new ByteArrayOutputStream();
+		final JobDispatcher forkedDispatcher = new JobDispatcher(costEstimator, dispatchPolicy);
+
+		try {
+			writeCheckpointState(new DataOutputStream(stateBytes));
+			forkedDispatcher.readCheckpointState(new DataInputStream(new ByteArrayInputStream(stateBytes.toByteArray())),
+												 fork);
+		}
+		catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+
+		return forkedDispatcher;
+	}
+
+	/**
+	 * Writes the waiting and assigned jobs and the metrics of the dispatcher, for the checkpoints of its factory.
+	 * The idle robots and the stops robots could not reach are not written: restored robots ask for their jobs
+	 * again.
+	 */
+	public synchronized void writeCheckpointState(final DataOutput output)
+	throws IOException {
+		pollSubmittedJobs();
+		output.writeLong(nextSequenceNumber.get());
+		output.writeInt(maxQueueDepth);
+		output.writeInt(assignmentsCount);
+		output.writeLong(totalWaitingMillis);
+		output.writeInt(completedJobsCount);
+		output.writeLong(totalCompletionMillis);
+		output.writeLong(totalTravelledDistance);
+		output.writeInt(waitingJobsQueue.size() + assignedJobs.size());
+
+		for (final Job job : waitingJobsQueue) {
+			job.writeCheckpointState(output);
+		}
+
+		// In the order of the jobs, so that the same jobs are written the same way.
+		for (final Job job : new TreeSet<>(assignedJobs.values())) {
+			job.writeCheckpointState(output);
+		}
+	}
+
+	/**
+	 * Replaces the jobs and the metrics of the dispatcher by the ones written by
+	 * {@link #writeCheckpointState(DataOutput)}, the components of the jobs being looked up in the given factory.
+	 */
+	public synchronized void readCheckpointState(final DataInput input,
+												 final Factory factory)
+	throws IOException {
+		submittedJobs.clear();
+		submittedJobsCount.set(0);
+		waitingJobsQueue.clear();
+		assignedJobs.clear();
+		idleRobots.clear();
+		unreachableStops.clear();
+		nextSequenceNumber.set(input.readLong());
+		maxQueueDepth = input.readInt();
+		assignmentsCount = input.readInt();
+		totalWaitingMillis = input.readLong();
+		completedJobsCount = input.readInt();
+		totalCompletionMillis = input.readLong();
+		totalTravelledDistance = input.readLong();
+
+		final int jobsCount = input.readInt();
+
+		for (int index = 0; index < jobsCount; index++) {
+			final Job job = Job.readCheckpointState(input, factory);
+
+			if (job.getRobot() == null) {
+				job.release();
+				waitingJobsQueue.add(job);
+			}
+			else {
+				assignedJobs.put(job.getRobot(), job);
+			}
+		}
+
+		dispatchNeeded = !waitingJobsQueue.isEmpty();
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "JobDispatcher [policy=" + dispatchPolicy.getClass().getSimpleName() + ", queueDepth=" + getQueueDepth() +
+			   ", assignedJobs=" + assignedJobs.size() + ", idleRobots=" + idleRobots.size() + ", completedJobs=" +
+			   completedJobsCount + ", meanWaitingMillis=" + String.format("%.1f", getMeanWaitingMillis()) +
+			   ", meanCompletionMillis=" + String.format("%.1f", getMeanCompletionMillis()) + "]";
+	}
+}
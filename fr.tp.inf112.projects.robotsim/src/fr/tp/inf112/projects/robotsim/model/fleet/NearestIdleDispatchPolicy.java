@@ -0,0 +1,49 @@
+package fr.tp.inf112.projects.robotsim.model.fleet;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import fr.tp.inf112.projects.robotsim.model.Robot;
+
+/**
+ * @see DispatchPolicy#NEAREST_IDLE
+ */
+public class NearestIdleDispatchPolicy implements DispatchPolicy {
+
+	private static final long serialVersionUID = 3390170544836231465L;
+
+	@Override
+	public Map<Job, Robot> assign(final List<Robot> idleRobots,
+								  final List<Job> jobs,
+								  final TravelCostEstimator costEstimator) {
+		final List<Robot> robots = new ArrayList<>(idleRobots);
+		final Map<Job, Robot> assignments = new LinkedHashMap<>();
+
+		for (final Job job : jobs) {
+			Robot nearestRobot = null;
+			double nearestCost = TravelCostEstimator.UNREACHABLE;
+
+			for (final Robot robot : robots) {
+				final double cost = costEstimator.estimate(robot, job.getNextStop());
+
+				if (cost < nearestCost) {
+					nearestRobot = robot;
+					nearestCost = cost;
+				}
+			}
+
+			if (nearestRobot != null) {
+				assignments.put(job, nearestRobot);
+				robots.remove(nearestRobot);
+
+				if (robots.isEmpty()) {
+					break;
+				}
+			}
+		}
+
+		return assignments;
+	}
+}
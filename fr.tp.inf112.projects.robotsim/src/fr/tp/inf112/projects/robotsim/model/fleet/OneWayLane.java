@@ -0,0 +1,74 @@
+package fr.tp.inf112.projects.robotsim.model.fleet;
+
+import java.io.Serializable;
+
+import fr.tp.inf112.projects.robotsim.model.shapes.RectangularShape;
+
+/**
+ * A region of the factory, typically a corridor, in which robots may only move in one direction. Moves across the
+ * lane are allowed, so that robots can enter and leave it from its sides.
+ */
+public class OneWayLane implements Serializable {
+
+	private static final long serialVersionUID = 8146237094155718273L;
+
+	public static enum DIRECTION {
+
+		LEFT(-1, 0), UP(0, -1), RIGHT(1, 0), DOWN(0, 1);
+
+		private final int xSign;
+
+		private final int ySign;
+
+		private DIRECTION(final int xSign,
+						  final int ySign) {
+			this.xSign = xSign;
+			this.ySign = ySign;
+		}
+	};
+
+	private final RectangularShape area;
+
+	private final DIRECTION direction;
+
+	public OneWayLane(final RectangularShape area,
+					  final DIRECTION direction) {
+		this.area = area;
+		this.direction = direction;
+	}
+
+	public RectangularShape getArea() {
+		return area;
+	}
+
+	public DIRECTION getDirection() {
+		return direction;
+	}
+
+	/**
+	 * @return {@code false} if the move between the given coordinates starts or ends in the lane and goes against
+	 * its direction.
+	 */
+	public boolean allowsMove(final int fromxCoordinate,
+							  final int fromyCoordinate,
+							  final int toxCoordinate,
+							  final int toyCoordinate) {
+		if (!contains(fromxCoordinate, fromyCoordinate) && !contains(toxCoordinate, toyCoordinate)) {
+			return true;
+		}
+
+		return Integer.signum(toxCoordinate - fromxCoordinate) * direction.xSign +
+			   Integer.signum(toyCoordinate - fromyCoordinate) * direction.ySign >= 0;
+	}
+
+	private boolean contains(final int xCoordinate,
+							 final int yCoordinate) {
+		return xCoordinate >= area.getxCoordinate() && xCoordinate < area.getxCoordinate() + area.getWidth() &&
+			   yCoordinate >= area.getyCoordinate() && yCoordinate < area.getyCoordinate() + area.getHeight();
+	}
+
+	@Override
+	public String toString() {
+		return "OneWayLane [area=" + area + ", direction=" + direction + "]";
+	}
+}
@@ -0,0 +1,52 @@
+package fr.tp.inf112.projects.robotsim.model.fleet;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import fr.tp.inf112.projects.robotsim.model.Robot;
+
+/**
+ * @see DispatchPolicy#byPriority(DispatchPolicy)
+ */
+public class PriorityDispatchPolicy implements DispatchPolicy {
+
+	private static final long serialVersionUID = -6481183094785409219L;
+
+	private final DispatchPolicy priorityPolicy;
+
+	public PriorityDispatchPolicy(final DispatchPolicy priorityPolicy) {
+		this.priorityPolicy = priorityPolicy;
+	}
+
+	@Override
+	public Map<Job, Robot> assign(final List<Robot> idleRobots,
+								  final List<Job> jobs,
+								  final TravelCostEstimator costEstimator) {
+		final List<Robot> robots = new ArrayList<>(idleRobots);
+		final Map<Job, Robot> assignments = new LinkedHashMap<>();
+		int start = 0;
+
+		while (start < jobs.size() && !robots.isEmpty()) {
+			final int priority = jobs.get(start).getPriority();
+			int end = start + 1;
+
+			while (end < jobs.size() && jobs.get(end).getPriority() == priority) {
+				end++;
+			}
+
+			final Map<Job, Robot> priorityAssignments = priorityPolicy.assign(robots, jobs.subList(start, end), costEstimator);
+			assignments.putAll(priorityAssignments);
+			robots.removeAll(priorityAssignments.values());
+			start = end;
+		}
+
+		return assignments;
+	}
+
+	@Override
+	public String toString() {
+		return "PriorityDispatchPolicy [priorityPolicy=" + priorityPolicy.getClass().getSimpleName() + "]";
+	}
+}
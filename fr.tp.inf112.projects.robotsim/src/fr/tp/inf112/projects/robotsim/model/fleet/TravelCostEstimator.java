@@ -0,0 +1,54 @@
+package fr.tp.inf112.projects.robotsim.model.fleet;
+
+import java.io.Serializable;
+import java.util.List;
+
+import fr.tp.inf112.projects.robotsim.model.Component;
+import fr.tp.inf112.projects.robotsim.model.Position;
+import fr.tp.inf112.projects.robotsim.model.Robot;
+
+/**
+ * Estimates the cost for a robot to travel from its position to a component, to assign jobs to robots.
+ */
+@FunctionalInterface
+public interface TravelCostEstimator extends Serializable {
+
+	/**
+	 * Cost of the components a robot cannot reach. It is finite so that the assignment can always be solved, but
+	 * larger than any travel, and jobs are never given to robots at this cost.
+	 */
+	double UNREACHABLE = 1.0e9;
+
+	/**
+	 * Manhattan distance between the positions of the robot and of the component: a lower bound of the length of
+	 * the paths on the grid, computed in constant time.
+	 */
+	TravelCostEstimator MANHATTAN = (robot, target) -> Math.abs(target.getxCoordinate() - robot.getxCoordinate()) +
+													   Math.abs(target.getyCoordinate() - robot.getyCoordinate());
+
+	/**
+	 * Length of the path found by the path finder of the robot, which takes obstacles and closed doors into
+	 * account at the cost of a path search per robot and job.
+	 */
+	TravelCostEstimator PATH_LENGTH = (robot, target) -> {
+		final List<Position> path = robot.getPathFinder().findPath(robot, target);
+
+		if (path.isEmpty()) {
+			return robot.getPositionedShape().boundingBoxOverlays(target.getPositionedShape()) ? 0 : UNREACHABLE;
+		}
+
+		double length = 0;
+		Position previousPosition = robot.getPosition();
+
+		for (final Position position : path) {
+			length += Math.hypot(position.getxCoordinate() - previousPosition.getxCoordinate(),
+								 position.getyCoordinate() - previousPosition.getyCoordinate());
+			previousPosition = position;
+		}
+
+		return length;
+	};
+
+	double estimate(Robot robot,
+					Component target);
+}
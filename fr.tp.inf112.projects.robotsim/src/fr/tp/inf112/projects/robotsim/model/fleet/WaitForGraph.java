@@ -0,0 +1,269 @@
+package fr.tp.inf112.projects.robotsim.model.fleet;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+import fr.tp.inf112.projects.robotsim.model.Component;
+import fr.tp.inf112.projects.robotsim.model.Factory;
+import fr.tp.inf112.projects.robotsim.model.FleetStore;
+import fr.tp.inf112.projects.robotsim.model.Position;
+import fr.tp.inf112.projects.robotsim.model.Robot;
+import fr.tp.inf112.projects.robotsim.model.shapes.CircularShape;
+import fr.tp.inf112.projects.robotsim.model.shapes.PositionedShape;
+import fr.tp.inf112.projects.robotsim.model.shapes.RectangularShape;
+
+/**
+ * A snapshot of which robot each blocked robot of a factory is waiting for: a blocked robot waits for the robot
+ * occupying the position it memorized when it got blocked. A robot waits for one robot at most, so the cycles of the
+ * graph are disjoint and are all found by following the waits once from every robot. In each cycle, a single robot,
+ * the first one of the factory, has to yield so that the others can move.
+ *
+ * The snapshot is shared by all the robots of the factory and is built again when it is older than a simulation
+ * step (see {@link Factory#getWaitForGraph()}), from the {@link FleetStore} of the factory when it has one.
+ */
+public class WaitForGraph {
+
+	private static final Logger LOGGER = Logger.getLogger(WaitForGraph.class.getName());
+
+	/**
+	 * Period of the behavior of the components, in milliseconds.
+	 */
+	public static final long MAX_AGE_MILLIS = 50;
+
+	/**
+	 * Size of the shape of the memorized positions, as tested by the robots.
+	 */
+	private static final int POSITION_SIZE = 2;
+
+	public static WaitForGraph build(final Factory factory) {
+		final List<Robot> robots = new ArrayList<>();
+		final List<Position> positions = new ArrayList<>();
+		final List<PositionedShape> shapes = new ArrayList<>();
+		final List<Boolean> blockedFlags = new ArrayList<>();
+		final FleetStore fleetStore = factory.getFleetStore();
+
+		if (fleetStore != null) {
+			for (int fleetIndex = 0; fleetIndex < fleetStore.getRobotsCount(); fleetIndex++) {
+				robots.add(fleetStore.getRobot(fleetIndex));
+				positions.add(new Position(fleetStore.getxCoordinate(fleetIndex), fleetStore.getyCoordinate(fleetIndex)));
+				blockedFlags.add(fleetStore.isBlocked(fleetIndex));
+			}
+		}
+		else {
+			for (final Component component : factory.getComponents()) {
+				if (component instanceof Robot) {
+					final Robot robot = (Robot) component;
+					robots.add(robot);
+					positions.add(new Position(robot.getxCoordinate(), robot.getyCoordinate()));
+					blockedFlags.add(robot.isBlocked());
+				}
+			}
+		}
+
+		int maxSize = 0;
+
+		for (int index = 0; index < robots.size(); index++) {
+			final PositionedShape shape = getShapeAt(robots.get(index), positions.get(index));
+			shapes.add(shape);
+			maxSize = Math.max(maxSize, Math.max(shape.getWidth(), shape.getHeight()));
+		}
+
+		final RobotBuckets buckets = new RobotBuckets(shapes, maxSize + POSITION_SIZE);
+		final int[] waitedRobots = new int[robots.size()];
+
+		for (int index = 0; index < robots.size(); index++) {
+			final Position waitedPosition = blockedFlags.get(index) ? robots.get(index).getMemorizedTargetPosition() : null;
+			waitedRobots[index] = waitedPosition == null ? -1 : buckets.getRobotAt(waitedPosition, index);
+		}
+
+		return new WaitForGraph(robots, positions, waitedRobots);
+	}
+
+	/**
+	 * @return The shape of the given robot at the given position, which does not move with the robot.
+	 */
+	private static PositionedShape getShapeAt(final Robot robot,
+											  final Position position) {
+		final PositionedShape shape = robot.getPositionedShape();
+
+		if (shape instanceof CircularShape) {
+			return new CircularShape(position.getxCoordinate(), position.getyCoordinate(), ((CircularShape) shape).radius);
+		}
+
+		return new RectangularShape(position.getxCoordinate(), position.getyCoordinate(), shape.getWidth(), shape.getHeight());
+	}
+
+	private final long creationTime;
+
+	private final Map<Robot, Robot> waitedRobots;
+
+	private final List<List<Robot>> cycles;
+
+	private final Map<Robot, Position> yieldingRobots;
+
+	private WaitForGraph(final List<Robot> robots,
+						 final List<Position> positions,
+						 final int[] waitedRobotIndexes) {
+		creationTime = System.currentTimeMillis();
+		waitedRobots = new IdentityHashMap<>();
+		cycles = new ArrayList<>();
+		yieldingRobots = new IdentityHashMap<>();
+
+		for (int index = 0; index < robots.size(); index++) {
+			if (waitedRobotIndexes[index] >= 0) {
+				waitedRobots.put(robots.get(index), robots.get(waitedRobotIndexes[index]));
+			}
+		}
+
+		final int[] states = new int[robots.size()];
+		final List<Integer> walk = new ArrayList<>();
+
+		for (int start = 0; start < robots.size(); start++) {
+			walk.clear();
+			int index = start;
+
+			while (index >= 0 && states[index] == 0) {
+				states[index] = 1;
+				walk.add(index);
+				index = waitedRobotIndexes[index];
+			}
+
+			if (index >= 0 && states[index] == 1) {
+				final List<Integer> cycleIndexes = walk.subList(walk.indexOf(index), walk.size());
+				final List<Robot> cycle = new ArrayList<>();
+				final int yieldingIndex = Collections.min(cycleIndexes);
+
+				for (final int cycleIndex : cycleIndexes) {
+					cycle.add(robots.get(cycleIndex));
+				}
+
+				cycles.add(Collections.unmodifiableList(cycle));
+				yieldingRobots.put(robots.get(yieldingIndex), positions.get(yieldingIndex));
+
+				LOGGER.info("Wait-for cycle of " + cycle.size() + " robots " + getNames(cycle) + ": " +
+							robots.get(yieldingIndex).getName() + " yields.");
+			}
+
+			for (final int walkIndex : walk) {
+				states[walkIndex] = 2;
+			}
+		}
+	}
+
+	private static List<String> getNames(final List<Robot> robots) {
+		final List<String> names = new ArrayList<>();
+
+		for (final Robot robot : robots) {
+			names.add(robot.getName());
+		}
+
+		return names;
+	}
+
+	public boolean isOutdated() {
+		return System.currentTimeMillis() - creationTime >= MAX_AGE_MILLIS;
+	}
+
+	/**
+	 * @return The robot occupying the position the given robot is waiting for, or {@code null} if it is not
+	 * waiting for a robot.
+	 */
+	public Robot getWaitedRobot(final Robot robot) {
+		return waitedRobots.get(robot);
+	}
+
+	/**
+	 * @return The cycles of robots waiting for each other, each robot waiting for the next one and the last one for
+	 * the first one.
+	 */
+	public List<List<Robot>> getCycles() {
+		return Collections.unmodifiableList(cycles);
+	}
+
+	/**
+	 * @return {@code true} if the given robot was chosen to break its wait-for cycle and has not moved since the
+	 * snapshot was taken.
+	 */
+	public boolean mustYield(final Robot robot) {
+		final Position position = yieldingRobots.get(robot);
+
+		return position != null && position.getxCoordinate() == robot.getxCoordinate() &&
+			   position.getyCoordinate() == robot.getyCoordinate();
+	}
+
+	@Override
+	public String toString() {
+		return "WaitForGraph [waitingRobots=" + waitedRobots.size() + ", cycles=" + cycles.size() + "]";
+	}
+
+	/**
+	 * Robots bucketed by the square cell containing their position, the cells being larger than a robot plus a
+	 * memorized position, so that a robot overlaying a position is in the cell of the position or in one of its
+	 * neighbours. Robots are tested with their shapes when the graph was built, as the waits are, and not with
+	 * their shapes moving during the build.
+	 */
+	private static final class RobotBuckets {
+
+		private final List<PositionedShape> shapes;
+
+		private final int cellSize;
+
+		private final Map<Long, List<Integer>> buckets;
+
+		private RobotBuckets(final List<PositionedShape> shapes,
+							 final int cellSize) {
+			this.shapes = shapes;
+			this.cellSize = Math.max(1, cellSize);
+			buckets = new HashMap<>();
+
+			for (int index = 0; index < shapes.size(); index++) {
+				final PositionedShape shape = shapes.get(index);
+				final long key = getKey(Math.floorDiv(shape.getxCoordinate(), this.cellSize),
+										Math.floorDiv(shape.getyCoordinate(), this.cellSize));
+				buckets.computeIfAbsent(key, bucketKey -> new ArrayList<>()).add(index);
+			}
+		}
+
+		private static long getKey(final int xCell,
+								   final int yCell) {
+			return ((long) xCell << 32) | (yCell & 0xFFFFFFFFL);
+		}
+
+		/**
+		 * @return The index of the first robot other than the ignored one overlaying the given position, or
+		 * {@code -1} if there is none.
+		 */
+		private int getRobotAt(final Position position,
+							   final int ignoredIndex) {
+			final PositionedShape shape = new RectangularShape(position.getxCoordinate(),
+															   position.getyCoordinate(),
+															   POSITION_SIZE,
+															   POSITION_SIZE);
+			final int xCell = Math.floorDiv(position.getxCoordinate(), cellSize);
+			final int yCell = Math.floorDiv(position.getyCoordinate(), cellSize);
+			int foundIndex = -1;
+
+			for (int xNeighbour = xCell - 1; xNeighbour <= xCell + 1; xNeighbour++) {
+				for (int yNeighbour = yCell - 1; yNeighbour <= yCell + 1; yNeighbour++) {
+					final List<Integer> bucket = buckets.get(getKey(xNeighbour, yNeighbour));
+
+					if (bucket != null) {
+						for (final int index : bucket) {
+							if (index != ignoredIndex && (foundIndex < 0 || index < foundIndex) &&
+								shapes.get(index).overlays(shape)) {
+								foundIndex = index;
+							}
+						}
+					}
+				}
+			}
+
+			return foundIndex;
+		}
+	}
+}
@@ -7,11 +7,46 @@ public class Motion {
 	private final Position currentPosition;
 
 	private final Position targetPosition;
+	
+	private final Position waypointPosition;
 
 	public Motion(final Position currentPosition,
 				  final Position targetPosition) {
 		this.currentPosition = currentPosition;
 		this.targetPosition = targetPosition;
+		this.waypointPosition = targetPosition;
+	}
+
+	/**
+	 * Creates a motion towards the given waypoint that moves by at most the given displacement. When the waypoint
+	 * is farther away, the target position of the motion is interpolated along the straight line to the waypoint.
+	 * @param currentPosition The position to be moved.
+	 * @param waypointPosition The position that should eventually be reached.
+	 * @param maxDisplacement The maximum length of the motion.
+	 */
+	public Motion(final Position currentPosition,
+				  final Position waypointPosition,
+				  final int maxDisplacement) {
+		this.currentPosition = currentPosition;
+		this.targetPosition = interpolate(currentPosition, waypointPosition, maxDisplacement);
+		this.waypointPosition = waypointPosition;
+	}
+	
+	private static Position interpolate(final Position currentPosition,
+										final Position waypointPosition,
+										final int maxDisplacement) {
+		final int xDelta = waypointPosition.getxCoordinate() - currentPosition.getxCoordinate();
+		final int yDelta = waypointPosition.getyCoordinate() - currentPosition.getyCoordinate();
+		final double distance = Math.sqrt(xDelta * xDelta + yDelta * yDelta);
+		
+		if (distance <= maxDisplacement) {
+			return waypointPosition;
+		}
+		
+		final double ratio = maxDisplacement / distance;
+		
+		return new Position(currentPosition.getxCoordinate() + (int) Math.round(xDelta * ratio),
+							currentPosition.getyCoordinate() + (int) Math.round(yDelta * ratio));
 	}
 
 	public Position getCurrentPosition() {
@@ -22,6 +57,14 @@ public class Motion {
 		return targetPosition;
 	}
 	
+	public Position getWaypointPosition() {
+		return waypointPosition;
+	}
+	
+	public boolean isWaypointReached() {
+		return targetPosition.equals(waypointPosition);
+	}
+	
 	public int moveToTarget() {
 		final int xDisplacement = Math.abs(targetPosition.getxCoordinate() - currentPosition.getxCoordinate());
 		final int yDisplacement = Math.abs(targetPosition.getyCoordinate() - currentPosition.getyCoordinate());
@@ -2,19 +2,21 @@ package fr.tp.inf112.projects.robotsim.model.path;
 
 import java.io.Serializable;
 
-import java.util.HashSet;
+import java.util.ArrayList;
 import java.util.Iterator;
-import java.util.Set;
+import java.util.List;
 import java.util.logging.Logger;
 
 import fr.tp.inf112.projects.robotsim.model.Factory;
 import fr.tp.inf112.projects.robotsim.model.Position;
+import fr.tp.inf112.projects.robotsim.model.fleet.CongestionMap;
+import fr.tp.inf112.projects.robotsim.model.fleet.OneWayLane;
 import fr.tp.inf112.projects.robotsim.model.shapes.PositionedShape;
 import fr.tp.inf112.projects.robotsim.model.shapes.RectangularShape;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
-public abstract class AbstractFactoryPathFinder<Graph, Vertex> implements FactoryPathFinder, Serializable {
+public abstract class AbstractFactoryPathFinder<Graph, Vertex> implements FactoryPathFinder, Serializable, Cloneable {
 
 	/**
 	 * 
@@ -23,11 +25,25 @@ public abstract class AbstractFactoryPathFinder<Graph, Vertex> implements Factor
 
 	private static final Logger LOGGER = Logger.getLogger(AbstractFactoryPathFinder.class.getName());
 	
+	private static final double DIAGONAL_MOVE_WEIGHT = Math.sqrt(2.0);
+	
+	private static final int DIAGONAL_MOVE_COST_SCALE = 10;
+	
 	private Factory factoryModel;
 	
 	private final int resolution;
+	
+	private boolean diagonalMovesEnabled;
+	
+	private boolean pathSmoothingEnabled;
 	
 	private transient Graph graph;
+	
+	private transient OccupancyGrid occupancyGrid;
+	
+	private transient long occupancyLayoutHash;
+	
+	private transient NavigationData loadedNavigationData;
 
 	public AbstractFactoryPathFinder(final Factory factoryModel,
 									 final int resolution) {
@@ -53,166 +69,344 @@ public abstract class AbstractFactoryPathFinder<Graph, Vertex> implements Factor
 		return resolution;
 	}
 	
+	public boolean isDiagonalMovesEnabled() {
+		return diagonalMovesEnabled;
+	}
+
+	/**
+	 * Enables the 8-connected mode, where robots may also move diagonally between free cells. Must be set 
+	 * before the graph is built.
+	 */
+	public void setDiagonalMovesEnabled(final boolean diagonalMovesEnabled) {
+		this.diagonalMovesEnabled = diagonalMovesEnabled;
+	}
+	
+	public boolean isPathSmoothingEnabled() {
+		return pathSmoothingEnabled;
+	}
+
+	/**
+	 * Enables the line of sight smoothing of found paths, which then only contain sparse waypoints.
+	 */
+	public void setPathSmoothingEnabled(final boolean pathSmoothingEnabled) {
+		this.pathSmoothingEnabled = pathSmoothingEnabled;
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * The copy shares the graph already built, which only depends on the fixed components shared with the fork, 
+	 * and builds its own graph from the fork otherwise.
+	 */
+	@Override
+	public synchronized FactoryPathFinder forkInto(final Factory fork) {
+		try {
+			final AbstractFactoryPathFinder<?, ?> forkedPathFinder = (AbstractFactoryPathFinder<?, ?>) clone();
+			forkedPathFinder.factoryModel = fork;
+			
+			return forkedPathFinder;
+		}
+		catch (final CloneNotSupportedException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+	
 	protected Graph getGraph() {
 		return graph;
 	}
 	
-	public void buildGraph() {
+	/**
+	 * Returns the obstacles of the factory as they were when the graph was built.
+	 */
+	protected OccupancyGrid getOccupancyGrid() {
+		return occupancyGrid;
+	}
+	
+	/**
+	 * Returns the navigation data saved with the factory that the graph was built from, if any.
+	 */
+	protected NavigationData getLoadedNavigationData() {
+		return loadedNavigationData;
+	}
+	
+	/**
+	 * Returns the adjacency of the graph to be saved with the navigation data, if the finder computes one.
+	 */
+	protected CompactGridGraph getCompactGraph() {
+		return null;
+	}
+	
+	/**
+	 * Builds the graph if needed, and returns the data to be saved with the factory so that the graph of a 
+	 * reloaded factory can be built without scanning it for obstacles.
+	 */
+	public synchronized NavigationData createNavigationData() {
+		buildGraph();
+		
+		return new NavigationData(occupancyLayoutHash, isDiagonalMovesEnabled(), occupancyGrid, getCompactGraph());
+	}
+	
+	public synchronized void buildGraph() {
 		if (getGraph() == null) {
-			graph = newGraph();
-			final int xSize = getFactoryModel().getWidth() / getResolution();
-			final int ySize = getFactoryModel().getHeight() / getResolution();
-	
-			for (int xIndex = 0; xIndex < xSize; xIndex++) {
-				for (int yIndex = 0; yIndex < ySize; yIndex++) {
-					final int xCoordinate = xIndex * getResolution();
-					final int yCoordinate = yIndex * getResolution();
-					addVertex(xCoordinate, yCoordinate);
-				}
-			}
-			
-			final Iterator<? extends Vertex> vertexesIterator = getGraphVertexesIterator();
+			loadedNavigationData = getFactoryModel().getNavigationData(getResolution(), isDiagonalMovesEnabled());
 			
-			while (vertexesIterator.hasNext()) {
-				final Vertex vertex = vertexesIterator.next();
-				final Set<Vertex> successors = getSuccessors(getxCoordinate(vertex), getyCoordinate(vertex));
-
-				for (final Vertex succVertex : successors) {
-					addEdge(vertex, succVertex);
-				}
+			if (loadedNavigationData == null) {
+				occupancyLayoutHash = getFactoryModel().computeLayoutHash();
+				occupancyGrid = computeOccupancyGrid();
+			}
+			else {
+				occupancyLayoutHash = loadedNavigationData.getLayoutHash();
+				occupancyGrid = loadedNavigationData.getOccupancyGrid();
+				LOGGER.fine("Reusing saved " + loadedNavigationData);
 			}
 			
+			graph = newGraph();
+			populateGraph();
+			
 			LOGGER.fine(graph.toString());
 		}
 	}
 	
+	/**
+	 * Adds the vertexes and edges of the graph once it is created, if it is not complete when created. Finders whose
+	 * graph computes the moves on demand from the occupancy grid have nothing to add.
+	 */
+	protected void populateGraph() {
+	}
+	
 	protected abstract Graph newGraph();
 
-	protected abstract boolean addVertex(int xCoordinate,
-										 int yCoordinate);
-
-	protected abstract boolean addEdge(Vertex vertex1,
-									   Vertex vertex2);
-	
 	protected abstract int getxCoordinate(Vertex vertex);
 
 	protected abstract int getyCoordinate(Vertex vertex);
 
-	protected Set<Vertex> getSuccessors(final int xCoordinate,
-									    final int yCoordinate) {
-		final int xIndex = xCoordinate / getResolution();
-		final int yIndex = yCoordinate / getResolution();
-		
-		final Set<Vertex> successors = new HashSet<>();
-
-		Vertex succVertex = getBackwardyVertex(xIndex, yIndex);
+	protected boolean isFreeCell(final int xIndex,
+								 final int yIndex) {
+		return occupancyGrid.isFree(xIndex, yIndex);
+	}
+	
+	/**
+	 * Checks every cell of the grid for obstacles once, so that building the graph and smoothing paths only
+	 * test bits.
+	 */
+	protected OccupancyGrid computeOccupancyGrid() {
+		final int resolution = getResolution();
+		final int xSize = getFactoryModel().getWidth() / resolution;
+		final int ySize = getFactoryModel().getHeight() / resolution;
+		final OccupancyGrid grid = new OccupancyGrid(xSize, ySize, resolution);
 		
-		if (succVertex != null) {
-			successors.add(succVertex);
+		for (int xIndex = 0; xIndex < xSize; xIndex++) {
+			for (int yIndex = 0; yIndex < ySize; yIndex++) {
+				final PositionedShape shape = new RectangularShape(xIndex * resolution, yIndex * resolution, resolution, resolution);
+				
+				if (getFactoryModel().hasObstacleAt(shape)) {
+					grid.setBlocked(xIndex, yIndex);
+				}
+			}
 		}
-
-//		succVertex = getForwardxBackwardyVertex(xIndex, yIndex);
-//		
-//		if (succVertex != null) {
-//			successors.add(succVertex);
-//		}
-
-		succVertex = getForwardxVertex(xIndex, yIndex);
 		
-		if (succVertex != null) {
-			successors.add(succVertex);
-		}
-
-//		succVertex = getForwardxForwardyVertex(xIndex, yIndex);
-//		
-//		if (succVertex != null) {
-//			successors.add(succVertex);
-//		}
-
-		succVertex = getForwardyVertex(xIndex, yIndex);
+		return grid;
+	}
+	
+	/**
+	 * Returns the length of the move between two adjacent vertexes, in grid cells.
+	 */
+	protected double getEdgeWeight(final Vertex vertex1,
+								   final Vertex vertex2) {
+		final boolean diagonal = getxCoordinate(vertex1) != getxCoordinate(vertex2) && 
+								 getyCoordinate(vertex1) != getyCoordinate(vertex2);
 		
-		if (succVertex != null) {
-			successors.add(succVertex);
-		}
-
-//		succVertex = getBackwardxForwardyVertex(xIndex, yIndex);
-//		
-//		if (succVertex != null) {
-//			successors.add(succVertex);
-//		}
-
-		succVertex = getBackwardxVertex(xIndex, yIndex);
+		return diagonal ? DIAGONAL_MOVE_WEIGHT : 1.0;
+	}
+	
+	/**
+	 * Returns the integer cost of the move between two adjacent vertexes for graphs with integer distances. 
+	 * Plain unit costs are kept in 4-connected mode; otherwise costs are scaled so that diagonal moves are 
+	 * correctly weighted.
+	 */
+	protected int getEdgeCost(final Vertex vertex1,
+							  final Vertex vertex2) {
+		final boolean diagonal = getxCoordinate(vertex1) != getxCoordinate(vertex2) && 
+								 getyCoordinate(vertex1) != getyCoordinate(vertex2);
 		
-		if (succVertex != null) {
-			successors.add(succVertex);
+		return getMoveCost(diagonal);
+	}
+	
+	/**
+	 * Returns the integer cost of an orthogonal or of a diagonal move, as {@link #getEdgeCost} does.
+	 */
+	protected int getMoveCost(final boolean diagonal) {
+		if (!isDiagonalMovesEnabled()) {
+			return 1;
 		}
-
-//		succVertex = getBackwardxBackwardyVertex(xIndex, yIndex);
-//		
-//		if (succVertex != null) {
-//			successors.add(succVertex);
-//		}
-
-		return successors;
+		
+		return (int) Math.round((diagonal ? DIAGONAL_MOVE_WEIGHT : 1.0) * DIAGONAL_MOVE_COST_SCALE);
 	}
 	
-	private Vertex getBackwardxVertex(final int xIndex,
-								      final int yIndex) {
-		final int searchedxIndex = xIndex - 1;
+	/**
+	 * Returns the costs added to the moves of the given graph by the traffic of the factory: the congestion of the
+	 * entered cell, and the one-way lanes the moves may not go against. They are read once per search.
+	 * @return The costs, or {@code null} if the factory has no congestion map and no one-way lane.
+	 */
+	protected GridMoveCosts getTrafficCosts(final GridAdjacency graph) {
+		final CongestionMap congestionMap = getFactoryModel().getCongestionMap();
+		final OneWayLane[] oneWayLanes = getFactoryModel().getOneWayLanes().toArray(new OneWayLane[0]);
 		
-		if (searchedxIndex >= 0) {
-			return getFreeVertex(searchedxIndex, yIndex);
+		if (congestionMap == null && oneWayLanes.length == 0) {
+			return null;
 		}
 		
-		return null;
+		final int[] congestionCosts = congestionMap == null ? null : computeCongestionCosts(graph, congestionMap);
+		
+		return (vertex, succVertex) -> {
+			for (final OneWayLane oneWayLane : oneWayLanes) {
+				if (!oneWayLane.allowsMove(graph.getxCoordinate(vertex), 
+										   graph.getyCoordinate(vertex), 
+										   graph.getxCoordinate(succVertex), 
+										   graph.getyCoordinate(succVertex))) {
+					return GridMoveCosts.FORBIDDEN;
+				}
+			}
+			
+			return congestionCosts == null ? 0 : congestionCosts[succVertex];
+		};
 	}
 	
-	private Vertex getBackwardyVertex(final int xIndex,
-									  final int yIndex) {
-		final int searchedyIndex = yIndex - 1;
+	/**
+	 * Returns the congestion cost of entering each vertex, the occupancy of the cell of the map containing the 
+	 * center of the vertex being weighted in orthogonal moves.
+	 */
+	private int[] computeCongestionCosts(final GridAdjacency graph,
+										 final CongestionMap congestionMap) {
+		final double[] occupancies = congestionMap.getOccupancies();
+		final double unitCost = congestionMap.getCostWeight() * getMoveCost(false);
+		final int[] congestionCosts = new int[graph.getVertexCount()];
 		
-		if (searchedyIndex >= 0) {
-			return getFreeVertex(xIndex, searchedyIndex);	
+		for (int vertex = 0; vertex < congestionCosts.length; vertex++) {
+			final int cell = congestionMap.getCell(graph.getxCoordinate(vertex) + resolution / 2, 
+												   graph.getyCoordinate(vertex) + resolution / 2);
+			
+			if (cell >= 0) {
+				congestionCosts[vertex] = (int) Math.round(occupancies[cell] * unitCost);
+			}
 		}
 		
-		return null;
+		return congestionCosts;
 	}
 	
-	private Vertex getForwardxVertex(final int xIndex,
-									 final int yIndex) {
-		final int searchedxIndex = xIndex + 1;
+	/**
+	 * Post-processes a grid path by removing every intermediate position that can be skipped in a straight line
+	 * (Theta*-style line of sight smoothing). The returned list only contains the sparse waypoints between which
+	 * robots move in straight lines.
+	 * @param startPosition The position from which the path starts. It is not part of the given path.
+	 * @param pathPositions The positions of the grid path, without the start position.
+	 * @return The given path if smoothing is disabled, the sparse waypoints otherwise.
+	 */
+	protected List<Position> smoothPath(final Position startPosition,
+										final List<Position> pathPositions) {
+		if (!isPathSmoothingEnabled() || pathPositions.size() < 2) {
+			return pathPositions;
+		}
 		
-		if (searchedxIndex < getFactoryModel().getWidth() / getResolution()) {
-			return getFreeVertex(searchedxIndex, yIndex);
+		final List<Position> waypoints = new ArrayList<>();
+		Position anchorPosition = startPosition;
+		Position lastVisiblePosition = null;
+		
+		for (final Position position : pathPositions) {
+			if (lastVisiblePosition != null && !hasLineOfSight(anchorPosition, position)) {
+				waypoints.add(lastVisiblePosition);
+				anchorPosition = lastVisiblePosition;
+			}
+			
+			lastVisiblePosition = position;
 		}
 		
-		return null;
+		waypoints.add(lastVisiblePosition);
+		
+		return waypoints;
 	}
 	
-	private Vertex getForwardyVertex(final int xIndex,
-									 final int yIndex) {
-		final int searchedyIndex = yIndex + 1;
-			
-		if (searchedyIndex < getFactoryModel().getHeight() / getResolution()) {
-			return getFreeVertex(xIndex, searchedyIndex);
+	/**
+	 * Checks that a robot occupying at most one cell can move in a straight line between the given positions 
+	 * without overlapping an obstacle. The four corners of the robot footprint are traced through the grid.
+	 */
+	protected boolean hasLineOfSight(final Position fromPosition,
+									 final Position toPosition) {
+		final int[] footprintOffsets = new int[] { 0, getResolution() - 1 };
+		
+		for (final int xOffset : footprintOffsets) {
+			for (final int yOffset : footprintOffsets) {
+				if (!isSegmentFree(fromPosition.getxCoordinate() + xOffset, fromPosition.getyCoordinate() + yOffset,
+								   toPosition.getxCoordinate() + xOffset, toPosition.getyCoordinate() + yOffset)) {
+					return false;
+				}
+			}
 		}
 		
-		return null;
+		return true;
 	}
 	
-	protected Vertex getFreeVertex(final int xIndex,
-								   final int yIndex) {
+	/**
+	 * Walks every cell crossed by the given segment (Amanatides and Woo traversal). When the segment passes exactly
+	 * through a cell corner, both cells around the corner are checked.
+	 */
+	private boolean isSegmentFree(final int xStart,
+								  final int yStart,
+								  final int xEnd,
+								  final int yEnd) {
 		final int resolution = getResolution();
-		final int xCoordinate = xIndex * resolution;
-		final int yCoordinate = yIndex * resolution;
+		int xIndex = Math.floorDiv(xStart, resolution);
+		int yIndex = Math.floorDiv(yStart, resolution);
+		final int xEndIndex = Math.floorDiv(xEnd, resolution);
+		final int yEndIndex = Math.floorDiv(yEnd, resolution);
+		
+		if (!isFreeCell(xIndex, yIndex)) {
+			return false;
+		}
+		
+		final int xDelta = xEnd - xStart;
+		final int yDelta = yEnd - yStart;
+		final int xStep = Integer.signum(xDelta);
+		final int yStep = Integer.signum(yDelta);
+		
+		final double tDeltax = xDelta == 0 ? Double.POSITIVE_INFINITY : resolution / (double) Math.abs(xDelta);
+		final double tDeltay = yDelta == 0 ? Double.POSITIVE_INFINITY : resolution / (double) Math.abs(yDelta);
+		double tMaxx = xDelta == 0 ? Double.POSITIVE_INFINITY : 
+									 ((xStep > 0 ? (xIndex + 1) * resolution : xIndex * resolution) - xStart) / (double) xDelta;
+		double tMaxy = yDelta == 0 ? Double.POSITIVE_INFINITY : 
+									 ((yStep > 0 ? (yIndex + 1) * resolution : yIndex * resolution) - yStart) / (double) yDelta;
 		
-		final PositionedShape shape = new RectangularShape(xCoordinate, yCoordinate, resolution, resolution);
+		int remainingSteps = Math.abs(xEndIndex - xIndex) + Math.abs(yEndIndex - yIndex);
 		
-		if (!getFactoryModel().hasObstacleAt(shape)) {
-			return getVertex(xIndex, yIndex);
+		while (remainingSteps > 0) {
+			if (tMaxx < tMaxy) {
+				tMaxx += tDeltax;
+				xIndex += xStep;
+				remainingSteps--;
+			}
+			else if (tMaxy < tMaxx) {
+				tMaxy += tDeltay;
+				yIndex += yStep;
+				remainingSteps--;
+			}
+			else {
+				if (!isFreeCell(xIndex + xStep, yIndex) || !isFreeCell(xIndex, yIndex + yStep)) {
+					return false;
+				}
+				
+				tMaxx += tDeltax;
+				tMaxy += tDeltay;
+				xIndex += xStep;
+				yIndex += yStep;
+				remainingSteps -= 2;
+			}
+			
+			if (!isFreeCell(xIndex, yIndex)) {
+				return false;
+			}
 		}
 		
-		return null;
+		return true;
 	}
 	
 	protected abstract Vertex getVertex(final int xIndex,
@@ -241,6 +435,39 @@ public abstract class AbstractFactoryPathFinder<Graph, Vertex> implements Factor
 		return maxOverlayedSurfaceVertex;
 	}
 	
+	/**
+	 * Same as {@link #getVertex(Position)} for finders whose vertexes can be retrieved by cell indexes in constant
+	 * time: only the cells that the shape of the given position may overlay are examined, in increasing index order.
+	 */
+	protected Vertex getMostOverlayedCellVertex(final Position position) {
+		final int xSize = getFactoryModel().getWidth() / resolution;
+		final int ySize = getFactoryModel().getHeight() / resolution;
+		final PositionedShape shape = new RectangularShape(position.getxCoordinate(),
+														   position.getyCoordinate(),
+														   resolution,
+														   resolution);
+		final int minxIndex = Math.max(0, Math.floorDiv(position.getxCoordinate(), resolution));
+		final int maxxIndex = Math.min(xSize - 1, Math.floorDiv(position.getxCoordinate() + resolution - 1, resolution));
+		final int minyIndex = Math.max(0, Math.floorDiv(position.getyCoordinate(), resolution));
+		final int maxyIndex = Math.min(ySize - 1, Math.floorDiv(position.getyCoordinate() + resolution - 1, resolution));
+		float currentMaxOverlayedSurface = 0.0f;
+		Vertex maxOverlayedSurfaceVertex = null;
+
+		for (int xIndex = minxIndex; xIndex <= maxxIndex; xIndex++) {
+			for (int yIndex = minyIndex; yIndex <= maxyIndex; yIndex++) {
+				final Vertex vertex = getVertex(xIndex, yIndex);
+				final float overlayedSurface = overlayedSurface(vertex, shape);
+
+				if (overlayedSurface > currentMaxOverlayedSurface) {
+					currentMaxOverlayedSurface = overlayedSurface;
+					maxOverlayedSurfaceVertex = vertex;
+				}
+			}
+		}
+
+		return maxOverlayedSurfaceVertex;
+	}
+	
 	protected abstract float overlayedSurface(Vertex vertex, 
 											  PositionedShape shape);
 	
@@ -0,0 +1,214 @@
+package fr.tp.inf112.projects.robotsim.model.path;
+
+import java.io.Serializable;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+
+import fr.tp.inf112.projects.robotsim.model.Factory;
+
+/**
+ * A path finder whose graph is made of a vertex for every cell of the grid and an edge for every move between
+ * adjacent free cells, added once the graph is created.
+ */
+public abstract class AbstractGridGraphFactoryPathFinder<Graph, Vertex> extends AbstractFactoryPathFinder<Graph, Vertex> implements Serializable {
+
+	/**
+	 *
+	 */
+	private static final long serialVersionUID = 5283610947319460752L;
+
+	public AbstractGridGraphFactoryPathFinder(final Factory factoryModel,
+											  final int resolution) {
+		super(factoryModel, resolution);
+	}
+	
+	public AbstractGridGraphFactoryPathFinder() {
+		this(null, 0);
+	}
+
+	/**
+	 * Adds a vertex for every cell of the grid, and an edge for every move between adjacent cells.
+	 */
+	@Override
+	protected void populateGraph() {
+		final int xSize = getFactoryModel().getWidth() / getResolution();
+		final int ySize = getFactoryModel().getHeight() / getResolution();
+
+		for (int xIndex = 0; xIndex < xSize; xIndex++) {
+			for (int yIndex = 0; yIndex < ySize; yIndex++) {
+				final int xCoordinate = xIndex * getResolution();
+				final int yCoordinate = yIndex * getResolution();
+				addVertex(xCoordinate, yCoordinate);
+			}
+		}
+		
+		final Iterator<? extends Vertex> vertexesIterator = getGraphVertexesIterator();
+		
+		while (vertexesIterator.hasNext()) {
+			final Vertex vertex = vertexesIterator.next();
+			final Set<Vertex> successors = getSuccessors(getxCoordinate(vertex), getyCoordinate(vertex));
+
+			for (final Vertex succVertex : successors) {
+				addEdge(vertex, succVertex);
+			}
+		}
+	}
+	
+	protected abstract boolean addVertex(int xCoordinate,
+										 int yCoordinate);
+
+	protected abstract boolean addEdge(Vertex vertex1,
+									   Vertex vertex2);
+	
+	protected Set<Vertex> getSuccessors(final int xCoordinate,
+									    final int yCoordinate) {
+		final int xIndex = xCoordinate / getResolution();
+		final int yIndex = yCoordinate / getResolution();
+		
+		final Set<Vertex> successors = new HashSet<>();
+
+		Vertex succVertex = getBackwardyVertex(xIndex, yIndex);
+		
+		if (succVertex != null) {
+			successors.add(succVertex);
+		}
+
+		succVertex = getForwardxVertex(xIndex, yIndex);
+		
+		if (succVertex != null) {
+			successors.add(succVertex);
+		}
+
+		succVertex = getForwardyVertex(xIndex, yIndex);
+		
+		if (succVertex != null) {
+			successors.add(succVertex);
+		}
+
+		succVertex = getBackwardxVertex(xIndex, yIndex);
+		
+		if (succVertex != null) {
+			successors.add(succVertex);
+		}
+		
+		if (isDiagonalMovesEnabled()) {
+			succVertex = getForwardxBackwardyVertex(xIndex, yIndex);
+			
+			if (succVertex != null) {
+				successors.add(succVertex);
+			}
+	
+			succVertex = getForwardxForwardyVertex(xIndex, yIndex);
+			
+			if (succVertex != null) {
+				successors.add(succVertex);
+			}
+	
+			succVertex = getBackwardxForwardyVertex(xIndex, yIndex);
+			
+			if (succVertex != null) {
+				successors.add(succVertex);
+			}
+	
+			succVertex = getBackwardxBackwardyVertex(xIndex, yIndex);
+			
+			if (succVertex != null) {
+				successors.add(succVertex);
+			}
+		}
+
+		return successors;
+	}
+	
+	private Vertex getBackwardxVertex(final int xIndex,
+								      final int yIndex) {
+		final int searchedxIndex = xIndex - 1;
+		
+		if (searchedxIndex >= 0) {
+			return getFreeVertex(searchedxIndex, yIndex);
+		}
+		
+		return null;
+	}
+	
+	private Vertex getBackwardyVertex(final int xIndex,
+									  final int yIndex) {
+		final int searchedyIndex = yIndex - 1;
+		
+		if (searchedyIndex >= 0) {
+			return getFreeVertex(xIndex, searchedyIndex);	
+		}
+		
+		return null;
+	}
+	
+	private Vertex getForwardxVertex(final int xIndex,
+									 final int yIndex) {
+		final int searchedxIndex = xIndex + 1;
+		
+		if (searchedxIndex < getFactoryModel().getWidth() / getResolution()) {
+			return getFreeVertex(searchedxIndex, yIndex);
+		}
+		
+		return null;
+	}
+	
+	private Vertex getForwardyVertex(final int xIndex,
+									 final int yIndex) {
+		final int searchedyIndex = yIndex + 1;
+			
+		if (searchedyIndex < getFactoryModel().getHeight() / getResolution()) {
+			return getFreeVertex(xIndex, searchedyIndex);
+		}
+		
+		return null;
+	}
+	
+	private Vertex getForwardxBackwardyVertex(final int xIndex,
+											 final int yIndex) {
+		return getDiagonalVertex(xIndex, yIndex, 1, -1);
+	}
+	
+	private Vertex getForwardxForwardyVertex(final int xIndex,
+											final int yIndex) {
+		return getDiagonalVertex(xIndex, yIndex, 1, 1);
+	}
+	
+	private Vertex getBackwardxForwardyVertex(final int xIndex,
+											 final int yIndex) {
+		return getDiagonalVertex(xIndex, yIndex, -1, 1);
+	}
+	
+	private Vertex getBackwardxBackwardyVertex(final int xIndex,
+											  final int yIndex) {
+		return getDiagonalVertex(xIndex, yIndex, -1, -1);
+	}
+	
+	/**
+	 * A diagonal move is only allowed if both cells it passes between are free, so that robots never cut the
+	 * corner of an obstacle.
+	 */
+	private Vertex getDiagonalVertex(final int xIndex,
+									 final int yIndex,
+									 final int xStep,
+									 final int yStep) {
+		final int searchedxIndex = xIndex + xStep;
+		final int searchedyIndex = yIndex + yStep;
+		
+		if (isFreeCell(searchedxIndex, yIndex) && isFreeCell(xIndex, searchedyIndex) && isFreeCell(searchedxIndex, searchedyIndex)) {
+			return getVertex(searchedxIndex, searchedyIndex);
+		}
+		
+		return null;
+	}
+	
+	protected Vertex getFreeVertex(final int xIndex,
+								   final int yIndex) {
+		if (isFreeCell(xIndex, yIndex)) {
+			return getVertex(xIndex, yIndex);
+		}
+		
+		return null;
+	}
+}
@@ -0,0 +1,118 @@
+package fr.tp.inf112.projects.robotsim.model.path;
+
+import java.io.Serializable;
+
+/**
+ * An immutable grid navigation graph stored as adjacency arrays (compressed sparse rows). The vertex of the cell
+ * at indexes {@code (xIndex, yIndex)} has the identifier {@code xIndex * ySize + yIndex}, and the successors of
+ * vertex {@code v} are stored in {@code edgeTargets} between {@code edgeOffsets[v]} (inclusive) and
+ * {@code edgeOffsets[v + 1]} (exclusive), with their precomputed distances in {@code edgeDistances}.
+ */
+public class CompactGridGraph implements GridAdjacency, Serializable {
+
+	private static final long serialVersionUID = -2853937045174720916L;
+
+	private final int xSize;
+
+	private final int ySize;
+
+	private final int resolution;
+
+	private final int[] edgeOffsets;
+
+	private final int[] edgeTargets;
+
+	private final int[] edgeDistances;
+
+	public CompactGridGraph(final int xSize,
+							final int ySize,
+							final int resolution,
+							final int[] edgeOffsets,
+							final int[] edgeTargets,
+							final int[] edgeDistances) {
+		this.xSize = xSize;
+		this.ySize = ySize;
+		this.resolution = resolution;
+		this.edgeOffsets = edgeOffsets;
+		this.edgeTargets = edgeTargets;
+		this.edgeDistances = edgeDistances;
+	}
+
+	public int getxSize() {
+		return xSize;
+	}
+
+	public int getySize() {
+		return ySize;
+	}
+
+	public int getResolution() {
+		return resolution;
+	}
+
+	@Override
+	public int getVertexCount() {
+		return xSize * ySize;
+	}
+
+	public int getEdgeCount() {
+		return edgeTargets.length;
+	}
+
+	public int getVertex(final int xIndex,
+						 final int yIndex) {
+		return xIndex * ySize + yIndex;
+	}
+
+	public int getxIndex(final int vertex) {
+		return vertex / ySize;
+	}
+
+	public int getyIndex(final int vertex) {
+		return vertex % ySize;
+	}
+
+	@Override
+	public int getxCoordinate(final int vertex) {
+		return getxIndex(vertex) * resolution;
+	}
+
+	@Override
+	public int getyCoordinate(final int vertex) {
+		return getyIndex(vertex) * resolution;
+	}
+
+	public int getFirstEdge(final int vertex) {
+		return edgeOffsets[vertex];
+	}
+
+	public int getLastEdge(final int vertex) {
+		return edgeOffsets[vertex + 1];
+	}
+
+	public int getEdgeTarget(final int edge) {
+		return edgeTargets[edge];
+	}
+
+	public int getEdgeDistance(final int edge) {
+		return edgeDistances[edge];
+	}
+
+	@Override
+	public int getSuccessors(final int vertex,
+							 final int[] successors,
+							 final int[] distances) {
+		final int firstEdge = edgeOffsets[vertex];
+		final int successorsCount = edgeOffsets[vertex + 1] - firstEdge;
+		System.arraycopy(edgeTargets, firstEdge, successors, 0, successorsCount);
+		System.arraycopy(edgeDistances, firstEdge, distances, 0, successorsCount);
+
+		return successorsCount;
+	}
+
+	@Override
+	public String toString() {
+		return "CompactGridGraph [xSize=" + xSize + ", ySize=" + ySize + ", resolution=" + resolution +
+			   ", edges=" + getEdgeCount() + "]";
+	}
+}
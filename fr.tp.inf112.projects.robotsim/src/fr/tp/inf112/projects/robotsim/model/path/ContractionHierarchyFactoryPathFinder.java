@@ -0,0 +1,184 @@
+package fr.tp.inf112.projects.robotsim.model.path;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.logging.Logger;
+
+import org.jgrapht.Graph;
+import org.jgrapht.GraphPath;
+import org.jgrapht.alg.shortestpath.ContractionHierarchyBidirectionalDijkstra;
+import org.jgrapht.alg.shortestpath.ContractionHierarchyPrecomputation;
+import org.jgrapht.alg.shortestpath.ContractionHierarchyPrecomputation.ContractionHierarchy;
+import org.jgrapht.util.ConcurrencyUtil;
+
+import fr.tp.inf112.projects.robotsim.model.Factory;
+
+/**
+ * A path finder for static layouts, answering queries with a bidirectional Dijkstra search over a contraction
+ * hierarchy of the sparse navigation graph. The hierarchy is expensive to compute, so it is shared by all the
+ * finders of the JVM whose grid has the same obstacles and connectivity: every robot of a factory and every
+ * restart of a simulation reuse it. Opening or closing a door changes the obstacles, hence gives another
+ * hierarchy.
+ *
+ * The hierarchy is computed in a thread of its own, without holding any lock, and published once complete: until
+ * then, the finder answers with a plain Dijkstra search of the sparse graph, so that robots keep moving.
+ */
+public class ContractionHierarchyFactoryPathFinder extends SparseJGraphTDijkstraFactoryPathFinder {
+
+	/**
+	 *
+	 */
+	private static final long serialVersionUID = -5937262144480416235L;
+
+	private static final Logger LOGGER = Logger.getLogger(ContractionHierarchyFactoryPathFinder.class.getName());
+
+	private static final int MAX_CACHED_HIERARCHIES = 8;
+
+	private static final int PRECOMPUTATION_THREADS = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+
+	private static final Map<HierarchyKey, CompletableFuture<ContractionHierarchy<Integer, Integer>>> HIERARCHIES = new LinkedHashMap<>(16, 0.75f, true) {
+
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(final Map.Entry<HierarchyKey, CompletableFuture<ContractionHierarchy<Integer, Integer>>> eldest) {
+			return size() > MAX_CACHED_HIERARCHIES;
+		}
+	};
+
+	private transient volatile CompletableFuture<ContractionHierarchy<Integer, Integer>> hierarchy;
+
+	public ContractionHierarchyFactoryPathFinder(final Factory factoryModel,
+												 final int resolution) {
+		super(factoryModel, resolution);
+	}
+
+	public ContractionHierarchyFactoryPathFinder() {
+		super(null, 0);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * Also retrieves the contraction hierarchy of the graph, starting its computation if no finder did it before
+	 * for the same grid.
+	 */
+	@Override
+	public synchronized void buildGraph() {
+		super.buildGraph();
+
+		if (hierarchy == null) {
+			hierarchy = getHierarchy(new HierarchyKey(getOccupancyGrid(), isDiagonalMovesEnabled()), getSparseGraph());
+		}
+	}
+
+	@Override
+	protected GraphPath<Integer, Integer> findShortestPath(final Integer sourceVertex,
+														   final Integer targetVertex) {
+		final CompletableFuture<ContractionHierarchy<Integer, Integer>> currentHierarchy = hierarchy;
+
+		if (currentHierarchy == null || !currentHierarchy.isDone() || currentHierarchy.isCompletedExceptionally()) {
+			return super.findShortestPath(sourceVertex, targetVertex);
+		}
+
+		return new ContractionHierarchyBidirectionalDijkstra<>(currentHierarchy.join()).getPath(sourceVertex, targetVertex);
+	}
+
+	@Override
+	protected SparseGridGraphBuilder newGraph() {
+		hierarchy = null;
+
+		return super.newGraph();
+	}
+
+	/**
+	 * The cache holds the hierarchies being computed as well as the computed ones, so that finders building the
+	 * same graph concurrently share the first computation instead of contracting the graph again. The cache lock
+	 * is only held to look the hierarchy up.
+	 */
+	private static CompletableFuture<ContractionHierarchy<Integer, Integer>> getHierarchy(final HierarchyKey key,
+																						   final Graph<Integer, Integer> graph) {
+		final CompletableFuture<ContractionHierarchy<Integer, Integer>> computedHierarchy;
+
+		synchronized (HIERARCHIES) {
+			final CompletableFuture<ContractionHierarchy<Integer, Integer>> cachedHierarchy = HIERARCHIES.get(key);
+
+			if (cachedHierarchy != null) {
+				return cachedHierarchy;
+			}
+
+			computedHierarchy = new CompletableFuture<>();
+			HIERARCHIES.put(key, computedHierarchy);
+		}
+
+		final Thread precomputationThread = new Thread(() -> {
+			final long startTime = System.currentTimeMillis();
+
+			try {
+				computedHierarchy.complete(computeHierarchy(graph));
+
+				LOGGER.info("Contraction hierarchy of " + key.occupancyGrid + " computed in " + (System.currentTimeMillis() - startTime) + " ms.");
+			}
+			catch (final RuntimeException ex) {
+				LOGGER.warning("Contraction hierarchy of " + key.occupancyGrid + " could not be computed: " + ex);
+
+				synchronized (HIERARCHIES) {
+					HIERARCHIES.remove(key, computedHierarchy);
+				}
+
+				computedHierarchy.completeExceptionally(ex);
+			}
+		}, "contraction-hierarchy");
+		precomputationThread.setDaemon(true);
+		precomputationThread.start();
+
+		return computedHierarchy;
+	}
+
+	private static ContractionHierarchy<Integer, Integer> computeHierarchy(final Graph<Integer, Integer> graph) {
+		final ThreadPoolExecutor executor = ConcurrencyUtil.createThreadPoolExecutor(PRECOMPUTATION_THREADS);
+
+		try {
+			return new ContractionHierarchyPrecomputation<>(graph, executor).computeContractionHierarchy();
+		}
+		finally {
+			executor.shutdown();
+		}
+	}
+
+	private static final class HierarchyKey {
+
+		private final OccupancyGrid occupancyGrid;
+
+		private final boolean diagonalMovesEnabled;
+
+		private HierarchyKey(final OccupancyGrid occupancyGrid,
+							 final boolean diagonalMovesEnabled) {
+			this.occupancyGrid = occupancyGrid;
+			this.diagonalMovesEnabled = diagonalMovesEnabled;
+		}
+
+		@Override
+		public boolean equals(final Object objectToCompare) {
+			if (this == objectToCompare) {
+				return true;
+			}
+
+			if (!(objectToCompare instanceof HierarchyKey)) {
+				return false;
+			}
+
+			final HierarchyKey key = (HierarchyKey) objectToCompare;
+
+			return diagonalMovesEnabled == key.diagonalMovesEnabled && occupancyGrid.equals(key.occupancyGrid);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(occupancyGrid, diagonalMovesEnabled);
+		}
+	}
+}
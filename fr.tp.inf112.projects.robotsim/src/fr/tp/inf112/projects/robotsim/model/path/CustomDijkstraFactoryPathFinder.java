@@ -5,23 +5,25 @@ import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 
-import fr.tp.inf112.projects.graph.DijkstraAlgorithm;
 import fr.tp.inf112.projects.graph.Edge;
 import fr.tp.inf112.projects.graph.Vertex;
 import fr.tp.inf112.projects.graph.impl.GridEdge;
 import fr.tp.inf112.projects.graph.impl.GridGraph;
-import fr.tp.inf112.projects.graph.impl.GridVertex;
 import fr.tp.inf112.projects.robotsim.model.Component;
 import fr.tp.inf112.projects.robotsim.model.Factory;
 import fr.tp.inf112.projects.robotsim.model.Position;
 import fr.tp.inf112.projects.robotsim.model.shapes.PositionedShape;
 
-public class CustomDijkstraFactoryPathFinder extends AbstractFactoryPathFinder<GridGraph, SquareVertex> implements Serializable {
+public class CustomDijkstraFactoryPathFinder extends AbstractGridGraphFactoryPathFinder<GridGraph, SquareVertex> implements Serializable {
 	
 	/**
 	 * 
 	 */
 	private static final long serialVersionUID = 6996131946200605552L;
+	
+	private transient SquareVertex[] squareVertexes;
+	
+	private transient CompactGridGraph compactGraph;
 
 	public CustomDijkstraFactoryPathFinder(final Factory factoryModel,
 									 	   final int resolution) {
@@ -40,43 +42,108 @@ public class CustomDijkstraFactoryPathFinder extends AbstractFactoryPathFinder<G
 		final Position sourcePosition = sourceComponent.getPosition();
 		final Position targetPosition = targetComponent.getPosition();
 		
-		final Vertex startVertex = getVertex(sourcePosition);
+		final SquareVertex startVertex = getVertex(sourcePosition);
 		assert startVertex != null : "Start vertex should never be null!";
 
-		final Vertex targetVertex = getVertex(targetPosition);
+		final SquareVertex targetVertex = getVertex(targetPosition);
 		assert targetVertex != null : "Target vertex should never be null!";
 		
-		final GridGraph graph = getGraph();
-		graph.setTargetVertex((GridVertex) targetVertex);
-		
-		final List<Vertex> shortestPath = DijkstraAlgorithm.findShortestPath(graph, startVertex, targetVertex);
+		final int startVertexIndex = getVertexIndex(startVertex);
+		final int[] shortestPath = GridDijkstraAlgorithm.findShortestPath(compactGraph, 
+																		  startVertexIndex, 
+																		  getVertexIndex(targetVertex),
+																		  getTrafficCosts(compactGraph));
 		final List<Position> shortestPathPositions = new ArrayList<>();
 		
-		for (final Vertex vertex : shortestPath) {
-			if (vertex != startVertex) {
-				shortestPathPositions.add(( (SquareVertex) vertex ).getPosition());
+		for (final int vertexIndex : shortestPath) {
+			if (vertexIndex != startVertexIndex) {
+				shortestPathPositions.add(new Position(compactGraph.getxCoordinate(vertexIndex), 
+													   compactGraph.getyCoordinate(vertexIndex)));
 			}
 		}
 
-		return shortestPathPositions;
+		return smoothPath(startVertex.getPosition(), shortestPathPositions);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * Paths are searched on adjacency arrays with precomputed edge distances: when they were saved with the 
+	 * factory, the vertexes and edges are not created at all, and are otherwise compiled into these arrays.
+	 */
+	@Override
+	protected void populateGraph() {
+		final NavigationData navigationData = getLoadedNavigationData();
+		compactGraph = navigationData == null ? null : navigationData.getCompactGraph(isDiagonalMovesEnabled());
+		
+		if (compactGraph == null) {
+			super.populateGraph();
+			compactGraph = compileGraph();
+		}
+	}
+	
+	@Override
+	protected CompactGridGraph getCompactGraph() {
+		return compactGraph;
+	}
+	
+	private CompactGridGraph compileGraph() {
+		final int xSize = getFactoryModel().getWidth() / getResolution();
+		final int ySize = getFactoryModel().getHeight() / getResolution();
+		final int[] edgeOffsets = new int[squareVertexes.length + 1];
+		final List<SquareVertex> edgeTargets = new ArrayList<>();
+		
+		for (int vertexIndex = 0; vertexIndex < squareVertexes.length; vertexIndex++) {
+			edgeOffsets[vertexIndex] = edgeTargets.size();
+			
+			for (final Vertex succVertex : squareVertexes[vertexIndex].getSuccessors()) {
+				edgeTargets.add((SquareVertex) succVertex);
+			}
+		}
+		
+		edgeOffsets[squareVertexes.length] = edgeTargets.size();
+		
+		final int[] edgeTargetIndexes = new int[edgeTargets.size()];
+		final int[] edgeDistances = new int[edgeTargets.size()];
+		
+		for (int vertexIndex = 0; vertexIndex < squareVertexes.length; vertexIndex++) {
+			for (int edge = edgeOffsets[vertexIndex]; edge < edgeOffsets[vertexIndex + 1]; edge++) {
+				final SquareVertex succVertex = edgeTargets.get(edge);
+				edgeTargetIndexes[edge] = getVertexIndex(succVertex);
+				edgeDistances[edge] = getEdgeCost(squareVertexes[vertexIndex], succVertex);
+			}
+		}
+		
+		return new CompactGridGraph(xSize, ySize, getResolution(), edgeOffsets, edgeTargetIndexes, edgeDistances);
+	}
+	
+	private int getVertexIndex(final SquareVertex vertex) {
+		final int ySize = getFactoryModel().getHeight() / getResolution();
+		
+		return vertex.getxCoordinate() / getResolution() * ySize + vertex.getyCoordinate() / getResolution();
 	}
 
+	/**
+	 * Also creates the vertexes of the graphs built from saved adjacency arrays, which are only needed to look up
+	 * the vertexes of positions.
+	 */
 	@Override
 	protected SquareVertex getVertex(final int xIndex, 
 									 final int yIndex) {
-		final Iterator<SquareVertex> iterator = getGraphVertexesIterator();
-		final int resolution = getResolution();
-		final Position position = new Position(xIndex * resolution, yIndex * resolution);
-
-		while (iterator.hasNext()) {
-			final SquareVertex squareVertex = iterator.next();
-			
-			if (position.equals(squareVertex.getPosition())) {
-				return squareVertex;
-			}
+		final int ySize = getFactoryModel().getHeight() / getResolution();
+		SquareVertex vertex = squareVertexes[xIndex * ySize + yIndex];
+		
+		if (vertex == null) {
+			vertex = newVertex(xIndex * getResolution(), yIndex * getResolution());
+			squareVertexes[xIndex * ySize + yIndex] = vertex;
 		}
 		
-		return null;
+		return vertex;
+	}
+	
+	@Override
+	protected SquareVertex getVertex(final Position position) {
+		return getMostOverlayedCellVertex(position);
 	}
 
 	@Override
@@ -93,25 +160,38 @@ public class CustomDijkstraFactoryPathFinder extends AbstractFactoryPathFinder<G
 
 	@Override
 	protected GridGraph newGraph() {
+		final int xSize = getFactoryModel().getWidth() / getResolution();
+		final int ySize = getFactoryModel().getHeight() / getResolution();
+		squareVertexes = new SquareVertex[xSize * ySize];
+		compactGraph = null;
+		
 		return new GridGraph();
 	}
 
 	@Override
 	protected boolean addVertex(final int xCoordinate,
 								final int yCoordinate) {
-		final int resolution = getResolution();
-		final Vertex vertex = new SquareVertex("(" + xCoordinate / resolution + ", "+ yCoordinate / resolution + ")",
-											   xCoordinate,
-											   yCoordinate,
-											   resolution);
+		final SquareVertex vertex = newVertex(xCoordinate, yCoordinate);
+		squareVertexes[getVertexIndex(vertex)] = vertex;
+		
 		return getGraph().addVertex(vertex);
 	}
+	
+	private SquareVertex newVertex(final int xCoordinate,
+								   final int yCoordinate) {
+		final int resolution = getResolution();
+		
+		return new SquareVertex("(" + xCoordinate / resolution + ", "+ yCoordinate / resolution + ")",
+								xCoordinate,
+								yCoordinate,
+								resolution);
+	}
 
 	@Override
 	protected boolean addEdge(final SquareVertex vertex1,
 							  final SquareVertex vertex2) {
 		final GridGraph graph = getGraph();
-		final Edge edge = new GridEdge(graph, vertex1, vertex2, 1);
+		final Edge edge = new GridEdge(graph, vertex1, vertex2, getEdgeCost(vertex1, vertex2));
 		vertex1.addEdge(edge);
 		
 		return graph.addEdge(edge);
@@ -1,12 +1,75 @@
 package fr.tp.inf112.projects.robotsim.model.path;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import fr.tp.inf112.projects.robotsim.model.Component;
+import fr.tp.inf112.projects.robotsim.model.Factory;
 import fr.tp.inf112.projects.robotsim.model.Position;
 
 public interface FactoryPathFinder {
 
 	List<Position> findPath(Component sourceComponent,
 							Component targetComponent);
+
+	/**
+	 * @return The path finder to be used by the robots of the given fork of the factory searched by this path
+	 * finder (see {@link Factory#fork()}), this path finder if it does not depend on the factory.
+	 */
+	default FactoryPathFinder forkInto(final Factory fork) {
+		return this;
+	}
+
+	/**
+	 * Computes the path between the given components on the shared planning pool, so that the calling robot
+	 * thread is not blocked while the search runs.
+	 * @param sourceComponent The component from which the path starts.
+	 * @param targetComponent The component towards which the path should go.
+	 * @return A non {@code null} future completed with the same list as {@link #findPath(Component, Component)}.
+	 */
+	default CompletableFuture<List<Position>> findPathAsync(final Component sourceComponent,
+															final Component targetComponent) {
+		return PathPlanningExecutor.supplyAsync(() -> findPath(sourceComponent, targetComponent));
+	}
+
+	/**
+	 * Computes the paths of several requests at once. Identical requests (same source position and same
+	 * target component) are only computed once and the remaining ones are computed in parallel on the shared
+	 * planning pool. A path is only given to a request if its source component is still at the position the path
+	 * was computed from, and is computed again from the current position of the source component otherwise.
+	 * @param requests A non {@code null} list of path requests.
+	 * @return The paths in the same order as the given requests.
+	 */
+	default List<List<Position>> findPaths(final List<PathRequest> requests) {
+		final Map<PathRequest, CompletableFuture<List<Position>>> distinctRequests = new LinkedHashMap<>();
+
+		for (final PathRequest request : requests) {
+			distinctRequests.computeIfAbsent(request, key -> PathPlanningExecutor.supplyAsync(() -> {
+				if (key.hasSourceMoved()) {
+					return null;
+				}
+
+				final List<Position> path = findPath(key.getSourceComponent(), key.getTargetComponent());
+
+				return key.hasSourceMoved() ? null : path;
+			}));
+		}
+
+		final List<List<Position>> paths = new ArrayList<>(requests.size());
+
+		for (final PathRequest request : requests) {
+			List<Position> path = distinctRequests.get(request).join();
+
+			if (path == null || request.hasSourceMoved()) {
+				path = findPath(request.getSourceComponent(), request.getTargetComponent());
+			}
+
+			paths.add(path);
+		}
+
+		return paths;
+	}
 }
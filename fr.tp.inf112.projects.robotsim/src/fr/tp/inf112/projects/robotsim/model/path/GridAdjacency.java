@@ -0,0 +1,29 @@
+package fr.tp.inf112.projects.robotsim.model.path;
+
+/**
+ * The moves between the cells of a grid navigation graph, as searched by {@link GridDijkstraAlgorithm}. The vertex
+ * of the cell at indexes {@code (xIndex, yIndex)} has the identifier {@code xIndex * ySize + yIndex}.
+ */
+public interface GridAdjacency {
+
+	/**
+	 * The maximal number of successors of a vertex.
+	 */
+	int MAX_DEGREE = 8;
+
+	int getVertexCount();
+
+	int getxCoordinate(int vertex);
+
+	int getyCoordinate(int vertex);
+
+	/**
+	 * Writes the successors of the given vertex, and the distances of the moves towards them, in the given arrays.
+	 * @param successors An array of at least {@link #MAX_DEGREE} elements.
+	 * @param distances An array of at least {@link #MAX_DEGREE} elements.
+	 * @return The number of successors.
+	 */
+	int getSuccessors(int vertex,
+					  int[] successors,
+					  int[] distances);
+}
@@ -0,0 +1,175 @@
+package fr.tp.inf112.projects.robotsim.model.path;
+
+import java.util.Arrays;
+
+/**
+ * The Dijkstra shortest path algorithm over a {@link GridAdjacency}, using an indexed binary heap to select the
+ * next pivot vertex. Edge distances are weighted with the same direction penalty as the {@code GridEdge} class of
+ * the graph library: a move is penalized according to the angle between the move and the direction from the end
+ * of the move towards the target vertex.
+ */
+public final class GridDijkstraAlgorithm {
+
+	private static final float FULL_ANGLE = (float) (2 * Math.PI);
+
+	/**
+	 * Angles of the moves towards the adjacent cells, indexed by {@code [sign(xDelta) + 1][sign(yDelta) + 1]}.
+	 */
+	private static final float[][] MOVE_ANGLES = new float[3][3];
+
+	static {
+		for (int xSign = -1; xSign <= 1; xSign++) {
+			for (int ySign = -1; ySign <= 1; ySign++) {
+				MOVE_ANGLES[xSign + 1][ySign + 1] = getAngle(xSign, ySign);
+			}
+		}
+	}
+
+	/**
+	 * Returns the shortest path between the given vertexes.
+	 * @param graph A non {@code null} graph.
+	 * @param startVertex The vertex from which the path starts.
+	 * @param targetVertex The vertex towards which the path should go.
+	 * @return The vertexes of the path, the first element being the start vertex and the last one the target
+	 * vertex. An empty array means that the target cannot be reached.
+	 */
+	public static int[] findShortestPath(final GridAdjacency graph,
+										 final int startVertex,
+										 final int targetVertex) {
+		return findShortestPath(graph, startVertex, targetVertex, null);
+	}
+
+	/**
+	 * Same as {@link #findShortestPath(GridAdjacency, int, int)}, adding the given costs to the distances of the
+	 * moves and skipping the forbidden ones.
+	 * @param moveCosts The costs to add, or {@code null} if there are none.
+	 */
+	public static int[] findShortestPath(final GridAdjacency graph,
+										 final int startVertex,
+										 final int targetVertex,
+										 final GridMoveCosts moveCosts) {
+		final int vertexCount = graph.getVertexCount();
+		final int[] minDistances = new int[vertexCount];
+		final int[] previousVertexes = new int[vertexCount];
+		final float[] targetAngles = new float[vertexCount];
+		Arrays.fill(minDistances, Integer.MAX_VALUE);
+		Arrays.fill(targetAngles, Float.NaN);
+
+		final int targetxCoordinate = graph.getxCoordinate(targetVertex);
+		final int targetyCoordinate = graph.getyCoordinate(targetVertex);
+
+		final int[] successors = new int[GridAdjacency.MAX_DEGREE];
+		final int[] distances = new int[GridAdjacency.MAX_DEGREE];
+
+		final IndexedMinPriorityQueue queue = new IndexedMinPriorityQueue(vertexCount);
+		minDistances[startVertex] = 0;
+		previousVertexes[startVertex] = -1;
+		queue.insertOrDecrease(startVertex, 0);
+
+		while (!queue.isEmpty()) {
+			final int pivotVertex = queue.poll();
+
+			if (pivotVertex == targetVertex) {
+				return toPath(previousVertexes, targetVertex);
+			}
+
+			final int pivotDistance = minDistances[pivotVertex];
+			final int successorsCount = graph.getSuccessors(pivotVertex, successors, distances);
+
+			for (int index = 0; index < successorsCount; index++) {
+				final int succVertex = successors[index];
+				final int extraCost = moveCosts == null ? 0 : moveCosts.getExtraCost(pivotVertex, succVertex);
+
+				if (extraCost == GridMoveCosts.FORBIDDEN) {
+					continue;
+				}
+
+				final int penalty = getDirectionPenalty(graph, pivotVertex, succVertex, targetxCoordinate, targetyCoordinate, targetAngles);
+				final int currentDistance = pivotDistance + distances[index] + penalty + extraCost;
+
+				if (currentDistance < minDistances[succVertex]) {
+					minDistances[succVertex] = currentDistance;
+					previousVertexes[succVertex] = pivotVertex;
+					queue.insertOrDecrease(succVertex, currentDistance);
+				}
+			}
+		}
+
+		return new int[0];
+	}
+
+	private static int[] toPath(final int[] previousVertexes,
+								final int targetVertex) {
+		int length = 0;
+
+		for (int vertex = targetVertex; vertex != -1; vertex = previousVertexes[vertex]) {
+			length++;
+		}
+
+		final int[] path = new int[length];
+
+		for (int vertex = targetVertex; vertex != -1; vertex = previousVertexes[vertex]) {
+			path[--length] = vertex;
+		}
+
+		return path;
+	}
+
+	/**
+	 * Same weighting as {@code GridEdge.getDistance()}, for the edge going from the first given vertex to the
+	 * second one. The end of the edge is its vertex closest to the target. Angles towards the target are computed
+	 * once per vertex and query; move angles come from a lookup table.
+	 */
+	private static int getDirectionPenalty(final GridAdjacency graph,
+										   final int vertex1,
+										   final int vertex2,
+										   final int targetxCoordinate,
+										   final int targetyCoordinate,
+										   final float[] targetAngles) {
+		final int x1 = graph.getxCoordinate(vertex1);
+		final int y1 = graph.getyCoordinate(vertex1);
+		final int x2 = graph.getxCoordinate(vertex2);
+		final int y2 = graph.getyCoordinate(vertex2);
+
+		final boolean vertex1IsEnd = squaredDistance(x1, y1, targetxCoordinate, targetyCoordinate) <
+									 squaredDistance(x2, y2, targetxCoordinate, targetyCoordinate);
+		final int endVertex = vertex1IsEnd ? vertex1 : vertex2;
+		final int edgexDelta = vertex1IsEnd ? x1 - x2 : x2 - x1;
+		final int edgeyDelta = vertex1IsEnd ? y1 - y2 : y2 - y1;
+
+		final float edgeAngle = MOVE_ANGLES[Integer.signum(edgexDelta) + 1][Integer.signum(edgeyDelta) + 1];
+
+		float targetAngle = targetAngles[endVertex];
+
+		if (Float.isNaN(targetAngle)) {
+			targetAngle = getAngle(targetxCoordinate - graph.getxCoordinate(endVertex), targetyCoordinate - graph.getyCoordinate(endVertex));
+			targetAngles[endVertex] = targetAngle;
+		}
+
+		return (int) (Math.abs(targetAngle - edgeAngle) / FULL_ANGLE);
+	}
+
+	private static long squaredDistance(final int x1,
+										final int y1,
+										final int x2,
+										final int y2) {
+		final long xDelta = x2 - x1;
+		final long yDelta = y2 - y1;
+
+		return xDelta * xDelta + yDelta * yDelta;
+	}
+
+	private static float getAngle(final int xDelta,
+								  final int yDelta) {
+		float angle = (float) Math.atan2(yDelta, xDelta);
+
+		if (yDelta > 0) {
+			angle = FULL_ANGLE - Math.abs(angle);
+		}
+
+		return angle;
+	}
+
+	private GridDijkstraAlgorithm() {
+	}
+}
@@ -0,0 +1,20 @@
+package fr.tp.inf112.projects.robotsim.model.path;
+
+/**
+ * Costs added to the distances of the moves of a {@link GridAdjacency} during a search, such as the congestion of
+ * the cells, and moves that are not allowed at the time of the search, such as moves against one-way lanes.
+ */
+@FunctionalInterface
+public interface GridMoveCosts {
+
+	/**
+	 * Returned for the moves that are not allowed.
+	 */
+	int FORBIDDEN = -1;
+
+	/**
+	 * @return The non negative cost added to the move between the given vertexes, or {@link #FORBIDDEN}.
+	 */
+	int getExtraCost(int vertex,
+					 int succVertex);
+}
@@ -0,0 +1,101 @@
+package fr.tp.inf112.projects.robotsim.model.path;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import fr.tp.inf112.projects.robotsim.model.Component;
+import fr.tp.inf112.projects.robotsim.model.Factory;
+import fr.tp.inf112.projects.robotsim.model.Position;
+import fr.tp.inf112.projects.robotsim.model.shapes.PositionedShape;
+import fr.tp.inf112.projects.robotsim.model.shapes.RectangularShape;
+
+/**
+ * A path finder for very large factories, whose graph is never materialized: no object is created per cell or per
+ * move, and the moves are computed on demand from the occupancy grid while searching. Navigation only keeps one
+ * bit per cell between searches.
+ */
+public class ImplicitGridFactoryPathFinder extends AbstractFactoryPathFinder<ImplicitGridGraph, Integer> implements Serializable {
+
+	/**
+	 *
+	 */
+	private static final long serialVersionUID = -1427309513627815863L;
+
+	public ImplicitGridFactoryPathFinder(final Factory factoryModel,
+										 final int resolution) {
+		super(factoryModel, resolution);
+	}
+
+	public ImplicitGridFactoryPathFinder() {
+		super(null, 0);
+	}
+
+	@Override
+	public List<Position> findPath(final Component sourceComponent,
+								   final Component targetComponent) {
+		buildGraph();
+
+		final Integer startVertex = getVertex(sourceComponent.getPosition());
+		assert startVertex != null : "Start vertex should never be null!";
+
+		final Integer targetVertex = getVertex(targetComponent.getPosition());
+		assert targetVertex != null : "Target vertex should never be null!";
+
+		final ImplicitGridGraph graph = getGraph();
+		final int[] shortestPath = GridDijkstraAlgorithm.findShortestPath(graph, startVertex, targetVertex, getTrafficCosts(graph));
+		final List<Position> shortestPathPositions = new ArrayList<>();
+
+		for (final int vertex : shortestPath) {
+			if (vertex != startVertex) {
+				shortestPathPositions.add(new Position(graph.getxCoordinate(vertex), graph.getyCoordinate(vertex)));
+			}
+		}
+
+		return smoothPath(new Position(graph.getxCoordinate(startVertex), graph.getyCoordinate(startVertex)), shortestPathPositions);
+	}
+
+	@Override
+	protected ImplicitGridGraph newGraph() {
+		return new ImplicitGridGraph(getOccupancyGrid(), isDiagonalMovesEnabled(), getMoveCost(false), getMoveCost(true));
+	}
+
+	@Override
+	protected Integer getVertex(final int xIndex,
+								final int yIndex) {
+		return getGraph().getVertex(xIndex, yIndex);
+	}
+
+	@Override
+	protected Integer getVertex(final Position position) {
+		return getMostOverlayedCellVertex(position);
+	}
+
+	@Override
+	protected float overlayedSurface(final Integer vertex,
+									 final PositionedShape shape) {
+		final PositionedShape vertexShape = new RectangularShape(getxCoordinate(vertex),
+																 getyCoordinate(vertex),
+																 getResolution(),
+																 getResolution());
+
+		return vertexShape.getOverlayedSurface(shape);
+	}
+
+	@Override
+	protected Iterator<Integer> getGraphVertexesIterator() {
+		return IntStream.range(0, getGraph().getVertexCount()).iterator();
+	}
+
+	@Override
+	protected int getxCoordinate(final Integer vertex) {
+		return getGraph().getxCoordinate(vertex);
+	}
+
+	@Override
+	protected int getyCoordinate(final Integer vertex) {
+		return getGraph().getyCoordinate(vertex);
+	}
+}
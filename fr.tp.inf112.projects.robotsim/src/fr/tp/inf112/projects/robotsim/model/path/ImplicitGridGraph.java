@@ -0,0 +1,91 @@
+package fr.tp.inf112.projects.robotsim.model.path;
+
+/**
+ * A grid navigation graph that is not materialized: the moves from a cell are computed on demand from the
+ * occupancy grid, with the same rules as {@link AbstractGridGraphFactoryPathFinder#getSuccessors}. A robot may move to an
+ * adjacent free cell and, if diagonal moves are enabled, to a diagonal free cell when both cells around the corner
+ * are free too. The memory used is the one of the occupancy grid, one bit per cell.
+ */
+public class ImplicitGridGraph implements GridAdjacency {
+
+	private static final int[][] ORTHOGONAL_MOVES = { { 0, -1 }, { 1, 0 }, { 0, 1 }, { -1, 0 } };
+
+	private static final int[][] DIAGONAL_MOVES = { { 1, -1 }, { 1, 1 }, { -1, 1 }, { -1, -1 } };
+
+	private final OccupancyGrid occupancyGrid;
+
+	private final boolean diagonalMovesEnabled;
+
+	private final int orthogonalMoveCost;
+
+	private final int diagonalMoveCost;
+
+	public ImplicitGridGraph(final OccupancyGrid occupancyGrid,
+							 final boolean diagonalMovesEnabled,
+							 final int orthogonalMoveCost,
+							 final int diagonalMoveCost) {
+		this.occupancyGrid = occupancyGrid;
+		this.diagonalMovesEnabled = diagonalMovesEnabled;
+		this.orthogonalMoveCost = orthogonalMoveCost;
+		this.diagonalMoveCost = diagonalMoveCost;
+	}
+
+	public OccupancyGrid getOccupancyGrid() {
+		return occupancyGrid;
+	}
+
+	@Override
+	public int getVertexCount() {
+		return occupancyGrid.getCellCount();
+	}
+
+	public int getVertex(final int xIndex,
+						 final int yIndex) {
+		return xIndex * occupancyGrid.getySize() + yIndex;
+	}
+
+	@Override
+	public int getxCoordinate(final int vertex) {
+		return vertex / occupancyGrid.getySize() * occupancyGrid.getResolution();
+	}
+
+	@Override
+	public int getyCoordinate(final int vertex) {
+		return vertex % occupancyGrid.getySize() * occupancyGrid.getResolution();
+	}
+
+	@Override
+	public int getSuccessors(final int vertex,
+							 final int[] successors,
+							 final int[] distances) {
+		final int xIndex = vertex / occupancyGrid.getySize();
+		final int yIndex = vertex % occupancyGrid.getySize();
+		int successorsCount = 0;
+
+		for (final int[] move : ORTHOGONAL_MOVES) {
+			if (occupancyGrid.isFree(xIndex + move[0], yIndex + move[1])) {
+				successors[successorsCount] = getVertex(xIndex + move[0], yIndex + move[1]);
+				distances[successorsCount] = orthogonalMoveCost;
+				successorsCount++;
+			}
+		}
+
+		if (diagonalMovesEnabled) {
+			for (final int[] move : DIAGONAL_MOVES) {
+				if (occupancyGrid.isFree(xIndex + move[0], yIndex) && occupancyGrid.isFree(xIndex, yIndex + move[1]) &&
+					occupancyGrid.isFree(xIndex + move[0], yIndex + move[1])) {
+					successors[successorsCount] = getVertex(xIndex + move[0], yIndex + move[1]);
+					distances[successorsCount] = diagonalMoveCost;
+					successorsCount++;
+				}
+			}
+		}
+
+		return successorsCount;
+	}
+
+	@Override
+	public String toString() {
+		return "ImplicitGridGraph [occupancyGrid=" + occupancyGrid + ", diagonalMovesEnabled=" + diagonalMovesEnabled + "]";
+	}
+}
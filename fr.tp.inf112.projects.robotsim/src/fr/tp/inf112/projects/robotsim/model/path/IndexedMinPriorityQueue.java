@@ -0,0 +1,136 @@
+package fr.tp.inf112.projects.robotsim.model.path;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A binary min heap of integer elements in the range {@code [0, capacity)} keyed by integer priorities. The position
+ * of each element in the heap is indexed so that decreasing the priority of an element is done in logarithmic time.
+ */
+public class IndexedMinPriorityQueue {
+
+	private final int[] heap;
+
+	private final int[] heapPositions;
+
+	private final int[] priorities;
+
+	private int size;
+
+	public IndexedMinPriorityQueue(final int capacity) {
+		heap = new int[capacity];
+		heapPositions = new int[capacity];
+		priorities = new int[capacity];
+		size = 0;
+
+		Arrays.fill(heapPositions, -1);
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean contains(final int element) {
+		return heapPositions[element] >= 0;
+	}
+
+	/**
+	 * Inserts the given element, or lowers its priority if it is already queued with a higher one.
+	 * @return {@code true} if the queue changed.
+	 */
+	public boolean insertOrDecrease(final int element,
+									final int priority) {
+		if (contains(element)) {
+			if (priority >= priorities[element]) {
+				return false;
+			}
+
+			priorities[element] = priority;
+			siftUp(heapPositions[element]);
+
+			return true;
+		}
+
+		priorities[element] = priority;
+		heap[size] = element;
+		heapPositions[element] = size;
+		siftUp(size);
+		size++;
+
+		return true;
+	}
+
+	/**
+	 * Removes and returns the element with the lowest priority.
+	 */
+	public int poll() {
+		if (size == 0) {
+			throw new NoSuchElementException();
+		}
+
+		final int minElement = heap[0];
+		size--;
+
+		if (size > 0) {
+			move(heap[size], 0);
+			siftDown(0);
+		}
+
+		heapPositions[minElement] = -1;
+
+		return minElement;
+	}
+
+	private void siftUp(int position) {
+		final int element = heap[position];
+		final int priority = priorities[element];
+
+		while (position > 0) {
+			final int parentPosition = (position - 1) >>> 1;
+			final int parentElement = heap[parentPosition];
+
+			if (priorities[parentElement] <= priority) {
+				break;
+			}
+
+			move(parentElement, position);
+			position = parentPosition;
+		}
+
+		move(element, position);
+	}
+
+	private void siftDown(int position) {
+		final int element = heap[position];
+		final int priority = priorities[element];
+		final int half = size >>> 1;
+
+		while (position < half) {
+			int childPosition = 2 * position + 1;
+			final int rightPosition = childPosition + 1;
+
+			if (rightPosition < size && priorities[heap[rightPosition]] < priorities[heap[childPosition]]) {
+				childPosition = rightPosition;
+			}
+
+			if (priority <= priorities[heap[childPosition]]) {
+				break;
+			}
+
+			move(heap[childPosition], position);
+			position = childPosition;
+		}
+
+		move(element, position);
+	}
+
+	private void move(final int element,
+					  final int position) {
+		heap[position] = element;
+		heapPositions[element] = position;
+	}
+}
@@ -8,8 +8,8 @@ import java.util.List;
 import org.jgrapht.GraphPath;
 import org.jgrapht.alg.shortestpath.DijkstraShortestPath;
 import org.jgrapht.graph.AbstractBaseGraph;
-import org.jgrapht.graph.DefaultDirectedGraph;
-import org.jgrapht.graph.DefaultEdge;
+import org.jgrapht.graph.DefaultDirectedWeightedGraph;
+import org.jgrapht.graph.DefaultWeightedEdge;
 import org.jgrapht.traverse.DepthFirstIterator;
 
 import fr.tp.inf112.projects.robotsim.model.Component;
@@ -18,7 +18,7 @@ import fr.tp.inf112.projects.robotsim.model.Position;
 import fr.tp.inf112.projects.robotsim.model.shapes.PositionedShape;
 import fr.tp.inf112.projects.robotsim.model.shapes.RectangularShape;
 
-public class JGraphTDijkstraFactoryPathFinder extends AbstractFactoryPathFinder<DefaultDirectedGraph<PositionedShape, DefaultEdge>, PositionedShape> implements Serializable {
+public class JGraphTDijkstraFactoryPathFinder extends AbstractGridGraphFactoryPathFinder<DefaultDirectedWeightedGraph<PositionedShape, DefaultWeightedEdge>, PositionedShape> implements Serializable {
 	
 	/**
 	 * 
@@ -45,8 +45,8 @@ public class JGraphTDijkstraFactoryPathFinder extends AbstractFactoryPathFinder<
 		final PositionedShape targetVertex = getVertex(targetComponent.getPosition());
 		assert targetVertex != null : "Target vertex should never be null!";
 		
-		final AbstractBaseGraph<PositionedShape, DefaultEdge> graph = getGraph(); 
-		final GraphPath<PositionedShape, DefaultEdge> shortestPath = DijkstraShortestPath.findPathBetween(graph, sourceVertex, targetVertex);
+		final AbstractBaseGraph<PositionedShape, DefaultWeightedEdge> graph = getGraph(); 
+		final GraphPath<PositionedShape, DefaultWeightedEdge> shortestPath = DijkstraShortestPath.findPathBetween(graph, sourceVertex, targetVertex);
 		final List<Position> shortestPathPositions = new ArrayList<>();
 		
 		if (shortestPath != null) {
@@ -57,7 +57,7 @@ public class JGraphTDijkstraFactoryPathFinder extends AbstractFactoryPathFinder<
 			}
 		}
 		
-		return shortestPathPositions;
+		return smoothPath(sourceVertex.getPosition(), shortestPathPositions);
 	}
 
 	@Override
@@ -90,8 +90,8 @@ public class JGraphTDijkstraFactoryPathFinder extends AbstractFactoryPathFinder<
 	}
 
 	@Override
-	protected DefaultDirectedGraph<PositionedShape, DefaultEdge> newGraph() {
-		return new DefaultDirectedGraph<PositionedShape, DefaultEdge>(DefaultEdge.class);
+	protected DefaultDirectedWeightedGraph<PositionedShape, DefaultWeightedEdge> newGraph() {
+		return new DefaultDirectedWeightedGraph<PositionedShape, DefaultWeightedEdge>(DefaultWeightedEdge.class);
 	}
 
 	@Override
@@ -107,7 +107,15 @@ public class JGraphTDijkstraFactoryPathFinder extends AbstractFactoryPathFinder<
 	@Override
 	protected boolean addEdge(final PositionedShape vertex1,
 							  final PositionedShape vertex2) {
-		return getGraph().addEdge(vertex1, vertex2) != null;
+		final DefaultWeightedEdge edge = getGraph().addEdge(vertex1, vertex2);
+		
+		if (edge == null) {
+			return false;
+		}
+		
+		getGraph().setEdgeWeight(edge, getEdgeWeight(vertex1, vertex2));
+		
+		return true;
 	}
 
 	@Override
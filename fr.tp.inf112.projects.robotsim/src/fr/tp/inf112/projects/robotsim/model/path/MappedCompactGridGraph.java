@@ -0,0 +1,79 @@
+package fr.tp.inf112.projects.robotsim.model.path;
+
+import java.nio.IntBuffer;
+
+/**
+ * A compact grid graph whose adjacency arrays are read in place from a mapped navigation data file (see
+ * {@link NavigationDataFile}). It is serialized as a graph holding its own copy of the arrays.
+ */
+final class MappedCompactGridGraph extends CompactGridGraph {
+
+	private static final long serialVersionUID = 2209671783180474358L;
+
+	private final transient IntBuffer edgeOffsets;
+
+	private final transient IntBuffer edgeTargets;
+
+	private final transient IntBuffer edgeDistances;
+
+	MappedCompactGridGraph(final int xSize,
+						   final int ySize,
+						   final int resolution,
+						   final IntBuffer edgeOffsets,
+						   final IntBuffer edgeTargets,
+						   final IntBuffer edgeDistances) {
+		super(xSize, ySize, resolution, null, null, null);
+
+		this.edgeOffsets = edgeOffsets;
+		this.edgeTargets = edgeTargets;
+		this.edgeDistances = edgeDistances;
+	}
+
+	@Override
+	public int getEdgeCount() {
+		return edgeTargets.limit();
+	}
+
+	@Override
+	public int getFirstEdge(final int vertex) {
+		return edgeOffsets.get(vertex);
+	}
+
+	@Override
+	public int getLastEdge(final int vertex) {
+		return edgeOffsets.get(vertex + 1);
+	}
+
+	@Override
+	public int getEdgeTarget(final int edge) {
+		return edgeTargets.get(edge);
+	}
+
+	@Override
+	public int getEdgeDistance(final int edge) {
+		return edgeDistances.get(edge);
+	}
+
+	@Override
+	public int getSuccessors(final int vertex,
+							 final int[] successors,
+							 final int[] distances) {
+		final int firstEdge = edgeOffsets.get(vertex);
+		final int successorsCount = edgeOffsets.get(vertex + 1) - firstEdge;
+		edgeTargets.get(firstEdge, successors, 0, successorsCount);
+		edgeDistances.get(firstEdge, distances, 0, successorsCount);
+
+		return successorsCount;
+	}
+
+	private Object writeReplace() {
+		return new CompactGridGraph(getxSize(), getySize(), getResolution(), toArray(edgeOffsets), toArray(edgeTargets), toArray(edgeDistances));
+	}
+
+	private static int[] toArray(final IntBuffer buffer) {
+		final int[] array = new int[buffer.limit()];
+		buffer.get(0, array);
+
+		return array;
+	}
+}
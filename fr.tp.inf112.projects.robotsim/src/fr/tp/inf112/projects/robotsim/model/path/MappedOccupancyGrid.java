@@ -0,0 +1,58 @@
+package fr.tp.inf112.projects.robotsim.model.path;
+
+import java.nio.LongBuffer;
+import java.util.BitSet;
+
+/**
+ * An occupancy grid whose bits are read in place from a mapped navigation data file (see
+ * {@link NavigationDataFile}), in the word layout of {@link BitSet#toLongArray()}. It cannot be modified, and is
+ * serialized as a grid holding its own copy of the bits.
+ */
+final class MappedOccupancyGrid extends OccupancyGrid {
+
+	private static final long serialVersionUID = -6180573460719387462L;
+
+	private final transient LongBuffer blockedWords;
+
+	private transient BitSet blockedCells;
+
+	MappedOccupancyGrid(final int xSize,
+						final int ySize,
+						final int resolution,
+						final LongBuffer blockedWords) {
+		super(xSize, ySize, resolution, null);
+
+		this.blockedWords = blockedWords;
+	}
+
+	@Override
+	protected boolean isBlockedCell(final int cell) {
+		final int word = cell >>> 6;
+
+		return word < blockedWords.limit() && (blockedWords.get(word) & (1L << cell)) != 0;
+	}
+
+	@Override
+	public void setBlocked(final int xIndex,
+						   final int yIndex) {
+		throw new UnsupportedOperationException("A mapped occupancy grid cannot be modified.");
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * The bits are copied from the file the first time they are needed, to compare or hash the grid.
+	 */
+	@Override
+	protected synchronized BitSet getBlockedCells() {
+		if (blockedCells == null) {
+			blockedCells = BitSet.valueOf(blockedWords.duplicate());
+		}
+
+		return blockedCells;
+	}
+
+	private Object writeReplace() {
+		return new OccupancyGrid(getxSize(), getySize(), getResolution(), (BitSet) getBlockedCells().clone());
+	}
+}
@@ -0,0 +1,83 @@
+package fr.tp.inf112.projects.robotsim.model.path;
+
+import java.io.Serializable;
+
+/**
+ * Navigation data precomputed by a path finder and saved with the factory, so that path finders of a reloaded
+ * factory do not have to scan it for obstacles again. The data is only valid for the layout it was computed from:
+ * it is tagged with the layout hash of the factory ({@code Factory.computeLayoutHash()}) and with the version of
+ * its format, and is ignored when either does not match.
+ */
+public class NavigationData implements Serializable {
+
+	private static final long serialVersionUID = -3468712251306425770L;
+
+	/**
+	 * To be incremented whenever the content or the meaning of the saved data changes.
+	 */
+	public static final int FORMAT_VERSION = 1;
+
+	private final int formatVersion;
+
+	private final long layoutHash;
+
+	private final boolean diagonalMovesEnabled;
+
+	private final OccupancyGrid occupancyGrid;
+
+	private final CompactGridGraph compactGraph;
+
+	/**
+	 * @param compactGraph The adjacency of the navigation graph, or {@code null} if the path finder does not
+	 * compute it.
+	 */
+	public NavigationData(final long layoutHash,
+						  final boolean diagonalMovesEnabled,
+						  final OccupancyGrid occupancyGrid,
+						  final CompactGridGraph compactGraph) {
+		this.formatVersion = FORMAT_VERSION;
+		this.layoutHash = layoutHash;
+		this.diagonalMovesEnabled = diagonalMovesEnabled;
+		this.occupancyGrid = occupancyGrid;
+		this.compactGraph = compactGraph;
+	}
+
+	public int getFormatVersion() {
+		return formatVersion;
+	}
+
+	public long getLayoutHash() {
+		return layoutHash;
+	}
+
+	public int getResolution() {
+		return occupancyGrid.getResolution();
+	}
+
+	public boolean isDiagonalMovesEnabled() {
+		return diagonalMovesEnabled;
+	}
+
+	public OccupancyGrid getOccupancyGrid() {
+		return occupancyGrid;
+	}
+
+	/**
+	 * @return The saved adjacency if it was computed with the given connectivity, {@code null} otherwise.
+	 */
+	public CompactGridGraph getCompactGraph(final boolean diagonalMovesEnabled) {
+		return this.diagonalMovesEnabled == diagonalMovesEnabled ? compactGraph : null;
+	}
+
+	public boolean isValidFor(final long layoutHash,
+							  final int resolution) {
+		return formatVersion == FORMAT_VERSION && this.layoutHash == layoutHash && getResolution() == resolution;
+	}
+
+	@Override
+	public String toString() {
+		return "NavigationData [formatVersion=" + formatVersion + ", layoutHash=" + layoutHash +
+			   ", diagonalMovesEnabled=" + diagonalMovesEnabled + ", occupancyGrid=" + occupancyGrid +
+			   ", compactGraph=" + compactGraph + "]";
+	}
+}
@@ -0,0 +1,148 @@
+package fr.tp.inf112.projects.robotsim.model.path;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Stores navigation data in a binary file that is mapped in memory read-only when loaded: the occupancy grid and
+ * the adjacency arrays are read in place from the mapped pages, with no deserialization and no copy on the heap.
+ * Simulations of the same layout running in several processes thus share one copy of the data in the cache of
+ * the operating system. Mapped data is used as any navigation data, once put in the factory with
+ * {@code Factory.putNavigationData(NavigationData)}.
+ *
+ * The file starts with a header of {@link #HEADER_SIZE} bytes, followed by the words of the blocked cells, then by
+ * the edge offsets, targets and distances of the adjacency if it was computed, all in little-endian order.
+ */
+public final class NavigationDataFile {
+
+	private static final int MAGIC_NUMBER = 0x524E4156;
+
+	private static final int HEADER_SIZE = 64;
+
+	private NavigationDataFile() {
+	}
+
+	/**
+	 * Writes the given navigation data to the given file, replacing it atomically so that processes mapping the
+	 * file never see a partially written one.
+	 */
+	public static void write(final NavigationData navigationData,
+							 final Path path)
+	throws IOException {
+		final OccupancyGrid occupancyGrid = navigationData.getOccupancyGrid();
+		final CompactGridGraph compactGraph = navigationData.getCompactGraph(navigationData.isDiagonalMovesEnabled());
+		final long[] blockedWords = occupancyGrid.getBlockedCells().toLongArray();
+		final int edgeOffsetsCount = compactGraph == null ? 0 : compactGraph.getVertexCount() + 1;
+		final int edgesCount = compactGraph == null ? 0 : compactGraph.getEdgeCount();
+		final ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + Long.BYTES * blockedWords.length +
+													  Integer.BYTES * (edgeOffsetsCount + 2 * edgesCount));
+		buffer.order(ByteOrder.LITTLE_ENDIAN);
+		buffer.putInt(MAGIC_NUMBER);
+		buffer.putInt(navigationData.getFormatVersion());
+		buffer.putLong(navigationData.getLayoutHash());
+		buffer.putInt(navigationData.isDiagonalMovesEnabled() ? 1 : 0);
+		buffer.putInt(occupancyGrid.getxSize());
+		buffer.putInt(occupancyGrid.getySize());
+		buffer.putInt(occupancyGrid.getResolution());
+		buffer.putInt(blockedWords.length);
+		buffer.putInt(edgeOffsetsCount);
+		buffer.putInt(edgesCount);
+		buffer.position(HEADER_SIZE);
+
+		for (final long blockedWord : blockedWords) {
+			buffer.putLong(blockedWord);
+		}
+
+		if (compactGraph != null) {
+			for (int vertex = 0; vertex < compactGraph.getVertexCount(); vertex++) {
+				buffer.putInt(compactGraph.getFirstEdge(vertex));
+			}
+
+			buffer.putInt(edgesCount);
+
+			for (int edge = 0; edge < edgesCount; edge++) {
+				buffer.putInt(compactGraph.getEdgeTarget(edge));
+			}
+
+			for (int edge = 0; edge < edgesCount; edge++) {
+				buffer.putInt(compactGraph.getEdgeDistance(edge));
+			}
+		}
+
+		final Path temporaryPath = path.resolveSibling(path.getFileName() + ".tmp");
+		Files.write(temporaryPath, buffer.array());
+		Files.move(temporaryPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * Maps the given file read-only. The pages are loaded by the operating system when first read.
+	 * @throws IOException If the file is not a navigation data file of the current format.
+	 */
+	public static NavigationData map(final Path path)
+	throws IOException {
+		final MappedByteBuffer buffer;
+
+		try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+
+		buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+		if (buffer.limit() < HEADER_SIZE || buffer.getInt() != MAGIC_NUMBER) {
+			throw new IOException(path + " is not a navigation data file.");
+		}
+
+		final int formatVersion = buffer.getInt();
+
+		if (formatVersion != NavigationData.FORMAT_VERSION) {
+			throw new IOException(path + " has the navigation data format " + formatVersion + " instead of " +
+								  NavigationData.FORMAT_VERSION + ".");
+		}
+
+		final long layoutHash = buffer.getLong();
+		final boolean diagonalMovesEnabled = buffer.getInt() != 0;
+		final int xSize = buffer.getInt();
+		final int ySize = buffer.getInt();
+		final int resolution = buffer.getInt();
+		final int blockedWordsCount = buffer.getInt();
+		final int edgeOffsetsCount = buffer.getInt();
+		final int edgesCount = buffer.getInt();
+		final int blockedWordsEnd = HEADER_SIZE + Long.BYTES * blockedWordsCount;
+		final int edgeOffsetsEnd = blockedWordsEnd + Integer.BYTES * edgeOffsetsCount;
+		final int edgeTargetsEnd = edgeOffsetsEnd + Integer.BYTES * edgesCount;
+
+		if (buffer.limit() != edgeTargetsEnd + Integer.BYTES * edgesCount) {
+			throw new IOException(path + " is truncated.");
+		}
+
+		final OccupancyGrid occupancyGrid = new MappedOccupancyGrid(xSize,
+																	ySize,
+																	resolution,
+																	slice(buffer, HEADER_SIZE, blockedWordsEnd).asLongBuffer());
+		CompactGridGraph compactGraph = null;
+
+		if (edgeOffsetsCount > 0) {
+			compactGraph = new MappedCompactGridGraph(xSize,
+													  ySize,
+													  resolution,
+													  slice(buffer, blockedWordsEnd, edgeOffsetsEnd).asIntBuffer(),
+													  slice(buffer, edgeOffsetsEnd, edgeTargetsEnd).asIntBuffer(),
+													  slice(buffer, edgeTargetsEnd, buffer.limit()).asIntBuffer());
+		}
+
+		return new NavigationData(layoutHash, diagonalMovesEnabled, occupancyGrid, compactGraph);
+	}
+
+	private static ByteBuffer slice(final ByteBuffer buffer,
+									final int start,
+									final int end) {
+		return buffer.slice(start, end - start).order(ByteOrder.LITTLE_ENDIAN);
+	}
+}
@@ -0,0 +1,115 @@
+package fr.tp.inf112.projects.robotsim.model.path;
+
+import java.io.Serializable;
+import java.util.BitSet;
+
+/**
+ * The cells of the factory grid that are blocked by an obstacle, one bit per cell. The cell at indexes
+ * {@code (xIndex, yIndex)} has the bit {@code xIndex * ySize + yIndex}, as the vertexes of the grid graphs.
+ * Two grids are equal when they have the same dimensions and the same blocked cells, so that a grid can be used
+ * as the key of data computed from the layout.
+ */
+public class OccupancyGrid implements Serializable {
+
+	private static final long serialVersionUID = 4021838925631297854L;
+
+	private final int xSize;
+
+	private final int ySize;
+
+	private final int resolution;
+
+	private final BitSet blockedCells;
+
+	public OccupancyGrid(final int xSize,
+						 final int ySize,
+						 final int resolution) {
+		this(xSize, ySize, resolution, new BitSet(xSize * ySize));
+	}
+
+	protected OccupancyGrid(final int xSize,
+							final int ySize,
+							final int resolution,
+							final BitSet blockedCells) {
+		this.xSize = xSize;
+		this.ySize = ySize;
+		this.resolution = resolution;
+		this.blockedCells = blockedCells;
+	}
+
+	public int getxSize() {
+		return xSize;
+	}
+
+	public int getySize() {
+		return ySize;
+	}
+
+	public int getResolution() {
+		return resolution;
+	}
+
+	public int getCellCount() {
+		return xSize * ySize;
+	}
+
+	public int getBlockedCellsCount() {
+		return getBlockedCells().cardinality();
+	}
+
+	/**
+	 * @return The bit of every cell, set if the cell is blocked.
+	 */
+	protected BitSet getBlockedCells() {
+		return blockedCells;
+	}
+
+	protected boolean isBlockedCell(final int cell) {
+		return blockedCells.get(cell);
+	}
+
+	public boolean isInside(final int xIndex,
+							final int yIndex) {
+		return xIndex >= 0 && yIndex >= 0 && xIndex < xSize && yIndex < ySize;
+	}
+
+	/**
+	 * @return {@code true} if the given cell is inside the grid and is not blocked.
+	 */
+	public boolean isFree(final int xIndex,
+						  final int yIndex) {
+		return isInside(xIndex, yIndex) && !isBlockedCell(xIndex * ySize + yIndex);
+	}
+
+	public void setBlocked(final int xIndex,
+						   final int yIndex) {
+		blockedCells.set(xIndex * ySize + yIndex);
+	}
+
+	@Override
+	public boolean equals(final Object objectToCompare) {
+		if (this == objectToCompare) {
+			return true;
+		}
+
+		if (!(objectToCompare instanceof OccupancyGrid)) {
+			return false;
+		}
+
+		final OccupancyGrid grid = (OccupancyGrid) objectToCompare;
+
+		return xSize == grid.xSize && ySize == grid.ySize && resolution == grid.resolution &&
+			   getBlockedCells().equals(grid.getBlockedCells());
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * (31 * (31 * xSize + ySize) + resolution) + getBlockedCells().hashCode();
+	}
+
+	@Override
+	public String toString() {
+		return "OccupancyGrid [xSize=" + xSize + ", ySize=" + ySize + ", resolution=" + resolution +
+			   ", blockedCells=" + getBlockedCellsCount() + "]";
+	}
+}
@@ -0,0 +1,54 @@
+package fr.tp.inf112.projects.robotsim.model.path;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * The bounded thread pool on which all path searches requested asynchronously are run. When the queue is full,
+ * the search runs in the requesting thread, which throttles the producers instead of growing without bounds.
+ */
+public final class PathPlanningExecutor {
+
+	private static final int POOL_SIZE = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+
+	private static final int QUEUE_CAPACITY = 1024;
+
+	private static final ThreadPoolExecutor EXECUTOR = createExecutor();
+
+	private static ThreadPoolExecutor createExecutor() {
+		final AtomicInteger threadCount = new AtomicInteger();
+		final ThreadFactory threadFactory = runnable -> {
+			final Thread thread = new Thread(runnable, "path-planner-" + threadCount.incrementAndGet());
+			thread.setDaemon(true);
+
+			return thread;
+		};
+
+		final ThreadPoolExecutor executor = new ThreadPoolExecutor(POOL_SIZE,
+																   POOL_SIZE,
+																   30,
+																   TimeUnit.SECONDS,
+																   new ArrayBlockingQueue<>(QUEUE_CAPACITY),
+																   threadFactory,
+																   new ThreadPoolExecutor.CallerRunsPolicy());
+		executor.allowCoreThreadTimeOut(true);
+
+		return executor;
+	}
+
+	public static <T> CompletableFuture<T> supplyAsync(final Supplier<T> supplier) {
+		return CompletableFuture.supplyAsync(supplier, EXECUTOR);
+	}
+
+	public static int getQueuedRequestsCount() {
+		return EXECUTOR.getQueue().size();
+	}
+
+	private PathPlanningExecutor() {
+	}
+}
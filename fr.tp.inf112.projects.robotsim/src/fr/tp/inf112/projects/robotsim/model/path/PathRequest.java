@@ -0,0 +1,80 @@
+package fr.tp.inf112.projects.robotsim.model.path;
+
+import java.util.Objects;
+
+import fr.tp.inf112.projects.robotsim.model.Component;
+import fr.tp.inf112.projects.robotsim.model.Position;
+
+/**
+ * A path query between two components. The source position is captured when the request is created so that
+ * two requests starting from the same place towards the same target are considered identical.
+ */
+public class PathRequest {
+
+	private final Component sourceComponent;
+
+	private final Component targetComponent;
+
+	private final int sourcexCoordinate;
+
+	private final int sourceyCoordinate;
+
+	public PathRequest(final Component sourceComponent,
+					   final Component targetComponent) {
+		this.sourceComponent = sourceComponent;
+		this.targetComponent = targetComponent;
+
+		final Position sourcePosition = sourceComponent.getPosition();
+		this.sourcexCoordinate = sourcePosition == null ? -1 : sourcePosition.getxCoordinate();
+		this.sourceyCoordinate = sourcePosition == null ? -1 : sourcePosition.getyCoordinate();
+	}
+
+	public Component getSourceComponent() {
+		return sourceComponent;
+	}
+
+	public Component getTargetComponent() {
+		return targetComponent;
+	}
+
+	/**
+	 * @return Whether the source component is no longer at the position captured when the request was created,
+	 * in which case a path computed for the request does not start from the source component.
+	 */
+	public boolean hasSourceMoved() {
+		final Position sourcePosition = sourceComponent.getPosition();
+
+		if (sourcePosition == null) {
+			return sourcexCoordinate != -1 || sourceyCoordinate != -1;
+		}
+
+		return sourcePosition.getxCoordinate() != sourcexCoordinate || sourcePosition.getyCoordinate() != sourceyCoordinate;
+	}
+
+	@Override
+	public boolean equals(final Object objectToCompare) {
+		if (this == objectToCompare) {
+			return true;
+		}
+
+		if (!(objectToCompare instanceof PathRequest)) {
+			return false;
+		}
+
+		final PathRequest request = (PathRequest) objectToCompare;
+
+		return sourcexCoordinate == request.sourcexCoordinate && sourceyCoordinate == request.sourceyCoordinate &&
+			   targetComponent == request.targetComponent;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(sourcexCoordinate, sourceyCoordinate, System.identityHashCode(targetComponent));
+	}
+
+	@Override
+	public String toString() {
+		return "PathRequest [source=" + sourceComponent.getName() + " at (" + sourcexCoordinate + ", " + sourceyCoordinate +
+			   "), target=" + (targetComponent == null ? null : targetComponent.getName()) + "]";
+	}
+}
@@ -0,0 +1,114 @@
+package fr.tp.inf112.projects.robotsim.model.path;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.logging.Logger;
+import java.util.stream.IntStream;
+
+import fr.tp.inf112.projects.robotsim.model.Component;
+import fr.tp.inf112.projects.robotsim.model.Factory;
+import fr.tp.inf112.projects.robotsim.model.Position;
+import fr.tp.inf112.projects.robotsim.model.shapes.PositionedShape;
+import fr.tp.inf112.projects.robotsim.model.shapes.RectangularShape;
+
+/**
+ * A path finder searching a quadtree navigation mesh instead of the cells of the grid: large empty regions of the
+ * factory are single nodes, while the regions around obstacles and doors are subdivided down to the cells of the
+ * resolution, which keeps narrow passages. The sequence of regions found is refined into a path of adjacent cells,
+ * so that robots still move one cell per step.
+ *
+ * Vertexes are the cell indexes {@code xIndex * ySize + yIndex}. Moves between regions are orthogonal only; the
+ * refined path is smoothed as the paths of the other finders.
+ */
+public class QuadtreeFactoryPathFinder extends AbstractFactoryPathFinder<QuadtreeNavigationMesh, Integer> implements Serializable {
+
+	/**
+	 *
+	 */
+	private static final long serialVersionUID = -6409287127436512847L;
+
+	private static final Logger LOGGER = Logger.getLogger(QuadtreeFactoryPathFinder.class.getName());
+
+	public QuadtreeFactoryPathFinder(final Factory factoryModel,
+									 final int resolution) {
+		super(factoryModel, resolution);
+	}
+
+	public QuadtreeFactoryPathFinder() {
+		super(null, 0);
+	}
+
+	@Override
+	public List<Position> findPath(final Component sourceComponent,
+								   final Component targetComponent) {
+		buildGraph();
+
+		final Integer startVertex = getVertex(sourceComponent.getPosition());
+		assert startVertex != null : "Start vertex should never be null!";
+
+		final Integer targetVertex = getVertex(targetComponent.getPosition());
+		assert targetVertex != null : "Target vertex should never be null!";
+
+		final int ySize = getOccupancyGrid().getySize();
+		final int[][] shortestPath = getGraph().findCellPath(startVertex / ySize,
+															 startVertex % ySize,
+															 targetVertex / ySize,
+															 targetVertex % ySize);
+		final List<Position> shortestPathPositions = new ArrayList<>();
+
+		for (int index = 1; index < shortestPath.length; index++) {
+			shortestPathPositions.add(new Position(shortestPath[index][0] * getResolution(),
+												   shortestPath[index][1] * getResolution()));
+		}
+
+		return smoothPath(new Position(getxCoordinate(startVertex), getyCoordinate(startVertex)), shortestPathPositions);
+	}
+
+	@Override
+	protected QuadtreeNavigationMesh newGraph() {
+		final QuadtreeNavigationMesh mesh = new QuadtreeNavigationMesh(getOccupancyGrid());
+
+		LOGGER.fine(mesh + " built for " + getOccupancyGrid() + ".");
+
+		return mesh;
+	}
+
+	@Override
+	protected Integer getVertex(final int xIndex,
+								final int yIndex) {
+		return xIndex * getOccupancyGrid().getySize() + yIndex;
+	}
+
+	@Override
+	protected Integer getVertex(final Position position) {
+		return getMostOverlayedCellVertex(position);
+	}
+
+	@Override
+	protected float overlayedSurface(final Integer vertex,
+									 final PositionedShape shape) {
+		final PositionedShape vertexShape = new RectangularShape(getxCoordinate(vertex),
+																 getyCoordinate(vertex),
+																 getResolution(),
+																 getResolution());
+
+		return vertexShape.getOverlayedSurface(shape);
+	}
+
+	@Override
+	protected Iterator<Integer> getGraphVertexesIterator() {
+		return IntStream.range(0, getOccupancyGrid().getCellCount()).iterator();
+	}
+
+	@Override
+	protected int getxCoordinate(final Integer vertex) {
+		return vertex / getOccupancyGrid().getySize() * getResolution();
+	}
+
+	@Override
+	protected int getyCoordinate(final Integer vertex) {
+		return vertex % getOccupancyGrid().getySize() * getResolution();
+	}
+}
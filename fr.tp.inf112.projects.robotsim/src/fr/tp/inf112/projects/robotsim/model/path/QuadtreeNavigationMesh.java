@@ -0,0 +1,429 @@
+package fr.tp.inf112.projects.robotsim.model.path;
+
+import java.util.Arrays;
+
+/**
+ * A navigation mesh made of the free leaves of a quadtree decomposition of the occupancy grid: square regions of
+ * free cells are merged into single nodes, and only the regions containing obstacles are subdivided, down to single
+ * cells. Two leaves are adjacent when they share a side, and the cost of a move between them is the distance
+ * between their centers.
+ *
+ * Leaves are stored in Z-order, so that the cells of a leaf have contiguous Morton codes and the leaf containing a
+ * cell is found by a binary search.
+ */
+public class QuadtreeNavigationMesh {
+
+	private static final int COST_SCALE = 10;
+
+	private final int xSize;
+
+	private final int ySize;
+
+	private int leavesCount;
+
+	private int[] leafxIndexes;
+
+	private int[] leafyIndexes;
+
+	private int[] leafSizes;
+
+	private long[] leafMortonCodes;
+
+	private int[] edgeOffsets;
+
+	private int[] edgeTargets;
+
+	private int[] edgeCosts;
+
+	public QuadtreeNavigationMesh(final OccupancyGrid occupancyGrid) {
+		xSize = occupancyGrid.getxSize();
+		ySize = occupancyGrid.getySize();
+		leavesCount = 0;
+		leafxIndexes = new int[16];
+		leafyIndexes = new int[16];
+		leafSizes = new int[16];
+		leafMortonCodes = new long[16];
+
+		int rootSize = 1;
+
+		while (rootSize < Math.max(xSize, ySize)) {
+			rootSize *= 2;
+		}
+
+		subdivide(computeBlockedCellsSums(occupancyGrid), 0, 0, rootSize);
+		computeAdjacency();
+	}
+
+	public int getLeavesCount() {
+		return leavesCount;
+	}
+
+	public int getEdgeCount() {
+		return edgeOffsets[leavesCount];
+	}
+
+	public int getLeafxIndex(final int leaf) {
+		return leafxIndexes[leaf];
+	}
+
+	public int getLeafyIndex(final int leaf) {
+		return leafyIndexes[leaf];
+	}
+
+	public int getLeafSize(final int leaf) {
+		return leafSizes[leaf];
+	}
+
+	/**
+	 * @return The leaf containing the given cell, or {@code -1} if the cell is blocked or outside of the grid.
+	 */
+	public int getLeaf(final int xIndex,
+					   final int yIndex) {
+		if (xIndex < 0 || yIndex < 0 || xIndex >= xSize || yIndex >= ySize) {
+			return -1;
+		}
+
+		final long mortonCode = getMortonCode(xIndex, yIndex);
+		int leaf = Arrays.binarySearch(leafMortonCodes, 0, leavesCount, mortonCode);
+
+		if (leaf < 0) {
+			leaf = -leaf - 2;
+		}
+
+		if (leaf < 0) {
+			return -1;
+		}
+
+		final long leafSize = leafSizes[leaf];
+
+		return mortonCode < leafMortonCodes[leaf] + leafSize * leafSize ? leaf : -1;
+	}
+
+	/**
+	 * Searches the shortest sequence of leaves between the leaves of the given cells, and refines it into a path of
+	 * adjacent cells: inside a leaf, which is a free square, the path goes straight towards the cell from which it
+	 * crosses into the next leaf, chosen on their shared side as close as possible to the current cell.
+	 * @return The cell indexes {@code {xIndex, yIndex}} of the path, starting with the start cell, or an empty array
+	 * if the target cannot be reached.
+	 */
+	public int[][] findCellPath(final int startxIndex,
+								final int startyIndex,
+								final int targetxIndex,
+								final int targetyIndex) {
+		final int startLeaf = getLeaf(startxIndex, startyIndex);
+		final int targetLeaf = getLeaf(targetxIndex, targetyIndex);
+
+		if (startLeaf < 0 || targetLeaf < 0) {
+			return new int[0][];
+		}
+
+		final int[] leafPath = findLeafPath(startLeaf, targetLeaf);
+
+		if (leafPath.length == 0) {
+			return new int[0][];
+		}
+
+		final CellPath cellPath = new CellPath(startxIndex, startyIndex);
+
+		for (int index = 0; index < leafPath.length - 1; index++) {
+			final int leaf = leafPath[index];
+			final int nextLeaf = leafPath[index + 1];
+			final int[] crossing = getCrossing(leaf, nextLeaf, cellPath.getxIndex(), cellPath.getyIndex());
+			cellPath.walkTo(crossing[0], crossing[1]);
+			cellPath.add(crossing[2], crossing[3]);
+		}
+
+		cellPath.walkTo(targetxIndex, targetyIndex);
+
+		return cellPath.toArray();
+	}
+
+	private int[] findLeafPath(final int startLeaf,
+							   final int targetLeaf) {
+		final int[] minCosts = new int[leavesCount];
+		final int[] previousLeaves = new int[leavesCount];
+		Arrays.fill(minCosts, Integer.MAX_VALUE);
+
+		final IndexedMinPriorityQueue queue = new IndexedMinPriorityQueue(leavesCount);
+		minCosts[startLeaf] = 0;
+		previousLeaves[startLeaf] = -1;
+		queue.insertOrDecrease(startLeaf, 0);
+
+		while (!queue.isEmpty()) {
+			final int pivotLeaf = queue.poll();
+
+			if (pivotLeaf == targetLeaf) {
+				int length = 0;
+
+				for (int leaf = targetLeaf; leaf != -1; leaf = previousLeaves[leaf]) {
+					length++;
+				}
+
+				final int[] path = new int[length];
+
+				for (int leaf = targetLeaf; leaf != -1; leaf = previousLeaves[leaf]) {
+					path[--length] = leaf;
+				}
+
+				return path;
+			}
+
+			for (int edge = edgeOffsets[pivotLeaf]; edge < edgeOffsets[pivotLeaf + 1]; edge++) {
+				final int succLeaf = edgeTargets[edge];
+				final int currentCost = minCosts[pivotLeaf] + edgeCosts[edge];
+
+				if (currentCost < minCosts[succLeaf]) {
+					minCosts[succLeaf] = currentCost;
+					previousLeaves[succLeaf] = pivotLeaf;
+					queue.insertOrDecrease(succLeaf, currentCost);
+				}
+			}
+		}
+
+		return new int[0];
+	}
+
+	/**
+	 * @return The cell of the given leaf and the adjacent cell of the next leaf through which the path crosses
+	 * their shared side, as {@code {xIndex, yIndex, nextxIndex, nextyIndex}}.
+	 */
+	private int[] getCrossing(final int leaf,
+							  final int nextLeaf,
+							  final int xIndex,
+							  final int yIndex) {
+		final int minx = leafxIndexes[leaf];
+		final int maxx = minx + leafSizes[leaf] - 1;
+		final int miny = leafyIndexes[leaf];
+		final int maxy = miny + leafSizes[leaf] - 1;
+		final int nextMinx = leafxIndexes[nextLeaf];
+		final int nextMaxx = nextMinx + leafSizes[nextLeaf] - 1;
+		final int nextMiny = leafyIndexes[nextLeaf];
+		final int nextMaxy = nextMiny + leafSizes[nextLeaf] - 1;
+
+		if (nextMinx == maxx + 1 || nextMaxx == minx - 1) {
+			final int crossingyIndex = clamp(yIndex, Math.max(miny, nextMiny), Math.min(maxy, nextMaxy));
+			final int crossingxIndex = nextMinx == maxx + 1 ? maxx : minx;
+
+			return new int[] { crossingxIndex, crossingyIndex, nextMinx == maxx + 1 ? nextMinx : nextMaxx, crossingyIndex };
+		}
+
+		final int crossingxIndex = clamp(xIndex, Math.max(minx, nextMinx), Math.min(maxx, nextMaxx));
+		final int crossingyIndex = nextMiny == maxy + 1 ? maxy : miny;
+
+		return new int[] { crossingxIndex, crossingyIndex, crossingxIndex, nextMiny == maxy + 1 ? nextMiny : nextMaxy };
+	}
+
+	private static int clamp(final int value,
+							 final int min,
+							 final int max) {
+		return Math.max(min, Math.min(max, value));
+	}
+
+	private int[] computeBlockedCellsSums(final OccupancyGrid occupancyGrid) {
+		final int[] sums = new int[(xSize + 1) * (ySize + 1)];
+
+		for (int xIndex = 0; xIndex < xSize; xIndex++) {
+			for (int yIndex = 0; yIndex < ySize; yIndex++) {
+				final int blocked = occupancyGrid.isFree(xIndex, yIndex) ? 0 : 1;
+				sums[(xIndex + 1) * (ySize + 1) + yIndex + 1] = blocked + sums[xIndex * (ySize + 1) + yIndex + 1] +
+																sums[(xIndex + 1) * (ySize + 1) + yIndex] -
+																sums[xIndex * (ySize + 1) + yIndex];
+			}
+		}
+
+		return sums;
+	}
+
+	private void subdivide(final int[] blockedCellsSums,
+						   final int xIndex,
+						   final int yIndex,
+						   final int size) {
+		if (xIndex >= xSize || yIndex >= ySize) {
+			return;
+		}
+
+		final boolean inside = xIndex + size <= xSize && yIndex + size <= ySize;
+		final int maxxIndex = Math.min(xIndex + size, xSize);
+		final int maxyIndex = Math.min(yIndex + size, ySize);
+		final int blockedCellsCount = blockedCellsSums[maxxIndex * (ySize + 1) + maxyIndex] -
+									  blockedCellsSums[xIndex * (ySize + 1) + maxyIndex] -
+									  blockedCellsSums[maxxIndex * (ySize + 1) + yIndex] +
+									  blockedCellsSums[xIndex * (ySize + 1) + yIndex];
+
+		if (inside && blockedCellsCount == 0) {
+			addLeaf(xIndex, yIndex, size);
+		}
+		else if (size > 1 && blockedCellsCount < (maxxIndex - xIndex) * (maxyIndex - yIndex)) {
+			final int halfSize = size / 2;
+			subdivide(blockedCellsSums, xIndex, yIndex, halfSize);
+			subdivide(blockedCellsSums, xIndex + halfSize, yIndex, halfSize);
+			subdivide(blockedCellsSums, xIndex, yIndex + halfSize, halfSize);
+			subdivide(blockedCellsSums, xIndex + halfSize, yIndex + halfSize, halfSize);
+		}
+	}
+
+	private void addLeaf(final int xIndex,
+						 final int yIndex,
+						 final int size) {
+		if (leavesCount == leafSizes.length) {
+			final int capacity = leavesCount * 2;
+			leafxIndexes = Arrays.copyOf(leafxIndexes, capacity);
+			leafyIndexes = Arrays.copyOf(leafyIndexes, capacity);
+			leafSizes = Arrays.copyOf(leafSizes, capacity);
+			leafMortonCodes = Arrays.copyOf(leafMortonCodes, capacity);
+		}
+
+		leafxIndexes[leavesCount] = xIndex;
+		leafyIndexes[leavesCount] = yIndex;
+		leafSizes[leavesCount] = size;
+		leafMortonCodes[leavesCount] = getMortonCode(xIndex, yIndex);
+		leavesCount++;
+	}
+
+	private void computeAdjacency() {
+		edgeOffsets = new int[leavesCount + 1];
+		int[] targets = new int[leavesCount * 4];
+		int edgeCount = 0;
+
+		for (int leaf = 0; leaf < leavesCount; leaf++) {
+			edgeOffsets[leaf] = edgeCount;
+			final int minx = leafxIndexes[leaf];
+			final int miny = leafyIndexes[leaf];
+			final int size = leafSizes[leaf];
+
+			if (targets.length < edgeCount + 4 * size) {
+				targets = Arrays.copyOf(targets, Math.max(targets.length * 2, edgeCount + 4 * size));
+			}
+
+			edgeCount = addSideNeighbours(targets, edgeCount, minx - 1, miny, 0, 1, size);
+			edgeCount = addSideNeighbours(targets, edgeCount, minx + size, miny, 0, 1, size);
+			edgeCount = addSideNeighbours(targets, edgeCount, minx, miny - 1, 1, 0, size);
+			edgeCount = addSideNeighbours(targets, edgeCount, minx, miny + size, 1, 0, size);
+		}
+
+		edgeOffsets[leavesCount] = edgeCount;
+		edgeTargets = Arrays.copyOf(targets, edgeCount);
+		edgeCosts = new int[edgeCount];
+
+		for (int leaf = 0; leaf < leavesCount; leaf++) {
+			for (int edge = edgeOffsets[leaf]; edge < edgeOffsets[leaf + 1]; edge++) {
+				edgeCosts[edge] = getCenterDistance(leaf, edgeTargets[edge]);
+			}
+		}
+	}
+
+	/**
+	 * Adds the leaves containing the cells of a line of the given length just outside of a side of a leaf. A leaf
+	 * spanning several of these cells is added once.
+	 */
+	private int addSideNeighbours(final int[] targets,
+								  int edgeCount,
+								  final int xStart,
+								  final int yStart,
+								  final int xStep,
+								  final int yStep,
+								  final int length) {
+		int previousLeaf = -1;
+
+		for (int step = 0; step < length; step++) {
+			final int neighbourLeaf = getLeaf(xStart + step * xStep, yStart + step * yStep);
+
+			if (neighbourLeaf >= 0 && neighbourLeaf != previousLeaf) {
+				targets[edgeCount++] = neighbourLeaf;
+			}
+
+			previousLeaf = neighbourLeaf;
+		}
+
+		return edgeCount;
+	}
+
+	private int getCenterDistance(final int leaf1,
+								  final int leaf2) {
+		final double xDelta = leafxIndexes[leaf2] + leafSizes[leaf2] / 2.0 - leafxIndexes[leaf1] - leafSizes[leaf1] / 2.0;
+		final double yDelta = leafyIndexes[leaf2] + leafSizes[leaf2] / 2.0 - leafyIndexes[leaf1] - leafSizes[leaf1] / 2.0;
+
+		return Math.max(1, (int) Math.round(Math.sqrt(xDelta * xDelta + yDelta * yDelta) * COST_SCALE));
+	}
+
+	private static long getMortonCode(final int xIndex,
+									  final int yIndex) {
+		return spreadBits(xIndex) | (spreadBits(yIndex) << 1);
+	}
+
+	private static long spreadBits(final int value) {
+		long bits = value & 0xFFFFFFFFL;
+		bits = (bits | (bits << 16)) & 0x0000FFFF0000FFFFL;
+		bits = (bits | (bits << 8)) & 0x00FF00FF00FF00FFL;
+		bits = (bits | (bits << 4)) & 0x0F0F0F0F0F0F0F0FL;
+		bits = (bits | (bits << 2)) & 0x3333333333333333L;
+		bits = (bits | (bits << 1)) & 0x5555555555555555L;
+
+		return bits;
+	}
+
+	@Override
+	public String toString() {
+		return "QuadtreeNavigationMesh [xSize=" + xSize + ", ySize=" + ySize + ", leaves=" + leavesCount +
+			   ", edges=" + getEdgeCount() + "]";
+	}
+
+	/**
+	 * A growing path of adjacent cells.
+	 */
+	private static class CellPath {
+
+		private int[][] cells;
+
+		private int length;
+
+		private CellPath(final int xIndex,
+						 final int yIndex) {
+			cells = new int[16][];
+			length = 0;
+			add(xIndex, yIndex);
+		}
+
+		private int getxIndex() {
+			return cells[length - 1][0];
+		}
+
+		private int getyIndex() {
+			return cells[length - 1][1];
+		}
+
+		private void add(final int xIndex,
+						 final int yIndex) {
+			if (length == cells.length) {
+				cells = Arrays.copyOf(cells, length * 2);
+			}
+
+			cells[length++] = new int[] { xIndex, yIndex };
+		}
+
+		/**
+		 * Walks one cell at a time towards the given cell, along the axis on which the remaining distance is the
+		 * largest, which keeps the steps close to the straight line.
+		 */
+		private void walkTo(final int targetxIndex,
+							final int targetyIndex) {
+			int xIndex = getxIndex();
+			int yIndex = getyIndex();
+
+			while (xIndex != targetxIndex || yIndex != targetyIndex) {
+				if (Math.abs(targetxIndex - xIndex) >= Math.abs(targetyIndex - yIndex)) {
+					xIndex += Integer.signum(targetxIndex - xIndex);
+				}
+				else {
+					yIndex += Integer.signum(targetyIndex - yIndex);
+				}
+
+				add(xIndex, yIndex);
+			}
+		}
+
+		private int[][] toArray() {
+			return Arrays.copyOf(cells, length);
+		}
+	}
+}
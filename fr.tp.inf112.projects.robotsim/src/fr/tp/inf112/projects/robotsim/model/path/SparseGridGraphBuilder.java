@@ -0,0 +1,114 @@
+package fr.tp.inf112.projects.robotsim.model.path;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+import org.jgrapht.Graph;
+import org.jgrapht.alg.util.Pair;
+import org.jgrapht.alg.util.Triple;
+import org.jgrapht.opt.graph.sparse.IncomingEdgesSupport;
+import org.jgrapht.opt.graph.sparse.SparseIntDirectedGraph;
+import org.jgrapht.opt.graph.sparse.SparseIntDirectedWeightedGraph;
+
+/**
+ * Collects the edges of a grid navigation graph into primitive arrays, and then builds an immutable sparse
+ * JGraphT graph from them. Vertexes are the cell indexes {@code xIndex * ySize + yIndex}, so that no object
+ * is allocated per cell. Only outgoing edges are indexed, which is all that shortest path searches need.
+ */
+public class SparseGridGraphBuilder {
+
+	private static final int INITIAL_EDGE_CAPACITY = 64;
+
+	private final int vertexCount;
+
+	private final boolean weighted;
+
+	private int[] edgeSources;
+
+	private int[] edgeTargets;
+
+	private double[] edgeWeights;
+
+	private int edgeCount;
+
+	/**
+	 * @param vertexCount The number of cells of the grid.
+	 * @param weighted {@code true} if the edges do not all have a unit weight.
+	 */
+	public SparseGridGraphBuilder(final int vertexCount,
+								  final boolean weighted) {
+		this.vertexCount = vertexCount;
+		this.weighted = weighted;
+		edgeSources = new int[INITIAL_EDGE_CAPACITY];
+		edgeTargets = new int[INITIAL_EDGE_CAPACITY];
+		edgeWeights = weighted ? new double[INITIAL_EDGE_CAPACITY] : null;
+		edgeCount = 0;
+	}
+
+	public int getVertexCount() {
+		return vertexCount;
+	}
+
+	public int getEdgeCount() {
+		return edgeCount;
+	}
+
+	public boolean addEdge(final int sourceVertex,
+						   final int targetVertex,
+						   final double weight) {
+		if (edgeCount == edgeSources.length) {
+			final int capacity = edgeCount * 2;
+			edgeSources = Arrays.copyOf(edgeSources, capacity);
+			edgeTargets = Arrays.copyOf(edgeTargets, capacity);
+
+			if (weighted) {
+				edgeWeights = Arrays.copyOf(edgeWeights, capacity);
+			}
+		}
+
+		edgeSources[edgeCount] = sourceVertex;
+		edgeTargets[edgeCount] = targetVertex;
+
+		if (weighted) {
+			edgeWeights[edgeCount] = weight;
+		}
+
+		edgeCount++;
+
+		return true;
+	}
+
+	/**
+	 * Builds the sparse graph from the collected edges, and releases them.
+	 */
+	public Graph<Integer, Integer> build() {
+		final int[] sources = edgeSources;
+		final int[] targets = edgeTargets;
+		final double[] weights = edgeWeights;
+		final Graph<Integer, Integer> graph;
+
+		if (weighted) {
+			graph = new SparseIntDirectedWeightedGraph(vertexCount,
+													   edgeCount,
+													   () -> IntStream.range(0, edgeCount).mapToObj(edge -> Triple.of(sources[edge], targets[edge], weights[edge])),
+													   IncomingEdgesSupport.NO_INCOMING_EDGES);
+		}
+		else {
+			graph = new SparseIntDirectedGraph(vertexCount,
+											   edgeCount,
+											   () -> IntStream.range(0, edgeCount).mapToObj(edge -> Pair.of(sources[edge], targets[edge])),
+											   IncomingEdgesSupport.NO_INCOMING_EDGES);
+		}
+
+		edgeSources = null;
+		edgeTargets = null;
+		edgeWeights = null;
+
+		return graph;
+	}
+
+	@Override
+	public String toString() {
+		return "SparseGridGraphBuilder [vertexCount=" + vertexCount + ", edgeCount=" + edgeCount + ", weighted=" + weighted + "]";
+	}
+}
@@ -0,0 +1,164 @@
+package fr.tp.inf112.projects.robotsim.model.path;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.jgrapht.Graph;
+import org.jgrapht.GraphPath;
+import org.jgrapht.alg.shortestpath.IntVertexDijkstraShortestPath;
+
+import fr.tp.inf112.projects.robotsim.model.Component;
+import fr.tp.inf112.projects.robotsim.model.Factory;
+import fr.tp.inf112.projects.robotsim.model.Position;
+import fr.tp.inf112.projects.robotsim.model.shapes.PositionedShape;
+import fr.tp.inf112.projects.robotsim.model.shapes.RectangularShape;
+
+/**
+ * A path finder searching an immutable sparse JGraphT graph whose vertexes are the cell indexes
+ * {@code xIndex * ySize + yIndex}. No shape is allocated per cell and the adjacency is stored in compressed rows,
+ * which takes a few tens of bytes per cell instead of the hundreds of the hash based graphs.
+ */
+public class SparseJGraphTDijkstraFactoryPathFinder extends AbstractGridGraphFactoryPathFinder<SparseGridGraphBuilder, Integer> implements Serializable {
+
+	/**
+	 *
+	 */
+	private static final long serialVersionUID = 2209512833349405317L;
+
+	private transient Graph<Integer, Integer> sparseGraph;
+
+	public SparseJGraphTDijkstraFactoryPathFinder(final Factory factoryModel,
+												  final int resolution) {
+		super(factoryModel, resolution);
+	}
+
+	public SparseJGraphTDijkstraFactoryPathFinder() {
+		super(null, 0);
+	}
+
+	@Override
+	public List<Position> findPath(final Component sourceComponent,
+								   final Component targetComponent) {
+		buildGraph();
+
+		final Integer sourceVertex = getVertex(sourceComponent.getPosition());
+		assert sourceVertex != null : "Start vertex should never be null!";
+
+		final Integer targetVertex = getVertex(targetComponent.getPosition());
+		assert targetVertex != null : "Target vertex should never be null!";
+
+		final GraphPath<Integer, Integer> shortestPath = findShortestPath(sourceVertex, targetVertex);
+		final List<Position> shortestPathPositions = new ArrayList<>();
+
+		if (shortestPath != null) {
+			for (final Integer vertex : shortestPath.getVertexList()) {
+				if (!vertex.equals(sourceVertex)) {
+					shortestPathPositions.add(new Position(getxCoordinate(vertex), getyCoordinate(vertex)));
+				}
+			}
+		}
+
+		return smoothPath(new Position(getxCoordinate(sourceVertex), getyCoordinate(sourceVertex)), shortestPathPositions);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * Also builds the immutable sparse graph from the collected edges, on which paths are searched.
+	 */
+	@Override
+	public synchronized void buildGraph() {
+		super.buildGraph();
+
+		if (sparseGraph == null) {
+			sparseGraph = getGraph().build();
+		}
+	}
+
+	/**
+	 * @return The shortest path between the given vertexes, or {@code null} if the target cannot be reached.
+	 */
+	protected GraphPath<Integer, Integer> findShortestPath(final Integer sourceVertex,
+														   final Integer targetVertex) {
+		return new IntVertexDijkstraShortestPath<>(sparseGraph).getPath(sourceVertex, targetVertex);
+	}
+
+	protected Graph<Integer, Integer> getSparseGraph() {
+		return sparseGraph;
+	}
+
+	private int getxSize() {
+		return getFactoryModel().getWidth() / getResolution();
+	}
+
+	private int getySize() {
+		return getFactoryModel().getHeight() / getResolution();
+	}
+
+	@Override
+	protected Integer getVertex(final int xIndex,
+								final int yIndex) {
+		return xIndex * getySize() + yIndex;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * Only the cells that the shape of the given position may overlay are examined.
+	 */
+	@Override
+	protected Integer getVertex(final Position position) {
+		return getMostOverlayedCellVertex(position);
+	}
+
+	@Override
+	protected float overlayedSurface(final Integer vertex,
+									 final PositionedShape shape) {
+		final PositionedShape vertexShape = new RectangularShape(getxCoordinate(vertex),
+																 getyCoordinate(vertex),
+																 getResolution(),
+																 getResolution());
+
+		return vertexShape.getOverlayedSurface(shape);
+	}
+
+	@Override
+	protected Iterator<Integer> getGraphVertexesIterator() {
+		return IntStream.range(0, getGraph().getVertexCount()).iterator();
+	}
+
+	@Override
+	protected SparseGridGraphBuilder newGraph() {
+		sparseGraph = null;
+
+		return new SparseGridGraphBuilder(getxSize() * getySize(), isDiagonalMovesEnabled());
+	}
+
+	/**
+	 * Vertexes are implicit cell indexes: there is nothing to add.
+	 */
+	@Override
+	protected boolean addVertex(final int xCoordinate,
+								final int yCoordinate) {
+		return true;
+	}
+
+	@Override
+	protected boolean addEdge(final Integer vertex1,
+							  final Integer vertex2) {
+		return getGraph().addEdge(vertex1, vertex2, getEdgeWeight(vertex1, vertex2));
+	}
+
+	@Override
+	protected int getxCoordinate(final Integer vertex) {
+		return vertex / getySize() * getResolution();
+	}
+
+	@Override
+	protected int getyCoordinate(final Integer vertex) {
+		return vertex % getySize() * getResolution();
+	}
+}
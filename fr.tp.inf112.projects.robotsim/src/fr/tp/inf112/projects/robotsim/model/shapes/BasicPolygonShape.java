@@ -1,6 +1,7 @@
 package fr.tp.inf112.projects.robotsim.model.shapes;
 
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
 
 import fr.tp.inf112.projects.canvas.model.PolygonShape;
@@ -12,6 +13,24 @@ public class BasicPolygonShape extends PositionedShape implements PolygonShape {
 
 	public final Set<Vertex> vertices;
 	
+	/**
+	 * The bounding box and the convex parts are computed from the vertexes when first needed, and computed again
+	 * when a vertex is added or when the number of vertexes has changed since.
+	 */
+	private transient boolean geometryValid;
+	
+	private transient int geometryVerticesCount;
+	
+	private transient int minxCoordinate;
+	
+	private transient int minyCoordinate;
+	
+	private transient int maxxCoordinate;
+	
+	private transient int maxyCoordinate;
+	
+	private transient List<ConvexPolygon> convexParts;
+	
 	public BasicPolygonShape() {
 		super(0, 0);
 		
@@ -26,51 +45,86 @@ public class BasicPolygonShape extends PositionedShape implements PolygonShape {
 	public boolean addVertex(final Vertex vertex) {
 		final boolean added = getVertices().add(vertex);
 		
+		if (added) {
+			geometryValid = false;
+		}
+		
 		updatePosition();
 		
 		return added;
 	}
 	
 	private void updatePosition() {
-		int minxCoordinate = Integer.MAX_VALUE;
-		int minyCoordinate = minxCoordinate;
+		validateGeometry();
+		
+		setxCoordinate(minxCoordinate);
+		setyCoordinate(minyCoordinate);
+	}
+	
+	private void validateGeometry() {
+		if (geometryValid && geometryVerticesCount == getVertices().size()) {
+			return;
+		}
+		
+		minxCoordinate = Integer.MAX_VALUE;
+		minyCoordinate = Integer.MAX_VALUE;
+		maxxCoordinate = getVertices().isEmpty() ? Integer.MAX_VALUE : Integer.MIN_VALUE;
+		maxyCoordinate = maxxCoordinate;
 		
 		for (final Vertex vertex : getVertices()) {
 			minxCoordinate = Math.min(minxCoordinate, vertex.getxCoordinate());
 			minyCoordinate = Math.min(minyCoordinate, vertex.getyCoordinate());
+			maxxCoordinate = Math.max(maxxCoordinate, vertex.getxCoordinate());
+			maxyCoordinate = Math.max(maxyCoordinate, vertex.getyCoordinate());
 		}
 		
-		setxCoordinate(minxCoordinate);
-		setyCoordinate(minyCoordinate);
+		convexParts = null;
+		geometryVerticesCount = getVertices().size();
+		geometryValid = true;
 	}
 	
 	@Override
 	public int getWidth() {
-		int minCoordinate = Integer.MAX_VALUE;
-		int maxCoordinate = 0;
-		
-		for (final Vertex vertex : getVertices()) {
-			final int coordinate = vertex.getxCoordinate();
-
-			minCoordinate = Math.min(minCoordinate, coordinate);
-			maxCoordinate = Math.max(maxCoordinate, coordinate);
-		}
+		validateGeometry();
 		
-		return maxCoordinate - minCoordinate;
+		return maxxCoordinate - minxCoordinate;
 	}
-
+	
 	@Override
 	public int getHeight() {
-		int minCoordinate = Integer.MAX_VALUE;
-		int maxCoordinate = 0;
+		validateGeometry();
 		
-		for (final Vertex vertex : getVertices()) {
-			final int coordinate = vertex.getyCoordinate();
-
-			minCoordinate = Math.min(minCoordinate, coordinate);
-			maxCoordinate = Math.max(maxCoordinate, coordinate);
+		return maxyCoordinate - minyCoordinate;
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 *
+	 * The vertexes are taken in insertion order as the boundary of the polygon. A self-intersecting polygon is
+	 * approximated by its bounding box.
+	 */
+	@Override
+	List<ConvexPolygon> getConvexParts() {
+		validateGeometry();
+		
+		if (convexParts == null) {
+			final long[] xCoordinates = new long[getVertices().size()];
+			final long[] yCoordinates = new long[xCoordinates.length];
+			int index = 0;
+			
+			for (final Vertex vertex : getVertices()) {
+				xCoordinates[index] = vertex.getxCoordinate();
+				yCoordinates[index] = vertex.getyCoordinate();
+				index++;
+			}
+			
+			convexParts = ConvexPolygon.decompose(xCoordinates, yCoordinates);
+			
+			if (convexParts == null) {
+				convexParts = super.getConvexParts();
+			}
 		}
 		
-		return maxCoordinate - minCoordinate;
+		return convexParts;
 	}
 }
@@ -33,6 +33,31 @@ public class CircularShape extends PositionedShape implements OvalShape {
 		return getWidth();
 	}
 
+	/**
+	 * Exact overlap test of the disc with the given shape, whose bounding box overlays the one of the disc.
+	 */
+	boolean overlaysDisc(final PositionedShape shape) {
+		final long xCenter = getxCoordinate() + radius;
+		final long yCenter = getyCoordinate() + radius;
+
+		if (shape instanceof CircularShape) {
+			final CircularShape circle = (CircularShape) shape;
+			final long xDelta = circle.getxCoordinate() + circle.radius - xCenter;
+			final long yDelta = circle.getyCoordinate() + circle.radius - yCenter;
+			final long radiusSum = radius + circle.radius;
+
+			return xDelta * xDelta + yDelta * yDelta < radiusSum * radiusSum;
+		}
+
+		for (final ConvexPolygon part : shape.getConvexParts()) {
+			if (part.overlays(xCenter, yCenter, radius)) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
 	@Override
 	public String toString() {
 		return super.toString() + " [radius=" + radius + "]";
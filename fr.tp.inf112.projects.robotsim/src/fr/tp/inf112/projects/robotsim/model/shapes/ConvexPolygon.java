@@ -0,0 +1,256 @@
+package fr.tp.inf112.projects.robotsim.model.shapes;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A convex polygon with integer vertexes, tested against other convex polygons and discs with the separating axis
+ * theorem. As for bounding boxes, shapes that only touch do not overlap: the projections on an axis must overlap
+ * on a positive length.
+ */
+final class ConvexPolygon {
+
+	/**
+	 * Decomposes a simple polygon into convex parts: the polygon itself when it is convex, its triangles otherwise.
+	 * @return The convex parts, or {@code null} if the polygon is self-intersecting and cannot be triangulated.
+	 */
+	static List<ConvexPolygon> decompose(final long[] xCoordinates,
+										 final long[] yCoordinates) {
+		final List<ConvexPolygon> parts = new ArrayList<>();
+		final int verticesCount = xCoordinates.length;
+
+		if (verticesCount < 3) {
+			return parts;
+		}
+
+		if (isConvex(xCoordinates, yCoordinates)) {
+			parts.add(new ConvexPolygon(xCoordinates, yCoordinates));
+
+			return parts;
+		}
+
+		final long orientation = Long.signum(getDoubleSignedArea(xCoordinates, yCoordinates));
+		final int[] remaining = new int[verticesCount];
+
+		for (int index = 0; index < verticesCount; index++) {
+			remaining[index] = index;
+		}
+
+		int remainingCount = verticesCount;
+		int failedAttempts = 0;
+		int current = 0;
+
+		while (remainingCount > 3) {
+			if (failedAttempts > remainingCount) {
+				return null;
+			}
+
+			final int previous = remaining[(current + remainingCount - 1) % remainingCount];
+			final int vertex = remaining[current];
+			final int next = remaining[(current + 1) % remainingCount];
+			final long cross = cross(xCoordinates, yCoordinates, previous, vertex, next);
+
+			if (cross == 0 || cross * orientation > 0 && isEar(xCoordinates, yCoordinates, remaining, remainingCount, previous, vertex, next)) {
+				if (cross != 0) {
+					parts.add(new ConvexPolygon(new long[] { xCoordinates[previous], xCoordinates[vertex], xCoordinates[next] },
+												new long[] { yCoordinates[previous], yCoordinates[vertex], yCoordinates[next] }));
+				}
+
+				System.arraycopy(remaining, current + 1, remaining, current, remainingCount - current - 1);
+				remainingCount--;
+				current = current % remainingCount;
+				failedAttempts = 0;
+			}
+			else {
+				current = (current + 1) % remainingCount;
+				failedAttempts++;
+			}
+		}
+
+		if (cross(xCoordinates, yCoordinates, remaining[0], remaining[1], remaining[2]) != 0) {
+			parts.add(new ConvexPolygon(new long[] { xCoordinates[remaining[0]], xCoordinates[remaining[1]], xCoordinates[remaining[2]] },
+										new long[] { yCoordinates[remaining[0]], yCoordinates[remaining[1]], yCoordinates[remaining[2]] }));
+		}
+
+		return parts;
+	}
+
+	private static boolean isConvex(final long[] xCoordinates,
+									final long[] yCoordinates) {
+		final int verticesCount = xCoordinates.length;
+		long orientation = 0;
+
+		for (int index = 0; index < verticesCount; index++) {
+			final long cross = Long.signum(cross(xCoordinates,
+												 yCoordinates,
+												 index,
+												 (index + 1) % verticesCount,
+												 (index + 2) % verticesCount));
+
+			if (cross != 0) {
+				if (orientation != 0 && cross != orientation) {
+					return false;
+				}
+
+				orientation = cross;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * @return {@code true} if no other remaining vertex lies inside the given triangle or on its border.
+	 */
+	private static boolean isEar(final long[] xCoordinates,
+								 final long[] yCoordinates,
+								 final int[] remaining,
+								 final int remainingCount,
+								 final int previous,
+								 final int vertex,
+								 final int next) {
+		final long orientation = Long.signum(cross(xCoordinates, yCoordinates, previous, vertex, next));
+
+		for (int index = 0; index < remainingCount; index++) {
+			final int other = remaining[index];
+
+			if (other != previous && other != vertex && other != next &&
+				cross(xCoordinates, yCoordinates, previous, vertex, other) * orientation >= 0 &&
+				cross(xCoordinates, yCoordinates, vertex, next, other) * orientation >= 0 &&
+				cross(xCoordinates, yCoordinates, next, previous, other) * orientation >= 0) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	private static long cross(final long[] xCoordinates,
+							  final long[] yCoordinates,
+							  final int origin,
+							  final int vertex1,
+							  final int vertex2) {
+		return (xCoordinates[vertex1] - xCoordinates[origin]) * (yCoordinates[vertex2] - yCoordinates[origin]) -
+			   (yCoordinates[vertex1] - yCoordinates[origin]) * (xCoordinates[vertex2] - xCoordinates[origin]);
+	}
+
+	private static long getDoubleSignedArea(final long[] xCoordinates,
+											final long[] yCoordinates) {
+		long area = 0;
+
+		for (int index = 0; index < xCoordinates.length; index++) {
+			final int next = (index + 1) % xCoordinates.length;
+			area += xCoordinates[index] * yCoordinates[next] - xCoordinates[next] * yCoordinates[index];
+		}
+
+		return area;
+	}
+
+	static ConvexPolygon rectangle(final long xCoordinate,
+								   final long yCoordinate,
+								   final long width,
+								   final long height) {
+		return new ConvexPolygon(new long[] { xCoordinate, xCoordinate + width, xCoordinate + width, xCoordinate },
+								 new long[] { yCoordinate, yCoordinate, yCoordinate + height, yCoordinate + height });
+	}
+
+	private final long[] xCoordinates;
+
+	private final long[] yCoordinates;
+
+	ConvexPolygon(final long[] xCoordinates,
+				  final long[] yCoordinates) {
+		this.xCoordinates = xCoordinates;
+		this.yCoordinates = yCoordinates;
+	}
+
+	boolean overlays(final ConvexPolygon polygon) {
+		return !hasSeparatingEdge(polygon) && !polygon.hasSeparatingEdge(this);
+	}
+
+	/**
+	 * @return {@code true} if the interior of the given disc intersects this polygon on a positive surface.
+	 */
+	boolean overlays(final long xCenter,
+					 final long yCenter,
+					 final long radius) {
+		final int verticesCount = xCoordinates.length;
+		long minDistance = Long.MAX_VALUE;
+		int closestVertex = 0;
+
+		for (int index = 0; index < verticesCount; index++) {
+			final int next = (index + 1) % verticesCount;
+
+			if (isSeparatingAxis(yCoordinates[index] - yCoordinates[next], xCoordinates[next] - xCoordinates[index], xCenter, yCenter, radius)) {
+				return false;
+			}
+
+			final long xDelta = xCoordinates[index] - xCenter;
+			final long yDelta = yCoordinates[index] - yCenter;
+			final long distance = xDelta * xDelta + yDelta * yDelta;
+
+			if (distance < minDistance) {
+				minDistance = distance;
+				closestVertex = index;
+			}
+		}
+
+		return minDistance == 0 ||
+			   !isSeparatingAxis(xCoordinates[closestVertex] - xCenter, yCoordinates[closestVertex] - yCenter, xCenter, yCenter, radius);
+	}
+
+	private boolean hasSeparatingEdge(final ConvexPolygon polygon) {
+		final int verticesCount = xCoordinates.length;
+
+		for (int index = 0; index < verticesCount; index++) {
+			final int next = (index + 1) % verticesCount;
+			final long xAxis = yCoordinates[index] - yCoordinates[next];
+			final long yAxis = xCoordinates[next] - xCoordinates[index];
+
+			if (getMaxProjection(xAxis, yAxis) <= polygon.getMinProjection(xAxis, yAxis) ||
+				polygon.getMaxProjection(xAxis, yAxis) <= getMinProjection(xAxis, yAxis)) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	private boolean isSeparatingAxis(final long xAxis,
+									 final long yAxis,
+									 final long xCenter,
+									 final long yCenter,
+									 final long radius) {
+		if (xAxis == 0 && yAxis == 0) {
+			return false;
+		}
+
+		final double centerProjection = xCenter * xAxis + yCenter * yAxis;
+		final double radiusProjection = radius * Math.sqrt((double) xAxis * xAxis + (double) yAxis * yAxis);
+
+		return getMaxProjection(xAxis, yAxis) <= centerProjection - radiusProjection ||
+			   centerProjection + radiusProjection <= getMinProjection(xAxis, yAxis);
+	}
+
+	private long getMinProjection(final long xAxis,
+								  final long yAxis) {
+		long min = Long.MAX_VALUE;
+
+		for (int index = 0; index < xCoordinates.length; index++) {
+			min = Math.min(min, xCoordinates[index] * xAxis + yCoordinates[index] * yAxis);
+		}
+
+		return min;
+	}
+
+	private long getMaxProjection(final long xAxis,
+								  final long yAxis) {
+		long max = Long.MIN_VALUE;
+
+		for (int index = 0; index < xCoordinates.length; index++) {
+			max = Math.max(max, xCoordinates[index] * xAxis + yCoordinates[index] * yAxis);
+		}
+
+		return max;
+	}
+}
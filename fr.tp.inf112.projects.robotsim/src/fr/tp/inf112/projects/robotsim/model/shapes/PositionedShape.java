@@ -1,6 +1,8 @@
 package fr.tp.inf112.projects.robotsim.model.shapes;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import fr.tp.inf112.projects.canvas.model.Shape;
@@ -44,10 +46,77 @@ public abstract class PositionedShape implements Shape, Serializable {
 
 	public abstract int getHeight();
 	
+	/**
+	 * Overlap test in two stages: the bounding boxes are compared first, and the exact shapes are only compared
+	 * when the boxes overlap and one of the shapes is not its bounding box. Shapes that only touch do not overlap.
+	 */
 	public boolean overlays(final PositionedShape shape) {
-		return getOverlayedSurface(shape) > 0.0f;
+		if (!boundingBoxOverlays(shape)) {
+			return false;
+		}
+		
+		if (isBoundingBox() && shape.isBoundingBox()) {
+			return true;
+		}
+		
+		return exactlyOverlays(shape);
+	}
+	
+	/**
+	 * Integer version of {@code getOverlayedSurface(shape) > 0}.
+	 */
+	public boolean boundingBoxOverlays(final PositionedShape shape) {
+		return intersects(getxCoordinate(), getWidth(), shape.getxCoordinate(), shape.getWidth()) &&
+			   intersects(getyCoordinate(), getHeight(), shape.getyCoordinate(), shape.getHeight());
+	}
+	
+	private static boolean intersects(final int coordinate1,
+									  final int width1,
+									  final int coordinate2,
+									  final int width2) {
+		return coordinate1 <= coordinate2 ? coordinate1 + width1 > coordinate2 : coordinate2 + width2 > coordinate1;
+	}
+	
+	/**
+	 * @return {@code true} if the shape fills its bounding box, in which case the bounding box test is exact.
+	 */
+	protected boolean isBoundingBox() {
+		return false;
+	}
+	
+	/**
+	 * @return The convex polygons whose union is the shape, used by the exact overlap test.
+	 */
+	List<ConvexPolygon> getConvexParts() {
+		final List<ConvexPolygon> parts = new ArrayList<>();
+		parts.add(ConvexPolygon.rectangle(getxCoordinate(), getyCoordinate(), getWidth(), getHeight()));
+		
+		return parts;
+	}
+	
+	private boolean exactlyOverlays(final PositionedShape shape) {
+		if (this instanceof CircularShape) {
+			return ((CircularShape) this).overlaysDisc(shape);
+		}
+		
+		if (shape instanceof CircularShape) {
+			return ((CircularShape) shape).overlaysDisc(this);
+		}
+		
+		for (final ConvexPolygon part : getConvexParts()) {
+			for (final ConvexPolygon shapePart : shape.getConvexParts()) {
+				if (part.overlays(shapePart)) {
+					return true;
+				}
+			}
+		}
+		
+		return false;
 	}
 	
+	/**
+	 * @return The surface of the intersection of the bounding boxes of this shape and of the given shape.
+	 */
 	public float getOverlayedSurface(final PositionedShape shape) {
 		return xIntersectionLength(shape) * yIntersectionLength(shape);
 	}
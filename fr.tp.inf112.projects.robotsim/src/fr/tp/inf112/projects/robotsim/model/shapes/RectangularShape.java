@@ -34,6 +34,11 @@ public class RectangularShape extends PositionedShape implements RectangleShape
 		return height;
 	}
 
+	@Override
+	protected boolean isBoundingBox() {
+		return true;
+	}
+
 	@Override
 	public String toString() {
 		return super.toString() + " [width=" + width + ", height=" + height + "]";
@@ -0,0 +1,102 @@
+package fr.tp.inf112.projects.robotsim.model.simulation;
+
+import fr.tp.inf112.projects.robotsim.model.Factory;
+import fr.tp.inf112.projects.robotsim.model.Robot;
+
+/**
+ * A state of a simulated factory, published by a {@link SnapshotPublisher}: the states published by its robots at
+ * the end of their last steps (see {@link Robot#getPublishedState()}), which nothing modifies once published. The
+ * factory of the snapshot is only built when it is first asked for, in the thread of the reader, from a fork of the
+ * simulated factory taken when its robots were added: it can be serialized, drawn or measured without locking,
+ * while the simulation goes on.
+ */
+public final class FactorySnapshot {
+
+	private final long version;
+
+	private final long creationTime;
+
+	private final boolean simulationStarted;
+
+	private final Factory template;
+
+	private final int[] robotIds;
+
+	private final byte[][] robotStates;
+
+	private volatile Factory factory;
+
+	FactorySnapshot(final long version,
+					final boolean simulationStarted,
+					final Factory template,
+					final int[] robotIds,
+					final byte[][] robotStates) {
+		this.version = version;
+		this.creationTime = System.currentTimeMillis();
+		this.simulationStarted = simulationStarted;
+		this.template = template;
+		this.robotIds = robotIds;
+		this.robotStates = robotStates;
+		factory = null;
+	}
+
+	/**
+	 * @return The number of the snapshot, incremented by every snapshot of the same publisher.
+	 */
+	public long getVersion() {
+		return version;
+	}
+
+	public long getCreationTime() {
+		return creationTime;
+	}
+
+	/**
+	 * @return {@code true} if the simulation was started when the snapshot was taken.
+	 */
+	public boolean isSimulationStarted() {
+		return simulationStarted;
+	}
+
+	/**
+	 * @return The identifiers of the robots of the snapshot, which must not be modified.
+	 */
+	public int[] getRobotIds() {
+		return robotIds;
+	}
+
+	/**
+	 * @return The states of the robots of the snapshot, in the order of their identifiers, which must not be
+	 * modified.
+	 */
+	public byte[][] getRobotStates() {
+		return robotStates;
+	}
+
+	/**
+	 * @return The state of the factory, built when first asked for, which must not be modified.
+	 */
+	public Factory getFactory() {
+		Factory snapshotFactory = factory;
+
+		if (snapshotFactory == null) {
+			synchronized (this) {
+				snapshotFactory = factory;
+
+				if (snapshotFactory == null) {
+					snapshotFactory = template.forkWithRobotStates(robotIds, robotStates);
+					snapshotFactory.setId(template.getId());
+					factory = snapshotFactory;
+				}
+			}
+		}
+
+		return snapshotFactory;
+	}
+
+	@Override
+	public String toString() {
+		return "FactorySnapshot [version=" + version + ", creationTime=" + creationTime + ", simulationStarted=" +
+			   simulationStarted + "]";
+	}
+}
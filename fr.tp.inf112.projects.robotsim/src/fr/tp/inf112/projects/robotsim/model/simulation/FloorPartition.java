@@ -0,0 +1,196 @@
+package fr.tp.inf112.projects.robotsim.model.simulation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+
+import fr.tp.inf112.projects.robotsim.model.Component;
+import fr.tp.inf112.projects.robotsim.model.Factory;
+import fr.tp.inf112.projects.robotsim.model.Room;
+import fr.tp.inf112.projects.robotsim.model.shapes.PositionedShape;
+
+/**
+ * A partition of the floor of a factory into rectangular regions, by a grid whose columns and rows need not have
+ * the same size. Regions are numbered row by row, and each region has a lock that moves towards it must hold.
+ * Moves that lock several regions lock them by increasing index, so that they cannot deadlock.
+ */
+public class FloorPartition {
+
+	/**
+	 * Smallest width of a column or height of a row: closer cuts, such as the walls of two neighbouring rooms, are
+	 * merged.
+	 */
+	private static final int MIN_REGION_SIZE = 10;
+
+	/**
+	 * Partitions the floor in the given number of columns and rows holding about the same number of robots.
+	 */
+	public static FloorPartition balanced(final Factory factory,
+										  final int columnsCount,
+										  final int rowsCount) {
+		final List<Integer> xCoordinates = new ArrayList<>();
+		final List<Integer> yCoordinates = new ArrayList<>();
+
+		for (final Component component : factory.getComponents()) {
+			if (component.isMobile()) {
+				xCoordinates.add(component.getxCoordinate());
+				yCoordinates.add(component.getyCoordinate());
+			}
+		}
+
+		return new FloorPartition(getBalancedCuts(xCoordinates, columnsCount, factory.getWidth()),
+								  getBalancedCuts(yCoordinates, rowsCount, factory.getHeight()));
+	}
+
+	/**
+	 * Partitions the floor along the walls of its rooms, so that robots only change region when crossing a wall
+	 * through a door or when leaving the surroundings of a room.
+	 */
+	public static FloorPartition byRooms(final Factory factory) {
+		final TreeSet<Integer> xCuts = new TreeSet<>();
+		final TreeSet<Integer> yCuts = new TreeSet<>();
+
+		for (final Component component : factory.getComponents()) {
+			if (component instanceof Room) {
+				xCuts.add(component.getxCoordinate());
+				xCuts.add(component.getxCoordinate() + component.getWidth());
+				yCuts.add(component.getyCoordinate());
+				yCuts.add(component.getyCoordinate() + component.getHeight());
+			}
+		}
+
+		return new FloorPartition(getSpacedCuts(xCuts, factory.getWidth()), getSpacedCuts(yCuts, factory.getHeight()));
+	}
+
+	/**
+	 * @return The coordinates splitting the sorted given ones in the given number of groups of the same size.
+	 */
+	private static int[] getBalancedCuts(final List<Integer> coordinates,
+										 final int partsCount,
+										 final int size) {
+		final TreeSet<Integer> cuts = new TreeSet<>();
+
+		if (coordinates.isEmpty()) {
+			for (int part = 1; part < partsCount; part++) {
+				cuts.add(part * size / partsCount);
+			}
+		}
+		else {
+			coordinates.sort(null);
+
+			for (int part = 1; part < partsCount; part++) {
+				cuts.add(coordinates.get(part * coordinates.size() / partsCount));
+			}
+		}
+
+		return getSpacedCuts(cuts, size);
+	}
+
+	private static int[] getSpacedCuts(final TreeSet<Integer> cuts,
+									   final int size) {
+		final List<Integer> spacedCuts = new ArrayList<>();
+		int previousCut = 0;
+
+		for (final int cut : cuts) {
+			if (cut - previousCut >= MIN_REGION_SIZE && size - cut >= MIN_REGION_SIZE) {
+				spacedCuts.add(cut);
+				previousCut = cut;
+			}
+		}
+
+		return spacedCuts.stream().mapToInt(Integer::intValue).toArray();
+	}
+
+	private final int[] xCuts;
+
+	private final int[] yCuts;
+
+	private final ReentrantLock[] locks;
+
+	/**
+	 * @param xCuts The increasing abscissas where a column ends and the next one begins.
+	 * @param yCuts The increasing ordinates where a row ends and the next one begins.
+	 */
+	public FloorPartition(final int[] xCuts,
+						  final int[] yCuts) {
+		this.xCuts = xCuts.clone();
+		this.yCuts = yCuts.clone();
+		locks = new ReentrantLock[(xCuts.length + 1) * (yCuts.length + 1)];
+
+		for (int index = 0; index < locks.length; index++) {
+			locks[index] = new ReentrantLock();
+		}
+	}
+
+	public int getRegionsCount() {
+		return locks.length;
+	}
+
+	public int getColumnsCount() {
+		return xCuts.length + 1;
+	}
+
+	public int getRowsCount() {
+		return yCuts.length + 1;
+	}
+
+	public int getRegionIndex(final int xCoordinate,
+							  final int yCoordinate) {
+		return getPart(yCuts, yCoordinate) * getColumnsCount() + getPart(xCuts, xCoordinate);
+	}
+
+	/**
+	 * @return The increasing indexes of the regions overlaid by the bounding box of the given shape grown by the
+	 * given margin on every side.
+	 */
+	public int[] getRegionIndexes(final PositionedShape shape,
+								  final int margin) {
+		final int minColumn = getPart(xCuts, shape.getxCoordinate() - margin);
+		final int maxColumn = getPart(xCuts, shape.getxCoordinate() + shape.getWidth() + margin);
+		final int minRow = getPart(yCuts, shape.getyCoordinate() - margin);
+		final int maxRow = getPart(yCuts, shape.getyCoordinate() + shape.getHeight() + margin);
+		final int[] regionIndexes = new int[(maxColumn - minColumn + 1) * (maxRow - minRow + 1)];
+		int index = 0;
+
+		for (int row = minRow; row <= maxRow; row++) {
+			for (int column = minColumn; column <= maxColumn; column++) {
+				regionIndexes[index++] = row * getColumnsCount() + column;
+			}
+		}
+
+		return regionIndexes;
+	}
+
+	/**
+	 * Locks the given regions, which must be given by increasing index.
+	 */
+	public void lock(final int[] regionIndexes) {
+		for (final int regionIndex : regionIndexes) {
+			locks[regionIndex].lock();
+		}
+	}
+
+	public void unlock(final int[] regionIndexes) {
+		for (int index = regionIndexes.length - 1; index >= 0; index--) {
+			locks[regionIndexes[index]].unlock();
+		}
+	}
+
+	/**
+	 * @return The index of the part of the axis containing the given coordinate, a coordinate equal to a cut
+	 * belonging to the part beginning there.
+	 */
+	private static int getPart(final int[] cuts,
+							   final int coordinate) {
+		final int index = Arrays.binarySearch(cuts, coordinate);
+
+		return index >= 0 ? index + 1 : -index - 1;
+	}
+
+	@Override
+	public String toString() {
+		return "FloorPartition [xCuts=" + Arrays.toString(xCuts) + ", yCuts=" + Arrays.toString(yCuts) + "]";
+	}
+}
@@ -0,0 +1,195 @@
+package fr.tp.inf112.projects.robotsim.model.simulation;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+import java.util.stream.IntStream;
+
+import fr.tp.inf112.projects.robotsim.model.Component;
+import fr.tp.inf112.projects.robotsim.model.Factory;
+import fr.tp.inf112.projects.robotsim.model.Position;
+import fr.tp.inf112.projects.robotsim.model.motion.Motion;
+import fr.tp.inf112.projects.robotsim.model.shapes.PositionedShape;
+import fr.tp.inf112.projects.robotsim.model.shapes.RectangularShape;
+
+/**
+ * Simulates the robots of a factory with one worker thread per region of a {@link FloorPartition}, instead of one
+ * thread per robot synchronized on the factory for every move. Each worker makes the robots of its region behave
+ * every tick of the factory, then hands the robots that left its region over to the worker of their new region
+ * through a lock-free queue.
+ *
+ * A move only locks the regions within a halo around its target position, the halo being wide enough to hold any
+ * robot that could overlay the target, so that only moves close to each other are serialized.
+ */
+public class PartitionedSimulation {
+
+	private static final Logger LOGGER = Logger.getLogger(PartitionedSimulation.class.getName());
+
+	/**
+	 * Size of the shape of the target position of a move, as tested by the factory.
+	 */
+	private static final int POSITION_SIZE = 2;
+
+	private final Factory factory;
+
+	private final FloorPartition partition;
+
+	private final List<Queue<Component>> incomingComponents;
+
+	private final AtomicInteger handOffsCount;
+
+	private volatile int haloWidth;
+
+	public PartitionedSimulation(final Factory factory,
+								 final FloorPartition partition) {
+		this.factory = factory;
+		this.partition = partition;
+		incomingComponents = new ArrayList<>();
+		handOffsCount = new AtomicInteger();
+
+		for (int regionIndex = 0; regionIndex < partition.getRegionsCount(); regionIndex++) {
+			incomingComponents.add(new ConcurrentLinkedQueue<>());
+		}
+	}
+
+	public FloorPartition getPartition() {
+		return partition;
+	}
+
+	/**
+	 * @return The number of times a robot moved from a region to another.
+	 */
+	public int getHandOffsCount() {
+		return handOffsCount.get();
+	}
+
+	/**
+	 * Gives the mobile components of the factory to the workers of their regions and starts the workers, which
+	 * stop when the simulation is stopped.
+	 */
+	public void start() {
+		int maxSize = 0;
+
+		for (final Queue<Component> components : incomingComponents) {
+			components.clear();
+		}
+
+		for (final Component component : factory.getComponents()) {
+			if (component.isMobile()) {
+				maxSize = Math.max(maxSize, Math.max(component.getWidth(), component.getHeight()));
+				incomingComponents.get(getRegionIndex(component)).add(component);
+			}
+		}
+
+		haloWidth = maxSize + POSITION_SIZE;
+
+		LOGGER.info(factory.getName() + ": simulating " + partition.getRegionsCount() + " regions of " + partition + ".");
+
+		for (int regionIndex = 0; regionIndex < partition.getRegionsCount(); regionIndex++) {
+			final Thread workerThread = new Thread(new RegionWorker(regionIndex), factory.getName() + " region " + regionIndex);
+			workerThread.start();
+		}
+	}
+
+	/**
+	 * Moves the given component if no other mobile component overlays the target position, holding the locks of
+	 * the regions of the halo of the target position.
+	 * @see Factory#moveComponent(Motion, Component)
+	 */
+	public int moveComponent(final Motion motion,
+							 final Component componentToMove) {
+		final Position targetPosition = motion.getTargetPosition();
+		final PositionedShape targetShape = new RectangularShape(targetPosition.getxCoordinate(),
+																 targetPosition.getyCoordinate(),
+																 POSITION_SIZE,
+																 POSITION_SIZE);
+		final int[] regionIndexes = partition.getRegionIndexes(targetShape, haloWidth);
+		partition.lock(regionIndexes);
+
+		try {
+			return factory.moveComponentIfFree(targetShape, motion, componentToMove);
+		}
+		finally {
+			partition.unlock(regionIndexes);
+		}
+	}
+
+	/**
+	 * Runs the given action while no component can move, holding the locks of all the regions.
+	 */
+	public void runWithMovesLocked(final Runnable action) {
+		final int[] regionIndexes = IntStream.range(0, partition.getRegionsCount()).toArray();
+		partition.lock(regionIndexes);
+
+		try {
+			action.run();
+		}
+		finally {
+			partition.unlock(regionIndexes);
+		}
+	}
+
+	private int getRegionIndex(final Component component) {
+		return partition.getRegionIndex(component.getxCoordinate(), component.getyCoordinate());
+	}
+
+	private final class RegionWorker implements Runnable {
+
+		private final int regionIndex;
+
+		private final List<Component> components;
+
+		private RegionWorker(final int regionIndex) {
+			this.regionIndex = regionIndex;
+			components = new ArrayList<>();
+		}
+
+		@Override
+		public void run() {
+			final Queue<Component> incoming = incomingComponents.get(regionIndex);
+			final TickClock tickClock = new TickClock(factory.getTickStatistics());
+
+			while (factory.isSimulationStarted()) {
+				Component incomingComponent;
+
+				while ((incomingComponent = incoming.poll()) != null) {
+					components.add(incomingComponent);
+				}
+
+				final Iterator<Component> componentsIterator = components.iterator();
+
+				while (componentsIterator.hasNext()) {
+					final Component component = componentsIterator.next();
+					component.behave();
+					final int newRegionIndex = getRegionIndex(component);
+
+					if (newRegionIndex != regionIndex) {
+						componentsIterator.remove();
+						incomingComponents.get(newRegionIndex).offer(component);
+						handOffsCount.incrementAndGet();
+					}
+				}
+
+				try {
+					tickClock.awaitNextTick();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					break;
+				}
+
+				factory.notifyPendingObservers();
+			}
+
+			tickClock.stop();
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "PartitionedSimulation [regions=" + partition.getRegionsCount() + ", handOffs=" + handOffsCount + "]";
+	}
+}
@@ -0,0 +1,120 @@
+package fr.tp.inf112.projects.robotsim.model.simulation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import fr.tp.inf112.projects.robotsim.model.Factory;
+import fr.tp.inf112.projects.robotsim.model.Robot;
+
+/**
+ * Publishes a snapshot of a simulated factory at a fixed period, for the readers that must not see the factory
+ * being modified: the REST service, remote viewers and metrics read the last published snapshot without taking
+ * any lock. A snapshot only gathers the states the robots publish at the end of each of their steps, so that the
+ * robots are never held by the publisher. The factory is only forked, holding its robots between two of their
+ * steps, when the first snapshot is published and when robots are added or removed.
+ *
+ * The publisher runs in its own thread, started with the simulation of the factory, and publishes a last
+ * snapshot when the simulation is stopped.
+ */
+public class SnapshotPublisher implements Runnable {
+
+	private final Factory factory;
+
+	private final long periodMillis;
+
+	private final AtomicReference<FactorySnapshot> snapshot;
+
+	private long version;
+
+	/**
+	 * The fork of the factory to which the states of the robots of the snapshots are applied.
+	 */
+	private Factory template;
+
+	private int[] templateRobotIds;
+
+	public SnapshotPublisher(final Factory factory,
+							 final long periodMillis) {
+		this.factory = factory;
+		this.periodMillis = periodMillis;
+		snapshot = new AtomicReference<>();
+		version = 0;
+		template = null;
+		templateRobotIds = null;
+	}
+
+	/**
+	 * @return The last published snapshot, a snapshot published now if there is none yet.
+	 */
+	public FactorySnapshot getSnapshot() {
+		final FactorySnapshot publishedSnapshot = snapshot.get();
+
+		return publishedSnapshot == null ? publish() : publishedSnapshot;
+	}
+
+	/**
+	 * Takes a snapshot of the factory and publishes it.
+	 */
+	public synchronized FactorySnapshot publish() {
+		final boolean simulationStarted = factory.isSimulationStarted();
+		final List<Robot> robots = new ArrayList<>();
+
+		for (final Object component : factory.getComponents().toArray()) {
+			if (component instanceof Robot) {
+				robots.add((Robot) component);
+			}
+		}
+
+		final int[] robotIds = new int[robots.size()];
+		final byte[][] robotStates = new byte[robots.size()][];
+
+		for (int index = 0; index < robots.size(); index++) {
+			robotIds[index] = robots.get(index).getComponentId();
+			robotStates[index] = robots.get(index).getPublishedState();
+		}
+
+		if (template == null || !Arrays.equals(robotIds, templateRobotIds)) {
+			template = factory.fork();
+			template.setId(factory.getId());
+			templateRobotIds = robotIds;
+		}
+
+		final FactorySnapshot newSnapshot = new FactorySnapshot(++version, simulationStarted, template, robotIds,
+																robotStates);
+		snapshot.set(newSnapshot);
+		notifyAll();
+
+		return newSnapshot;
+	}
+
+	/**
+	 * Waits until a snapshot of at least the given version is published, or the simulation is stopped.
+	 * @return The last published snapshot, which may be older than the given version if the simulation stopped.
+	 */
+	public synchronized FactorySnapshot awaitSnapshot(final long minVersion)
+	throws InterruptedException {
+		while (version < minVersion && factory.isSimulationStarted()) {
+			wait(periodMillis);
+		}
+
+		return getSnapshot();
+	}
+
+	@Override
+	public void run() {
+		while (factory.isSimulationStarted()) {
+			publish();
+
+			try {
+				Thread.sleep(periodMillis);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				break;
+			}
+		}
+
+		publish();
+	}
+}
@@ -0,0 +1,79 @@
+package fr.tp.inf112.projects.robotsim.model.simulation;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Paces the loop of a simulation thread at the fixed rate of its {@link TickStatistics}: ticks are scheduled at
+ * multiples of the period from the start of the clock, whatever the time their work takes, so that loops doing
+ * different amounts of work still tick at the same rate.
+ *
+ * A tick whose work lasts beyond the next scheduled ticks does not make the clock run the missed ticks in a burst:
+ * the clock drops them and starts the next tick at once, the dropped ticks being recorded as lag. The clock is
+ * late until it starts a tick on time again.
+ */
+public class TickClock {
+
+	private final TickStatistics statistics;
+
+	private final long periodNanos;
+
+	private long scheduledTickNanos;
+
+	private long tickStartNanos;
+
+	private boolean late;
+
+	public TickClock(final TickStatistics statistics) {
+		this.statistics = statistics;
+		periodNanos = TimeUnit.MILLISECONDS.toNanos(statistics.getPeriodMillis());
+		scheduledTickNanos = System.nanoTime();
+		tickStartNanos = scheduledTickNanos;
+		late = false;
+		statistics.addClock();
+	}
+
+	/**
+	 * Ends the current tick and waits for the time scheduled for the next one, if it has not passed yet.
+	 */
+	public void awaitNextTick()
+	throws InterruptedException {
+		final long nowNanos = System.nanoTime();
+		statistics.recordTick(nowNanos - tickStartNanos);
+		scheduledTickNanos += periodNanos;
+		final long delayNanos = scheduledTickNanos - nowNanos;
+
+		try {
+			if (delayNanos > 0) {
+				setLate(false);
+				TimeUnit.NANOSECONDS.sleep(delayNanos);
+			}
+			else {
+				final long droppedTicks = -delayNanos / periodNanos;
+				scheduledTickNanos += droppedTicks * periodNanos;
+				statistics.recordOverrun(droppedTicks);
+				setLate(true);
+			}
+		}
+		finally {
+			tickStartNanos = System.nanoTime();
+		}
+	}
+
+	/**
+	 * Stops counting the clock as late, once its loop ends.
+	 */
+	public void stop() {
+		setLate(false);
+	}
+
+	public boolean isLate() {
+		return late;
+	}
+
+	private void setLate(final boolean late) {
+		if (late != this.late) {
+			this.late = late;
+			statistics.setLate(late);
+		}
+	}
+}
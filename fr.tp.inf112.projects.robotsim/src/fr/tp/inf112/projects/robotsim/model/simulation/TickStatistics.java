@@ -0,0 +1,118 @@
+package fr.tp.inf112.projects.robotsim.model.simulation;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Statistics of the ticks of the {@link TickClock}s of a simulation: the time spent working in each tick, and the
+ * ticks dropped by the clocks that could not keep up with their period. The simulated time only advances with the
+ * ticks, so the dropped ticks are the lag of the simulation behind the wall clock.
+ */
+public class TickStatistics {
+
+	private final long periodMillis;
+
+	private final AtomicInteger clocksCount;
+
+	private final AtomicInteger lateClocksCount;
+
+	private final LongAdder ticksCount;
+
+	private final LongAdder overrunsCount;
+
+	private final LongAdder droppedTicksCount;
+
+	private final LongAdder workNanos;
+
+	private final AtomicLong maxWorkNanos;
+
+	public TickStatistics(final long periodMillis) {
+		this.periodMillis = periodMillis;
+		clocksCount = new AtomicInteger();
+		lateClocksCount = new AtomicInteger();
+		ticksCount = new LongAdder();
+		overrunsCount = new LongAdder();
+		droppedTicksCount = new LongAdder();
+		workNanos = new LongAdder();
+		maxWorkNanos = new AtomicLong();
+	}
+
+	public long getPeriodMillis() {
+		return periodMillis;
+	}
+
+	void addClock() {
+		clocksCount.incrementAndGet();
+	}
+
+	void setLate(final boolean late) {
+		if (late) {
+			lateClocksCount.incrementAndGet();
+		}
+		else {
+			lateClocksCount.decrementAndGet();
+		}
+	}
+
+	void recordTick(final long tickWorkNanos) {
+		ticksCount.increment();
+		workNanos.add(tickWorkNanos);
+		maxWorkNanos.accumulateAndGet(tickWorkNanos, Math::max);
+	}
+
+	void recordOverrun(final long droppedTicks) {
+		overrunsCount.increment();
+		droppedTicksCount.add(droppedTicks);
+	}
+
+	/**
+	 * @return {@code true} if a clock started its last tick after the time it was scheduled at, in which case the
+	 * work that can be put off, such as notifying the observers, should be.
+	 */
+	public boolean isBehind() {
+		return lateClocksCount.get() > 0;
+	}
+
+	public long getTicksCount() {
+		return ticksCount.sum();
+	}
+
+	/**
+	 * @return The number of ticks whose work lasted beyond the time scheduled for the next tick.
+	 */
+	public long getOverrunsCount() {
+		return overrunsCount.sum();
+	}
+
+	public long getDroppedTicksCount() {
+		return droppedTicksCount.sum();
+	}
+
+	/**
+	 * @return The simulated time lost by a clock, on average, because of the ticks it dropped.
+	 */
+	public long getMeanLagMillis() {
+		final int clocks = clocksCount.get();
+
+		return clocks == 0 ? 0 : getDroppedTicksCount() * periodMillis / clocks;
+	}
+
+	public double getMeanWorkMicros() {
+		final long ticks = getTicksCount();
+
+		return ticks == 0 ? 0 : workNanos.sum() / 1000.0 / ticks;
+	}
+
+	public double getMaxWorkMicros() {
+		return maxWorkNanos.get() / 1000.0;
+	}
+
+	@Override
+	public String toString() {
+		return "TickStatistics [clocks=" + clocksCount + ", ticks=" + getTicksCount() + ", overruns=" +
+			   getOverrunsCount() + ", droppedTicks=" + getDroppedTicksCount() + ", meanLagMillis=" +
+			   getMeanLagMillis() + ", meanWorkMicros=" + String.format("%.1f", getMeanWorkMicros()) +
+			   ", maxWorkMicros=" + String.format("%.1f", getMaxWorkMicros()) + "]";
+	}
+}
@@ -0,0 +1,123 @@
+package fr.tp.inf112.projects.robotsim.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import fr.tp.inf112.projects.robotsim.model.shapes.CircularShape;
+import fr.tp.inf112.projects.robotsim.model.shapes.RectangularShape;
+import fr.tp.inf112.projects.robotsim.model.simulation.SnapshotPublisher;
+
+public class TestFactoryCheckpointer {
+
+    private static final String LOG_FILE_NAME = "robots.log";
+
+    private Path temporaryDirectory;
+
+    private Path directory;
+
+    private Factory factory;
+
+    private Robot robot;
+
+    private SnapshotPublisher snapshotPublisher;
+
+    private FactoryCheckpointer checkpointer;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        temporaryDirectory = Files.createTempDirectory("robotsim");
+        directory = temporaryDirectory.resolve("checkpoint");
+        factory = new Factory(100, 100, "Test Factory");
+        new Conveyor(factory, new RectangularShape(80, 80, 10, 10), "Conveyor-1");
+        robot = new Robot(factory, null, new CircularShape(10, 10, 2), new Battery(10), "Robot-1");
+        new Robot(factory, null, new CircularShape(60, 10, 2), new Battery(10), "Robot-2");
+        snapshotPublisher = new SnapshotPublisher(factory, 50);
+        factory.setSnapshotPublisher(snapshotPublisher);
+        checkpointer = new FactoryCheckpointer(factory, directory, 1);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        checkpointer.delete();
+        Files.deleteIfExists(temporaryDirectory);
+    }
+
+    /**
+     * Moves the first robot to the given position and writes a checkpoint.
+     */
+    private void checkpointAt(final int xCoordinate,
+                              final int yCoordinate) {
+        robot.setxCoordinate(xCoordinate);
+        robot.setyCoordinate(yCoordinate);
+        checkpointer.checkpoint(snapshotPublisher.publish());
+    }
+
+    private Robot restoreRobot() throws IOException {
+        return (Robot) FactoryCheckpointer.restore(directory).getComponent(robot.getComponentId());
+    }
+
+    @Test
+    void testRestoresLastCheckpoint() throws IOException {
+        checkpointAt(20, 20);
+        checkpointAt(30, 20);
+        checkpointAt(30, 40);
+
+        assertTrue(FactoryCheckpointer.exists(directory));
+        assertEquals(3, checkpointer.getCheckpointsCount());
+        assertEquals(new Position(30, 40), restoreRobot().getPosition());
+    }
+
+    @Test
+    void testTornRecordEndsTheLog() throws IOException {
+        checkpointAt(20, 20);
+        checkpointAt(30, 20);
+        checkpointAt(30, 40);
+
+        // A crash while appending the last record leaves it incomplete.
+        try (FileChannel logChannel = FileChannel.open(directory.resolve(LOG_FILE_NAME), StandardOpenOption.WRITE)) {
+            logChannel.truncate(logChannel.size() - 3);
+        }
+
+        assertEquals(new Position(30, 20), restoreRobot().getPosition());
+    }
+
+    @Test
+    void testRecordWithWrongChecksumEndsTheLog() throws IOException {
+        checkpointAt(20, 20);
+        checkpointAt(30, 20);
+        checkpointAt(30, 40);
+
+        final Path logPath = directory.resolve(LOG_FILE_NAME);
+        final byte[] log = Files.readAllBytes(logPath);
+        log[log.length - 2] ^= 1;
+        Files.write(logPath, log);
+
+        assertEquals(new Position(30, 20), restoreRobot().getPosition());
+    }
+
+    @Test
+    void testRecordsAfterACorruptedRecordAreIgnored() throws IOException {
+        checkpointAt(20, 20);
+        final long firstRecordsSize = Files.size(directory.resolve(LOG_FILE_NAME));
+        checkpointAt(30, 20);
+        checkpointAt(30, 40);
+
+        // Corrupts the payload of the second record, the third one being intact.
+        final Path logPath = directory.resolve(LOG_FILE_NAME);
+        final byte[] log = Files.readAllBytes(logPath);
+        log[(int) firstRecordsSize + 2 * Integer.BYTES] ^= 1;
+        Files.write(logPath, log);
+
+        assertEquals(new Position(20, 20), restoreRobot().getPosition());
+    }
+}
@@ -0,0 +1,83 @@
+package fr.tp.inf112.projects.robotsim.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import fr.tp.inf112.projects.robotsim.model.path.CustomDijkstraFactoryPathFinder;
+import fr.tp.inf112.projects.robotsim.model.shapes.CircularShape;
+import fr.tp.inf112.projects.robotsim.model.shapes.RectangularShape;
+
+public class TestRobotSimSerialization {
+
+    private Factory factory;
+
+    private Conveyor conveyor;
+
+    private Robot robot;
+
+    @BeforeEach
+    void setUp() {
+        factory = new Factory(100, 100, "Test Factory");
+        conveyor = new Conveyor(factory, new RectangularShape(80, 70, 10, 10), "Conveyor-1");
+        robot = new Robot(factory, new CustomDijkstraFactoryPathFinder(factory, 5), new CircularShape(10, 10, 2),
+                          new Battery(10), "Robot-1");
+        robot.addTargetComponent(conveyor);
+    }
+
+    private static Factory copy(final Factory factory) throws IOException, ClassNotFoundException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try (ObjectOutputStream objectOutput = new ObjectOutputStream(bytes)) {
+            objectOutput.writeObject(factory);
+        }
+
+        try (ObjectInputStream objectInput = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            return (Factory) objectInput.readObject();
+        }
+    }
+
+    @Test
+    void testPathAndCursorAreSerialized() throws Exception {
+        factory.simulateSteps(4);
+        assertNotNull(robot.getTargetPosition());
+
+        final Factory copiedFactory = copy(factory);
+        final Robot copiedRobot = (Robot) copiedFactory.getComponent(robot.getComponentId());
+
+        assertEquals(robot.getPosition(), copiedRobot.getPosition());
+        assertEquals(robot.getTargetPosition(), copiedRobot.getTargetPosition());
+
+        // The copy follows the rest of the path without planning it again.
+        for (int step = 0; step < 10; step++) {
+            factory.simulateSteps(1);
+            copiedFactory.simulateSteps(1);
+
+            assertEquals(robot.getPosition(), copiedRobot.getPosition(), "Step " + step);
+            assertEquals(robot.getTargetPosition(), copiedRobot.getTargetPosition(), "Step " + step);
+        }
+    }
+
+    @Test
+    void testComponentIdentifiersAreSerialized() throws Exception {
+        final Factory copiedFactory = copy(factory);
+        final Robot copiedRobot = (Robot) copiedFactory.getComponent(robot.getComponentId());
+
+        assertEquals(robot.getName(), copiedRobot.getName());
+        assertEquals(conveyor.getName(), copiedFactory.getComponent(conveyor.getComponentId()).getName());
+        assertSame(copiedFactory.getComponent(conveyor.getComponentId()), copiedRobot.getTargetComponents().get(0));
+
+        // Components added to the copy are not given the identifiers of the serialized ones.
+        final Conveyor addedConveyor = new Conveyor(copiedFactory, new RectangularShape(40, 40, 10, 10), "Conveyor-2");
+        assertEquals(2, addedConveyor.getComponentId());
+    }
+}
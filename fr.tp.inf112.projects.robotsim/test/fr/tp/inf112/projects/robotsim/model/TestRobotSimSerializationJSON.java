@@ -1,6 +1,8 @@
 package fr.tp.inf112.projects.robotsim.model;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 import java.util.ArrayList;
 import java.util.LinkedHashSet;
@@ -14,6 +16,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.jsontype.BasicPolymorphicTypeValidator;
 import com.fasterxml.jackson.databind.jsontype.PolymorphicTypeValidator;
 
+import fr.tp.inf112.projects.robotsim.model.shapes.CircularShape;
 import fr.tp.inf112.projects.robotsim.model.shapes.PositionedShape;
 import fr.tp.inf112.projects.robotsim.model.shapes.RectangularShape;
 
@@ -39,10 +42,10 @@ public class TestRobotSimSerializationJSON {
         factory = new Factory(800, 600, "Test Factory");
         factory.setId("factory-01");
 
-        Robot robot1 = new Robot(factory, new RectangularShape(10, 10, 20, 20), "Robot-1", 10);
+        Robot robot1 = new Robot(factory, null, new CircularShape(10, 10, 10), new Battery(10), "Robot-1");
         robot1.setId("robot-01");
 
-        Robot robot2 = new Robot(factory, new RectangularShape(50, 50, 20, 20), "Robot-2", 10);
+        Robot robot2 = new Robot(factory, null, new CircularShape(50, 50, 10), new Battery(10), "Robot-2");
         robot2.setId("robot-02");
     }
 
@@ -62,4 +65,21 @@ public class TestRobotSimSerializationJSON {
             logger.error("Error during serialization/deserialization test", e);
         }
     }
+
+    @Test
+    void testTargetsAreDeserializedAsTheComponentsOfTheFactory() throws Exception {
+        final Conveyor conveyor = new Conveyor(factory, new RectangularShape(100, 100, 20, 20), "Conveyor-1");
+        final Robot robot = (Robot) factory.getComponent(0);
+        robot.addTargetComponent(conveyor);
+
+        final String jsonString = objectMapper.writeValueAsString(factory);
+        final Factory deserializedFactory = objectMapper.readValue(jsonString, Factory.class);
+        final Robot deserializedRobot = (Robot) deserializedFactory.getComponent(robot.getComponentId());
+        final Component deserializedConveyor = deserializedFactory.getComponent(conveyor.getComponentId());
+
+        assertEquals(robot.getName(), deserializedRobot.getName());
+        assertEquals(conveyor.getName(), deserializedConveyor.getName());
+        assertEquals(1, deserializedRobot.getTargetComponents().size());
+        assertSame(deserializedConveyor, deserializedRobot.getTargetComponents().get(0));
+    }
 }
@@ -0,0 +1,223 @@
+package fr.tp.inf112.projects.robotsim.model.fleet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import fr.tp.inf112.projects.robotsim.model.Battery;
+import fr.tp.inf112.projects.robotsim.model.Component;
+import fr.tp.inf112.projects.robotsim.model.Conveyor;
+import fr.tp.inf112.projects.robotsim.model.Factory;
+import fr.tp.inf112.projects.robotsim.model.Robot;
+import fr.tp.inf112.projects.robotsim.model.shapes.CircularShape;
+import fr.tp.inf112.projects.robotsim.model.shapes.RectangularShape;
+
+public class TestDispatchPolicies {
+
+    private Factory factory;
+
+    private JobDispatcher dispatcher;
+
+    private Map<String, Double> costs;
+
+    private TravelCostEstimator costEstimator;
+
+    @BeforeEach
+    void setUp() {
+        factory = new Factory(200, 200, "Test Factory");
+        dispatcher = new JobDispatcher();
+        costs = new HashMap<>();
+        costEstimator = (robot, target) -> costs.getOrDefault(robot.getName() + "->" + target.getName(),
+                                                              TravelCostEstimator.UNREACHABLE);
+    }
+
+    private Robot createRobot(final String name) {
+        return new Robot(factory, null, new CircularShape(100, 100, 5), new Battery(10), name);
+    }
+
+    private Job submit(final String targetName,
+                       final int priority) {
+        final Component target = new Conveyor(factory, new RectangularShape(10, 10, 10, 10), targetName);
+
+        return dispatcher.submit(null, target, priority);
+    }
+
+    private void cost(final Robot robot,
+                      final Job job,
+                      final double cost) {
+        costs.put(robot.getName() + "->" + job.getTarget().getName(), cost);
+    }
+
+    @Test
+    void testSolveIsMinimalOnRectangularMatrices() {
+        final Random random = new Random(42);
+
+        for (int iteration = 0; iteration < 500; iteration++) {
+            final int rowsCount = 1 + random.nextInt(5);
+            final int columnsCount = rowsCount + random.nextInt(3);
+            final double[][] matrix = new double[rowsCount][columnsCount];
+
+            for (final double[] row : matrix) {
+                for (int column = 0; column < columnsCount; column++) {
+                    row[column] = random.nextInt(4) == 0 ? TravelCostEstimator.UNREACHABLE : random.nextInt(100);
+                }
+            }
+
+            final int[] columns = BatchDispatchPolicy.solve(matrix);
+            double total = 0;
+
+            for (int row = 0; row < rowsCount; row++) {
+                total += matrix[row][columns[row]];
+            }
+
+            assertEquals(columns.length, Arrays.stream(columns).distinct().count());
+            assertEquals(minimalCost(matrix, 0, new boolean[columnsCount]), total, 1.0e-6);
+        }
+    }
+
+    private static double minimalCost(final double[][] matrix,
+                                      final int row,
+                                      final boolean[] usedColumns) {
+        if (row == matrix.length) {
+            return 0;
+        }
+
+        double minimalCost = Double.POSITIVE_INFINITY;
+
+        for (int column = 0; column < usedColumns.length; column++) {
+            if (!usedColumns[column]) {
+                usedColumns[column] = true;
+                minimalCost = Math.min(minimalCost, matrix[row][column] + minimalCost(matrix, row + 1, usedColumns));
+                usedColumns[column] = false;
+            }
+        }
+
+        return minimalCost;
+    }
+
+    @Test
+    void testBatchMinimizesTotalCostWithMoreJobsThanRobots() {
+        final Robot robot1 = createRobot("Robot-1");
+        final Robot robot2 = createRobot("Robot-2");
+        final Job job1 = submit("Job-1", 0);
+        final Job job2 = submit("Job-2", 0);
+        final Job job3 = submit("Job-3", 0);
+        // The nearest idle robot of the first job would leave the second job to the far robot.
+        cost(robot1, job1, 1);
+        cost(robot1, job2, 2);
+        cost(robot1, job3, 50);
+        cost(robot2, job1, 3);
+        cost(robot2, job2, 40);
+        cost(robot2, job3, 60);
+
+        final Map<Job, Robot> assignments = DispatchPolicy.BATCH.assign(List.of(robot1, robot2),
+                                                                        dispatcher.getWaitingJobs(),
+                                                                        costEstimator);
+
+        assertEquals(Map.of(job1, robot2, job2, robot1), assignments);
+    }
+
+    @Test
+    void testBatchMinimizesTotalCostWithMoreRobotsThanJobs() {
+        final Robot robot1 = createRobot("Robot-1");
+        final Robot robot2 = createRobot("Robot-2");
+        final Robot robot3 = createRobot("Robot-3");
+        final Job job1 = submit("Job-1", 0);
+        final Job job2 = submit("Job-2", 0);
+        cost(robot1, job1, 5);
+        cost(robot1, job2, 1);
+        cost(robot2, job1, 2);
+        cost(robot2, job2, 8);
+        cost(robot3, job1, 9);
+        cost(robot3, job2, 9);
+
+        final Map<Job, Robot> assignments = DispatchPolicy.BATCH.assign(List.of(robot1, robot2, robot3),
+                                                                        dispatcher.getWaitingJobs(),
+                                                                        costEstimator);
+
+        assertEquals(Map.of(job1, robot2, job2, robot1), assignments);
+    }
+
+    @Test
+    void testBatchNeverAssignsUnreachableJobs() {
+        final Robot robot1 = createRobot("Robot-1");
+        final Robot robot2 = createRobot("Robot-2");
+        final Job job1 = submit("Job-1", 0);
+        final Job job2 = submit("Job-2", 0);
+        final Job job3 = submit("Job-3", 0);
+        // Only the first robot reaches the first job, and no robot reaches the third one.
+        cost(robot1, job1, 10);
+        cost(robot1, job2, 1);
+        cost(robot2, job2, 20);
+
+        final Map<Job, Robot> assignments = DispatchPolicy.BATCH.assign(List.of(robot1, robot2),
+                                                                        dispatcher.getWaitingJobs(),
+                                                                        costEstimator);
+
+        assertEquals(Map.of(job1, robot1, job2, robot2), assignments);
+        assertFalse(assignments.containsKey(job3));
+    }
+
+    @Test
+    void testBatchLeavesJobsUnassignedWhenNoRobotReachesThem() {
+        final Robot robot = createRobot("Robot-1");
+        submit("Job-1", 0);
+
+        assertTrue(DispatchPolicy.BATCH.assign(List.of(robot), dispatcher.getWaitingJobs(), costEstimator).isEmpty());
+    }
+
+    @Test
+    void testWaitingJobsAreOrderedByPriorityThenSubmission() {
+        final Job lowJob = submit("Low", 0);
+        final Job highJob1 = submit("High-1", 2);
+        final Job mediumJob = submit("Medium", 1);
+        final Job highJob2 = submit("High-2", 2);
+
+        assertEquals(List.of(highJob1, highJob2, mediumJob, lowJob), dispatcher.getWaitingJobs());
+    }
+
+    @Test
+    void testPriorityPolicyServesHigherPrioritiesFirst() {
+        final Robot nearRobot = createRobot("Near");
+        final Robot farRobot = createRobot("Far");
+        final Job lowJob = submit("Low", 0);
+        final Job highJob = submit("High", 5);
+        cost(nearRobot, lowJob, 1);
+        cost(nearRobot, highJob, 2);
+        cost(farRobot, lowJob, 30);
+        cost(farRobot, highJob, 30);
+
+        final Map<Job, Robot> assignments = DispatchPolicy.byPriority(DispatchPolicy.NEAREST_IDLE)
+                                                          .assign(List.of(nearRobot, farRobot),
+                                                                  dispatcher.getWaitingJobs(),
+                                                                  costEstimator);
+
+        assertSame(nearRobot, assignments.get(highJob));
+        assertSame(farRobot, assignments.get(lowJob));
+    }
+
+    @Test
+    void testPriorityPolicyLeavesLowerPrioritiesWithoutIdleRobots() {
+        final Robot robot = createRobot("Robot-1");
+        final Job lowJob = submit("Low", 0);
+        final Job highJob = submit("High", 1);
+        // The batch assignment of all the jobs would give the robot the cheaper job of lower priority.
+        cost(robot, lowJob, 1);
+        cost(robot, highJob, 100);
+
+        final Map<Job, Robot> assignments = DispatchPolicy.byPriority(DispatchPolicy.BATCH)
+                                                          .assign(List.of(robot), dispatcher.getWaitingJobs(), costEstimator);
+
+        assertEquals(Map.of(highJob, robot), assignments);
+    }
+}
@@ -0,0 +1,143 @@
+package fr.tp.inf112.projects.robotsim.model.fleet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import fr.tp.inf112.projects.robotsim.model.Battery;
+import fr.tp.inf112.projects.robotsim.model.Component;
+import fr.tp.inf112.projects.robotsim.model.Conveyor;
+import fr.tp.inf112.projects.robotsim.model.Factory;
+import fr.tp.inf112.projects.robotsim.model.Robot;
+import fr.tp.inf112.projects.robotsim.model.shapes.CircularShape;
+import fr.tp.inf112.projects.robotsim.model.shapes.RectangularShape;
+
+public class TestJobDispatcher {
+
+    private Factory factory;
+
+    private JobDispatcher dispatcher;
+
+    private Component pickup;
+
+    private Component target;
+
+    private Robot robot1;
+
+    @BeforeEach
+    void setUp() {
+        factory = new Factory(200, 200, "Test Factory");
+        dispatcher = new JobDispatcher(TravelCostEstimator.MANHATTAN, DispatchPolicy.BATCH);
+        factory.setJobDispatcher(dispatcher);
+        pickup = new Conveyor(factory, new RectangularShape(10, 10, 10, 10), "Pickup");
+        target = new Conveyor(factory, new RectangularShape(150, 150, 10, 10), "Target");
+        robot1 = createRobot("Robot-1");
+    }
+
+    private Robot createRobot(final String name) {
+        return new Robot(factory, null, new CircularShape(100, 100, 5), new Battery(10), name);
+    }
+
+    private static void moveTo(final Robot robot,
+                               final Component component) {
+        robot.getPositionedShape().setxCoordinate(component.getxCoordinate());
+        robot.getPositionedShape().setyCoordinate(component.getyCoordinate());
+    }
+
+    @Test
+    void testPickupThenTargetJob() {
+        final Job job = dispatcher.submit(pickup, target);
+
+        assertNull(dispatcher.nextTarget(robot1));
+        dispatcher.dispatch();
+        assertSame(robot1, job.getRobot());
+        assertSame(pickup, dispatcher.nextTarget(robot1));
+
+        moveTo(robot1, pickup);
+        assertSame(target, dispatcher.nextTarget(robot1));
+        assertFalse(job.isCompleted());
+
+        moveTo(robot1, target);
+        assertNull(dispatcher.nextTarget(robot1));
+        assertTrue(job.isCompleted());
+        assertEquals(1, dispatcher.getCompletedJobsCount());
+        assertEquals(0, dispatcher.getQueueDepth());
+    }
+
+    @Test
+    void testJobLeftBeforeItsStopIsGivenBack() {
+        final Job job = dispatcher.submit(pickup, target);
+        dispatcher.nextTarget(robot1);
+        dispatcher.dispatch();
+        assertSame(pickup, dispatcher.nextTarget(robot1));
+
+        // The robot asks for a new target without having reached the pickup.
+        assertNull(dispatcher.nextTarget(robot1));
+        assertNull(job.getRobot());
+        assertEquals(List.of(job), dispatcher.getWaitingJobs());
+    }
+
+    @Test
+    void testReleasedJobIsNotAssignedBackUntilAnotherJobIsCompleted() {
+        final Job job = dispatcher.submit(target);
+        dispatcher.nextTarget(robot1);
+        dispatcher.dispatch();
+        assertSame(target, dispatcher.nextTarget(robot1));
+
+        dispatcher.releaseJob(robot1);
+        assertNull(job.getRobot());
+        assertEquals(List.of(job), dispatcher.getWaitingJobs());
+
+        // The only idle robot found no path to the target.
+        assertNull(dispatcher.nextTarget(robot1));
+        dispatcher.dispatch();
+        assertNull(job.getRobot());
+
+        final Robot robot2 = createRobot("Robot-2");
+        dispatcher.nextTarget(robot2);
+        dispatcher.dispatch();
+        assertSame(robot2, job.getRobot());
+
+        // Completing a job forgets the stops the robot could not reach.
+        final Job pickupJob = dispatcher.submit(pickup);
+        dispatcher.dispatch();
+        assertSame(robot1, pickupJob.getRobot());
+        assertSame(pickup, dispatcher.nextTarget(robot1));
+        moveTo(robot1, pickup);
+        assertNull(dispatcher.nextTarget(robot1));
+
+        final Job targetJob = dispatcher.submit(target);
+        dispatcher.dispatch();
+        assertSame(robot1, targetJob.getRobot());
+    }
+
+    @Test
+    void testForkAssignsJobsToForkedRobots() {
+        final Job job = dispatcher.submit(pickup, target);
+        dispatcher.nextTarget(robot1);
+        dispatcher.dispatch();
+        assertSame(robot1, job.getRobot());
+        dispatcher.submit(target);
+
+        final Factory fork = factory.fork();
+        final JobDispatcher forkedDispatcher = fork.getJobDispatcher();
+        final Robot forkedRobot = (Robot) fork.getComponent(robot1.getComponentId());
+
+        assertNotSame(dispatcher, forkedDispatcher);
+        assertEquals(1, forkedDispatcher.getQueueDepth());
+        assertSame(fork.getComponent(pickup.getComponentId()), forkedDispatcher.nextTarget(forkedRobot));
+        assertSame(fork.getComponent(target.getComponentId()), forkedDispatcher.getWaitingJobs().get(0).getTarget());
+
+        // The jobs of the factory are left to its own robots.
+        assertFalse(job.isStarted());
+        assertSame(pickup, dispatcher.nextTarget(robot1));
+    }
+}
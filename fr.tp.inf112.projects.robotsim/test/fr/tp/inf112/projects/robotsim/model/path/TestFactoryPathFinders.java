@@ -0,0 +1,237 @@
+package fr.tp.inf112.projects.robotsim.model.path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import fr.tp.inf112.projects.robotsim.model.Area;
+import fr.tp.inf112.projects.robotsim.model.Battery;
+import fr.tp.inf112.projects.robotsim.model.ChargingStation;
+import fr.tp.inf112.projects.robotsim.model.Component;
+import fr.tp.inf112.projects.robotsim.model.Conveyor;
+import fr.tp.inf112.projects.robotsim.model.Door;
+import fr.tp.inf112.projects.robotsim.model.Factory;
+import fr.tp.inf112.projects.robotsim.model.Machine;
+import fr.tp.inf112.projects.robotsim.model.Position;
+import fr.tp.inf112.projects.robotsim.model.Robot;
+import fr.tp.inf112.projects.robotsim.model.Room;
+import fr.tp.inf112.projects.robotsim.model.shapes.CircularShape;
+import fr.tp.inf112.projects.robotsim.model.shapes.RectangularShape;
+
+public class TestFactoryPathFinders {
+
+    private static final int RESOLUTION = 5;
+
+    private Factory factory;
+
+    private List<Robot> robots;
+
+    private List<Component> targets;
+
+    @BeforeEach
+    void setUp() {
+        factory = new Factory(200, 200, "Test Factory");
+        final Room room1 = new Room(factory, new RectangularShape(20, 20, 75, 75), "Room 1");
+        new Door(room1, Room.WALL.BOTTOM, 10, 20, true, "Entrance 1");
+        final Area area1 = new Area(room1, new RectangularShape(35, 35, 50, 50), "Area 1");
+        final Room room2 = new Room(factory, new RectangularShape(120, 22, 75, 75), "Room 2");
+        new Door(room2, Room.WALL.LEFT, 10, 20, true, "Entrance 2");
+        final Area area2 = new Area(room2, new RectangularShape(135, 35, 50, 50), "Area 2");
+        final Room chargingRoom = new Room(factory, new RectangularShape(125, 125, 50, 50), "Charging Room");
+        new Door(chargingRoom, Room.WALL.RIGHT, 10, 20, true, "Entrance 3");
+
+        targets = List.of(new Machine(area1, new RectangularShape(50, 50, 15, 15), "Machine 1"),
+                          new Machine(area2, new RectangularShape(150, 50, 15, 15), "Machine 2"),
+                          new ChargingStation(factory, new RectangularShape(150, 145, 15, 15), "Charging Station"),
+                          new Conveyor(factory, new RectangularShape(10, 165, 10, 30), "Conveyor"));
+        robots = new ArrayList<>();
+
+        for (final int[] coordinates : new int[][] { { 5, 5 }, { 45, 5 }, { 100, 110 }, { 190, 190 }, { 5, 120 } }) {
+            robots.add(new Robot(factory, null, new CircularShape(coordinates[0], coordinates[1], 2), new Battery(10),
+                                 "Robot at " + coordinates[0] + ", " + coordinates[1]));
+        }
+    }
+
+    private static double getLength(final Position startPosition,
+                                    final List<Position> path) {
+        double length = 0;
+        Position previousPosition = startPosition;
+
+        for (final Position position : path) {
+            length += Math.hypot(position.getxCoordinate() - previousPosition.getxCoordinate(),
+                                 position.getyCoordinate() - previousPosition.getyCoordinate());
+            previousPosition = position;
+        }
+
+        return length;
+    }
+
+    private AbstractFactoryPathFinder<?, ?> createPathFinder(final BiFunction<Factory, Integer, AbstractFactoryPathFinder<?, ?>> constructor,
+                                                             final boolean diagonalMovesEnabled) {
+        final AbstractFactoryPathFinder<?, ?> pathFinder = constructor.apply(factory, RESOLUTION);
+        pathFinder.setDiagonalMovesEnabled(diagonalMovesEnabled);
+
+        return pathFinder;
+    }
+
+    /**
+     * Checks that the given path finder finds paths as long as the ones of the JGraphT Dijkstra path finder between
+     * all the robots and targets.
+     */
+    private void assertSameLengths(final BiFunction<Factory, Integer, AbstractFactoryPathFinder<?, ?>> constructor,
+                                   final boolean diagonalMovesEnabled) {
+        final FactoryPathFinder baselinePathFinder = createPathFinder(JGraphTDijkstraFactoryPathFinder::new,
+                                                                      diagonalMovesEnabled);
+        final FactoryPathFinder pathFinder = createPathFinder(constructor, diagonalMovesEnabled);
+
+        for (final Robot robot : robots) {
+            for (final Component target : targets) {
+                final List<Position> baselinePath = baselinePathFinder.findPath(robot, target);
+                final List<Position> path = pathFinder.findPath(robot, target);
+
+                assertFalse(baselinePath.isEmpty(), robot.getName() + " to " + target.getName());
+                assertEquals(getLength(robot.getPosition(), baselinePath), getLength(robot.getPosition(), path), 1.0e-6,
+                             pathFinder.getClass().getSimpleName() + ", " + robot.getName() + " to " + target.getName());
+            }
+        }
+    }
+
+    @Test
+    void testCustomDijkstraFindsShortestPaths() {
+        assertSameLengths(CustomDijkstraFactoryPathFinder::new, false);
+        assertSameLengths(CustomDijkstraFactoryPathFinder::new, true);
+    }
+
+    @Test
+    void testSparseJGraphTFindsShortestPaths() {
+        assertSameLengths(SparseJGraphTDijkstraFactoryPathFinder::new, false);
+        assertSameLengths(SparseJGraphTDijkstraFactoryPathFinder::new, true);
+    }
+
+    @Test
+    void testContractionHierarchyFindsShortestPaths() {
+        assertSameLengths(ContractionHierarchyFactoryPathFinder::new, false);
+        assertSameLengths(ContractionHierarchyFactoryPathFinder::new, true);
+    }
+
+    @Test
+    void testImplicitGridFindsShortestPaths() {
+        assertSameLengths(ImplicitGridFactoryPathFinder::new, false);
+        assertSameLengths(ImplicitGridFactoryPathFinder::new, true);
+    }
+
+    @Test
+    void testQuadtreeFindsShortestOrthogonalPaths() {
+        assertSameLengths(QuadtreeFactoryPathFinder::new, false);
+
+        // The navigation mesh only links the cells of the quadtree orthogonally.
+        final FactoryPathFinder pathFinder = createPathFinder(QuadtreeFactoryPathFinder::new, true);
+
+        for (final Robot robot : robots) {
+            Position previousPosition = robot.getPosition();
+
+            for (final Position position : pathFinder.findPath(robot, targets.get(0))) {
+                assertTrue(position.getxCoordinate() == previousPosition.getxCoordinate() ||
+                           position.getyCoordinate() == previousPosition.getyCoordinate(), robot.getName());
+                previousPosition = position;
+            }
+        }
+    }
+
+    @Test
+    void testSmoothedPathsAreNotLonger() {
+        final AbstractFactoryPathFinder<?, ?> pathFinder = createPathFinder(CustomDijkstraFactoryPathFinder::new, true);
+        final AbstractFactoryPathFinder<?, ?> smoothingPathFinder = createPathFinder(CustomDijkstraFactoryPathFinder::new,
+                                                                                    true);
+        smoothingPathFinder.setPathSmoothingEnabled(true);
+
+        for (final Robot robot : robots) {
+            for (final Component target : targets) {
+                final List<Position> path = pathFinder.findPath(robot, target);
+                final List<Position> smoothedPath = smoothingPathFinder.findPath(robot, target);
+
+                assertTrue(smoothedPath.size() <= path.size(), robot.getName() + " to " + target.getName());
+                assertTrue(getLength(robot.getPosition(), smoothedPath) <= getLength(robot.getPosition(), path) + 1.0e-6,
+                           robot.getName() + " to " + target.getName());
+                assertEquals(path.get(path.size() - 1), smoothedPath.get(smoothedPath.size() - 1));
+            }
+        }
+    }
+
+    @Test
+    void testFindPathsComputesIdenticalRequestsOnce() {
+        final FactoryPathFinder pathFinder = createPathFinder(CustomDijkstraFactoryPathFinder::new, false);
+        final AtomicInteger searchesCount = new AtomicInteger();
+        final FactoryPathFinder countingPathFinder = (sourceComponent, targetComponent) -> {
+            searchesCount.incrementAndGet();
+
+            return pathFinder.findPath(sourceComponent, targetComponent);
+        };
+        final List<PathRequest> requests = new ArrayList<>();
+
+        for (final Robot robot : robots) {
+            for (final Component target : targets) {
+                requests.add(new PathRequest(robot, target));
+                requests.add(new PathRequest(robot, target));
+            }
+        }
+
+        final List<List<Position>> paths = countingPathFinder.findPaths(requests);
+
+        assertEquals(requests.size() / 2, searchesCount.get());
+        assertEquals(requests.size(), paths.size());
+
+        for (int index = 0; index < requests.size(); index++) {
+            final PathRequest request = requests.get(index);
+
+            assertEquals(pathFinder.findPath(request.getSourceComponent(), request.getTargetComponent()), paths.get(index),
+                         request.toString());
+        }
+    }
+
+    @Test
+    void testFindPathsPlansAgainFromAMovedSource() {
+        final FactoryPathFinder pathFinder = createPathFinder(CustomDijkstraFactoryPathFinder::new, false);
+        final Robot robot = robots.get(0);
+        final Component target = targets.get(0);
+        final PathRequest request = new PathRequest(robot, target);
+
+        robot.getPositionedShape().setxCoordinate(10);
+        robot.getPositionedShape().setyCoordinate(120);
+
+        assertTrue(request.hasSourceMoved());
+        assertEquals(List.of(pathFinder.findPath(robot, target)), pathFinder.findPaths(List.of(request)));
+    }
+
+    @Test
+    void testFindPathsPlansAgainFromASourceMovedDuringTheSearch() {
+        final FactoryPathFinder pathFinder = createPathFinder(CustomDijkstraFactoryPathFinder::new, false);
+        final Robot robot = robots.get(0);
+        final Component target = targets.get(0);
+        final AtomicInteger searchesCount = new AtomicInteger();
+        // The robot steps while its first path is searched, which then starts from its former position.
+        final FactoryPathFinder movingPathFinder = (sourceComponent, targetComponent) -> {
+            final List<Position> path = pathFinder.findPath(sourceComponent, targetComponent);
+
+            if (searchesCount.incrementAndGet() == 1) {
+                robot.getPositionedShape().setxCoordinate(robot.getxCoordinate() + RESOLUTION);
+            }
+
+            return path;
+        };
+        final List<Position> formerPath = pathFinder.findPath(robot, target);
+        final List<List<Position>> paths = movingPathFinder.findPaths(List.of(new PathRequest(robot, target)));
+
+        assertEquals(2, searchesCount.get());
+        assertEquals(pathFinder.findPath(robot, target), paths.get(0));
+        assertFalse(formerPath.equals(paths.get(0)));
+    }
+}
@@ -7,9 +7,13 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import fr.tp.inf112.projects.robotsim.model.Component;
 import fr.tp.inf112.projects.robotsim.model.Factory;
+import fr.tp.inf112.projects.robotsim.model.fleet.FleetReport;
+import fr.tp.slr201.projects.robotsim.service.service.SimulationOptions;
 import fr.tp.slr201.projects.robotsim.service.service.SimulationService;
 
 @RestController
@@ -22,9 +26,10 @@ public class SimulationController {
     private SimulationService simulationService;
 
     @PostMapping("/start/{factoryId}")
-    public boolean startSimulation(@PathVariable String factoryId) {
-        logger.info("Request to start simulation for factory ID: {}", factoryId);
-        return simulationService.startSimulation(factoryId);
+    public boolean startSimulation(@PathVariable String factoryId, @RequestParam(required = false) String dispatchPolicy,
+                                   SimulationOptions options) {
+        logger.info("Request to start simulation for factory ID: {} with dispatch policy: {} and {}", factoryId, dispatchPolicy, options);
+        return simulationService.startSimulation(factoryId, dispatchPolicy, options);
     }
 
     @GetMapping("/{factoryId}")
@@ -33,9 +38,30 @@ public class SimulationController {
         return simulationService.getSimulatedFactory(factoryId);
     }
 
+    @GetMapping("/{factoryId}/components/{componentId}")
+    public Component getSimulatedComponent(@PathVariable String factoryId, @PathVariable int componentId) {
+        logger.info("Request to get component {} of simulated factory ID: {}", componentId, factoryId);
+        return simulationService.getSimulatedComponent(factoryId, componentId);
+    }
+
     @PostMapping("/stop/{factoryId}")
     public boolean stopSimulation(@PathVariable String factoryId) {
         logger.info("Request to stop simulation for factory ID: {}", factoryId);
         return simulationService.stopSimulation(factoryId);
     }
+
+    @PostMapping("/{factoryId}/jobs")
+    public boolean submitJob(@PathVariable String factoryId,
+                             @RequestParam(required = false) Integer pickupId,
+                             @RequestParam int targetId,
+                             @RequestParam(defaultValue = "0") int priority) {
+        logger.info("Request to submit a job from {} to {} for factory ID: {}", pickupId, targetId, factoryId);
+        return simulationService.submitJob(factoryId, pickupId, targetId, priority);
+    }
+
+    @GetMapping("/{factoryId}/fleet")
+    public FleetReport getFleetReport(@PathVariable String factoryId) {
+        logger.info("Request to get the fleet report of simulated factory ID: {}", factoryId);
+        return simulationService.getFleetReport(factoryId);
+    }
 }
\ No newline at end of file
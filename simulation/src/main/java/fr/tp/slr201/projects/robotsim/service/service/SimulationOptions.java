@@ -0,0 +1,85 @@
+package fr.tp.slr201.projects.robotsim.service.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Options of the simulation of a factory, bound from the parameters of the request starting it.
+ */
+public class SimulationOptions {
+
+    /**
+     * Whether the robots avoid the cells where others queue, through a congestion map adding to the costs of their
+     * paths.
+     */
+    private boolean congestionAware;
+
+    /**
+     * The corridors where robots only move in one direction, each given as {@code x:y:width:height:direction} with
+     * a direction among {@code LEFT}, {@code UP}, {@code RIGHT} and {@code DOWN}.
+     */
+    private List<String> oneWayLanes = new ArrayList<>();
+
+    /**
+     * The regions of the floor simulated each by a worker thread, {@code rooms} to cut the floor along the walls of
+     * the rooms or {@code <columns>x<rows>} for a grid balancing the robots, or {@code null} for a thread per robot.
+     */
+    private String partition;
+
+    /**
+     * Whether the state of the robots is also stored as arrays, for the fleets of many robots.
+     */
+    private boolean fleetStore;
+
+    /**
+     * Whether the navigation data of the path finders is mapped from files shared by the service instances of the
+     * host, instead of being computed by each of them.
+     */
+    private boolean sharedNavigationData;
+
+    public boolean isCongestionAware() {
+        return congestionAware;
+    }
+
+    public void setCongestionAware(boolean congestionAware) {
+        this.congestionAware = congestionAware;
+    }
+
+    public List<String> getOneWayLanes() {
+        return oneWayLanes;
+    }
+
+    public void setOneWayLanes(List<String> oneWayLanes) {
+        this.oneWayLanes = oneWayLanes;
+    }
+
+    public String getPartition() {
+        return partition;
+    }
+
+    public void setPartition(String partition) {
+        this.partition = partition;
+    }
+
+    public boolean isFleetStore() {
+        return fleetStore;
+    }
+
+    public void setFleetStore(boolean fleetStore) {
+        this.fleetStore = fleetStore;
+    }
+
+    public boolean isSharedNavigationData() {
+        return sharedNavigationData;
+    }
+
+    public void setSharedNavigationData(boolean sharedNavigationData) {
+        this.sharedNavigationData = sharedNavigationData;
+    }
+
+    @Override
+    public String toString() {
+        return "SimulationOptions [congestionAware=" + congestionAware + ", oneWayLanes=" + oneWayLanes + ", partition=" +
+               partition + ", fleetStore=" + fleetStore + ", sharedNavigationData=" + sharedNavigationData + "]";
+    }
+}
@@ -1,12 +1,38 @@
 package fr.tp.slr201.projects.robotsim.service.service;
 
+import fr.tp.inf112.projects.robotsim.model.Component;
 import fr.tp.inf112.projects.robotsim.model.Factory;
+import fr.tp.inf112.projects.robotsim.model.fleet.FleetReport;
 
 public interface SimulationService {
 
     boolean startSimulation(String factoryId);
 
+    /**
+     * Starts the simulation of a factory whose robots are assigned the jobs submitted with
+     * {@link #submitJob(String, Integer, int, int)} by a dispatcher with the given policy, {@code nearest},
+     * {@code batch} or {@code priority}, instead of visiting their own lists of targets. A factory restored with
+     * the dispatcher of a crashed simulation keeps it with its jobs, and is not started with another policy.
+     */
+    boolean startSimulation(String factoryId, String dispatchPolicy);
+
+    /**
+     * Starts the simulation of a factory as {@link #startSimulation(String, String)} does, with the given traffic,
+     * engine and storage options.
+     */
+    boolean startSimulation(String factoryId, String dispatchPolicy, SimulationOptions options);
+
     Factory getSimulatedFactory(String factoryId);
 
+    Component getSimulatedComponent(String factoryId, int componentId);
+
     boolean stopSimulation(String factoryId);
+
+    /**
+     * Submits a job to pick a load up at the component with the given pickup identifier, if any, and drop it at the
+     * component with the given target identifier, to the dispatcher of a simulated factory.
+     */
+    boolean submitJob(String factoryId, Integer pickupId, int targetId, int priority);
+
+    FleetReport getFleetReport(String factoryId);
 }
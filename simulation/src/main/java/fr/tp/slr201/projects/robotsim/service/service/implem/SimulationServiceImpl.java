@@ -1,8 +1,13 @@
 package fr.tp.slr201.projects.robotsim.service.service.implem;
 
+import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -11,7 +16,23 @@ import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
 import fr.tp.inf112.projects.robotsim.model.Factory;
+import fr.tp.inf112.projects.robotsim.model.FactoryCheckpointer;
 import fr.tp.inf112.projects.robotsim.model.Component;
+import fr.tp.inf112.projects.robotsim.model.Robot;
+import fr.tp.inf112.projects.robotsim.model.fleet.CongestionMap;
+import fr.tp.inf112.projects.robotsim.model.fleet.DispatchPolicy;
+import fr.tp.inf112.projects.robotsim.model.fleet.FleetReport;
+import fr.tp.inf112.projects.robotsim.model.fleet.JobDispatcher;
+import fr.tp.inf112.projects.robotsim.model.fleet.OneWayLane;
+import fr.tp.inf112.projects.robotsim.model.fleet.TravelCostEstimator;
+import fr.tp.inf112.projects.robotsim.model.path.AbstractFactoryPathFinder;
+import fr.tp.inf112.projects.robotsim.model.path.NavigationDataFile;
+import fr.tp.inf112.projects.robotsim.model.shapes.RectangularShape;
+import fr.tp.inf112.projects.robotsim.model.simulation.FactorySnapshot;
+import fr.tp.inf112.projects.robotsim.model.simulation.FloorPartition;
+import fr.tp.inf112.projects.robotsim.model.simulation.PartitionedSimulation;
+import fr.tp.inf112.projects.robotsim.model.simulation.SnapshotPublisher;
+import fr.tp.slr201.projects.robotsim.service.service.SimulationOptions;
 import fr.tp.slr201.projects.robotsim.service.service.SimulationService;
 
 @Service
@@ -23,27 +44,101 @@ public class SimulationServiceImpl implements SimulationService {
 
     private static final String PERSISTENCE_HOST = "127.0.0.1";
     private static final int PERSISTENCE_PORT = 51100;
+
+    private static final long SNAPSHOT_PERIOD_MILLIS = 50;
+
+    private static final String CHECKPOINTS_DIRECTORY = "checkpoints";
+
+    private static final int SNAPSHOTS_PER_CHECKPOINT = 20;
+
+    private static final int CONGESTION_RESOLUTION = 5;
+
+    private static final long CONGESTION_HALF_LIFE_MILLIS = 3000;
+
+    private static final long CONGESTION_SAMPLE_PERIOD_MILLIS = 50;
+
+    /**
+     * Cost of entering a permanently occupied cell, in orthogonal moves.
+     */
+    private static final double CONGESTION_COST_WEIGHT = 8;
+
+    private static final String NAVIGATION_DIRECTORY = "navigation";
+
+    /**
+     * Directory of the navigation data files mapped by all the service instances of the host.
+     */
+    private final Path navigationDirectory;
     
     public SimulationServiceImpl() {
+        this(Paths.get(NAVIGATION_DIRECTORY));
+    }
+
+    SimulationServiceImpl(Path navigationDirectory) {
+        this.navigationDirectory = navigationDirectory;
         logger.info("SimulationServiceImpl instantiated. Hash: {}", System.identityHashCode(this));
     }
 
     @Override
     public boolean startSimulation(String factoryId) {
-        logger.info("Attempting to start simulation for factory ID: {} on Service instance: {}", factoryId, System.identityHashCode(this));
+        return startSimulation(factoryId, null);
+    }
+
+    @Override
+    public boolean startSimulation(String factoryId, String dispatchPolicy) {
+        return startSimulation(factoryId, dispatchPolicy, new SimulationOptions());
+    }
+
+    @Override
+    public boolean startSimulation(String factoryId, String dispatchPolicy, SimulationOptions options) {
+        logger.info("Attempting to start simulation for factory ID: {} on Service instance: {} with {}", factoryId, System.identityHashCode(this), options);
 
         if (simulatedFactories.containsKey(factoryId)) {
             logger.warn("Factory {} is already running.", factoryId);
             return false;
         }
 
+        DispatchPolicy policy = null;
+
+        if (dispatchPolicy != null) {
+            policy = getDispatchPolicy(dispatchPolicy);
+
+            if (policy == null) {
+                logger.error("Unknown dispatch policy {} for factory {}.", dispatchPolicy, factoryId);
+                return false;
+            }
+        }
+
         Factory factory = fetchFactoryFromPersistence(factoryId);
+        Factory restoredFactory = restoreFromCheckpoint(factoryId, factory);
+
+        if (restoredFactory != null) {
+            factory = restoredFactory;
+        }
 
         if (factory != null) {
             int compCount = (factory.getComponents() != null) ? factory.getComponents().size() : 0;
             logger.info("Fetched factory {} from persistence. Components count: {}", factoryId, compCount);
             
+            if (policy != null) {
+                JobDispatcher jobDispatcher = factory.getJobDispatcher();
+
+                if (jobDispatcher == null) {
+                    factory.setJobDispatcher(new JobDispatcher(TravelCostEstimator.MANHATTAN, policy));
+                } else if (jobDispatcher.getDispatchPolicy().getClass() != policy.getClass()) {
+                    // The queued and assigned jobs of a restored dispatcher would be lost by replacing it.
+                    logger.error("Factory {} already dispatches its jobs with {}, not starting it with {}.",
+                                 factoryId, jobDispatcher.getDispatchPolicy().getClass().getSimpleName(), dispatchPolicy);
+                    return false;
+                }
+            }
+
+            if (!applyOptions(factoryId, factory, options)) {
+                return false;
+            }
+
             simulatedFactories.put(factoryId, factory);
+            factory.setSnapshotPublisher(new SnapshotPublisher(factory, SNAPSHOT_PERIOD_MILLIS));
+            factory.setCheckpointer(new FactoryCheckpointer(factory, getCheckpointDirectory(factoryId), SNAPSHOTS_PER_CHECKPOINT));
             logger.info("Calling factory.startSimulation() for ID: {}", factoryId);
             factory.startSimulation();
             logger.info("Simulation started successfully for factory ID: {}", factoryId);
@@ -54,6 +149,191 @@ public class SimulationServiceImpl implements SimulationService {
         }
     }
 
+    private static DispatchPolicy getDispatchPolicy(String dispatchPolicy) {
+        switch (dispatchPolicy) {
+            case "nearest":
+                return DispatchPolicy.NEAREST_IDLE;
+            case "batch":
+                return DispatchPolicy.BATCH;
+            case "priority":
+                return DispatchPolicy.byPriority(DispatchPolicy.BATCH);
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Sets the traffic, engine and storage options of the simulation on a factory that is not started yet.
+     * @return {@code false} if an option is invalid, in which case the factory is not to be started.
+     */
+    boolean applyOptions(String factoryId, Factory factory, SimulationOptions options) {
+        if (options.isCongestionAware()) {
+            factory.setCongestionMap(new CongestionMap(factory.getWidth(), factory.getHeight(), CONGESTION_RESOLUTION,
+                                                       CONGESTION_HALF_LIFE_MILLIS, CONGESTION_SAMPLE_PERIOD_MILLIS,
+                                                       CONGESTION_COST_WEIGHT));
+        }
+
+        for (String oneWayLaneOption : options.getOneWayLanes()) {
+            OneWayLane oneWayLane = getOneWayLane(oneWayLaneOption);
+
+            if (oneWayLane == null) {
+                logger.error("Invalid one-way lane {} for factory {}.", oneWayLaneOption, factoryId);
+                return false;
+            }
+
+            // A restored factory keeps the lanes it was started with.
+            if (!hasOneWayLane(factory, oneWayLane)) {
+                factory.addOneWayLane(oneWayLane);
+            }
+        }
+
+        if (options.getPartition() != null) {
+            FloorPartition partition = getFloorPartition(factory, options.getPartition());
+
+            if (partition == null) {
+                logger.error("Invalid partition {} for factory {}.", options.getPartition(), factoryId);
+                return false;
+            }
+
+            factory.setPartitionedSimulation(new PartitionedSimulation(factory, partition));
+        }
+
+        if (options.isFleetStore()) {
+            factory.setFleetStoreEnabled(true);
+        }
+
+        if (options.isSharedNavigationData()) {
+            mapNavigationData(factoryId, factory);
+        }
+
+        return true;
+    }
+
+    /**
+     * @return The lane given as {@code x:y:width:height:direction}, or {@code null} if the given option is invalid.
+     */
+    private static OneWayLane getOneWayLane(String oneWayLaneOption) {
+        String[] fields = oneWayLaneOption.split(":");
+
+        if (fields.length != 5) {
+            return null;
+        }
+
+        try {
+            RectangularShape area = new RectangularShape(Integer.parseInt(fields[0]), Integer.parseInt(fields[1]),
+                                                         Integer.parseInt(fields[2]), Integer.parseInt(fields[3]));
+            return new OneWayLane(area, OneWayLane.DIRECTION.valueOf(fields[4]));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static boolean hasOneWayLane(Factory factory, OneWayLane oneWayLane) {
+        for (OneWayLane factoryLane : factory.getOneWayLanes()) {
+            RectangularShape area = factoryLane.getArea();
+
+            if (factoryLane.getDirection() == oneWayLane.getDirection() &&
+                area.getxCoordinate() == oneWayLane.getArea().getxCoordinate() &&
+                area.getyCoordinate() == oneWayLane.getArea().getyCoordinate() &&
+                area.getWidth() == oneWayLane.getArea().getWidth() &&
+                area.getHeight() == oneWayLane.getArea().getHeight()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return The partition of the floor along the walls of the rooms for {@code rooms}, in a grid of the given
+     * numbers of columns and rows for {@code <columns>x<rows>}, or {@code null} if the given option is invalid.
+     */
+    private static FloorPartition getFloorPartition(Factory factory, String partition) {
+        if (partition.equals("rooms")) {
+            return FloorPartition.byRooms(factory);
+        }
+
+        String[] sizes = partition.split("x");
+
+        try {
+            if (sizes.length == 2 && Integer.parseInt(sizes[0]) > 0 && Integer.parseInt(sizes[1]) > 0) {
+                return FloorPartition.balanced(factory, Integer.parseInt(sizes[0]), Integer.parseInt(sizes[1]));
+            }
+        } catch (NumberFormatException e) {
+            // Reported by the caller.
+        }
+        return null;
+    }
+
+    /**
+     * Puts in the factory the navigation data of the path finders of its robots mapped read-only from the files of
+     * the navigation directory, which are named by the layout of the factory so that the service instances
+     * simulating the same layout share their pages. The missing files are computed and written first. The path
+     * finders of a file that cannot be mapped build their graphs from the factory.
+     */
+    private void mapNavigationData(String factoryId, Factory factory) {
+        long layoutHash = factory.computeLayoutHash();
+        Map<Path, AbstractFactoryPathFinder<?, ?>> pathFinders = new LinkedHashMap<>();
+
+        for (Component component : factory.getComponents()) {
+            if (component instanceof Robot && ((Robot) component).getPathFinder() instanceof AbstractFactoryPathFinder) {
+                AbstractFactoryPathFinder<?, ?> pathFinder = (AbstractFactoryPathFinder<?, ?>) ((Robot) component).getPathFinder();
+                String fileName = String.format("%016x-%d%s.nav", layoutHash, pathFinder.getResolution(),
+                                                pathFinder.isDiagonalMovesEnabled() ? "-diagonal" : "");
+                pathFinders.putIfAbsent(navigationDirectory.resolve(fileName), pathFinder);
+            }
+        }
+
+        for (Map.Entry<Path, AbstractFactoryPathFinder<?, ?>> pathFinder : pathFinders.entrySet()) {
+            Path path = pathFinder.getKey();
+
+            try {
+                if (!Files.exists(path)) {
+                    Files.createDirectories(navigationDirectory);
+                    NavigationDataFile.write(pathFinder.getValue().createNavigationData(), path);
+                    logger.info("Wrote the navigation data file {} of factory {}.", path, factoryId);
+                }
+
+                factory.putNavigationData(NavigationDataFile.map(path));
+            } catch (IOException e) {
+                logger.warn("Could not map the navigation data file {} of factory {}.", path, factoryId, e);
+            }
+        }
+    }
+
+    private static Path getCheckpointDirectory(String factoryId) {
+        return Paths.get(CHECKPOINTS_DIRECTORY, factoryId.replaceAll("[^\\w.-]", "_"));
+    }
+
+    /**
+     * Restores the factory of a simulation that was still running when the service stopped, the checkpoints of a
+     * simulation being deleted when it is stopped normally. A checkpoint of a factory persisted again since the
+     * simulation was started is deleted instead of being restored.
+     */
+    private Factory restoreFromCheckpoint(String factoryId, Factory persistedFactory) {
+        Path directory = getCheckpointDirectory(factoryId);
+
+        if (!FactoryCheckpointer.exists(directory)) {
+            return null;
+        }
+
+        try {
+            Factory factory = FactoryCheckpointer.restore(directory);
+
+            if (persistedFactory != null && persistedFactory.getPersistenceTime() > factory.getPersistenceTime()) {
+                logger.info("Discarding the checkpoint in {}, factory {} was persisted since.", directory, factoryId);
+                FactoryCheckpointer.delete(directory);
+                return null;
+            }
+
+            factory.setId(factoryId);
+            logger.info("Restored factory {} from the checkpoint in {}.", factoryId, directory);
+            return factory;
+        } catch (IOException e) {
+            logger.warn("Could not restore factory {} from the checkpoint in {}.", factoryId, directory, e);
+            return null;
+        }
+    }
+
     private Factory fetchFactoryFromPersistence(String factoryId) {
         logger.info("Connecting to Persistence Server at {}:{}...", PERSISTENCE_HOST, PERSISTENCE_PORT);
         try (Socket socket = new Socket(PERSISTENCE_HOST, PERSISTENCE_PORT);
@@ -76,28 +356,103 @@ public class SimulationServiceImpl implements SimulationService {
         }
     }
 
+    /**
+     * Returns the last snapshot of the simulated factory rather than the factory itself, which the robots modify
+     * while it is serialized.
+     */
     @Override
     public Factory getSimulatedFactory(String factoryId) {
         Factory f = simulatedFactories.get(factoryId);
         if (f != null) {
+            FactorySnapshot snapshot = f.getSnapshot();
+            f = snapshot.getFactory();
             int count = (f.getComponents() != null) ? f.getComponents().size() : 0;
             // J'ai retiré le code de debug qui causait l'erreur de compilation (cast invalide)
-            logger.info("getSimulatedFactory SERVER SIDE: ID={}, Components={}", factoryId, count);
+            logger.info("getSimulatedFactory SERVER SIDE: ID={}, Components={}, Snapshot={}", factoryId, count, snapshot.getVersion());
         } else {
             logger.warn("getSimulatedFactory: Factory {} not found in memory.", factoryId);
         }
         return f;
     }
 
+    /**
+     * Returns the component with the given identifier in the last snapshot of the simulated factory, looked up in
+     * the index of the factory rather than by scanning its components.
+     */
+    @Override
+    public Component getSimulatedComponent(String factoryId, int componentId) {
+        Factory f = simulatedFactories.get(factoryId);
+        if (f == null) {
+            logger.warn("getSimulatedComponent: Factory {} not found in memory.", factoryId);
+            return null;
+        }
+        return f.getSnapshot().getFactory().getComponent(componentId);
+    }
+
     @Override
     public boolean stopSimulation(String factoryId) {
         if (simulatedFactories.containsKey(factoryId)) {
             Factory factory = simulatedFactories.get(factoryId);
             factory.stopSimulation();
             simulatedFactories.remove(factoryId);
+            deleteCheckpoint(factory);
             logger.info("Simulation stopped successfully for factory ID: {}", factoryId);
             return true;
         }
         return false;
     }
+
+    /**
+     * Submits the job to the dispatcher of the running factory itself, the components being looked up in its index,
+     * since jobs submitted to a snapshot would never be dispatched.
+     */
+    @Override
+    public boolean submitJob(String factoryId, Integer pickupId, int targetId, int priority) {
+        Factory f = simulatedFactories.get(factoryId);
+        if (f == null) {
+            logger.warn("submitJob: Factory {} not found in memory.", factoryId);
+            return false;
+        }
+
+        JobDispatcher jobDispatcher = f.getJobDispatcher();
+        if (jobDispatcher == null) {
+            logger.warn("submitJob: Factory {} was not started with a dispatch policy.", factoryId);
+            return false;
+        }
+
+        Component pickup = pickupId == null ? null : f.getComponent(pickupId);
+        Component target = f.getComponent(targetId);
+        if (target == null || (pickupId != null && pickup == null)) {
+            logger.warn("submitJob: No component {} or {} in factory {}.", pickupId, targetId, factoryId);
+            return false;
+        }
+
+        jobDispatcher.submit(pickup, target, priority);
+        return true;
+    }
+
+    /**
+     * Returns the report of the running factory, whose counters are read without stopping the robots.
+     */
+    @Override
+    public FleetReport getFleetReport(String factoryId) {
+        Factory f = simulatedFactories.get(factoryId);
+        if (f == null) {
+            logger.warn("getFleetReport: Factory {} not found in memory.", factoryId);
+            return null;
+        }
+        return f.getFleetReport();
+    }
+
+    private void deleteCheckpoint(Factory factory) {
+        FactoryCheckpointer checkpointer = factory.getCheckpointer();
+
+        if (checkpointer != null) {
+            try {
+                checkpointer.delete();
+            } catch (IOException e) {
+                logger.warn("Could not delete the checkpoint in {}.", checkpointer.getDirectory(), e);
+            }
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,206 @@
+package fr.tp.slr201.projects.robotsim.service.service.implem;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import fr.tp.inf112.projects.robotsim.model.Area;
+import fr.tp.inf112.projects.robotsim.model.Battery;
+import fr.tp.inf112.projects.robotsim.model.Component;
+import fr.tp.inf112.projects.robotsim.model.Door;
+import fr.tp.inf112.projects.robotsim.model.Factory;
+import fr.tp.inf112.projects.robotsim.model.Machine;
+import fr.tp.inf112.projects.robotsim.model.Position;
+import fr.tp.inf112.projects.robotsim.model.Robot;
+import fr.tp.inf112.projects.robotsim.model.Room;
+import fr.tp.inf112.projects.robotsim.model.fleet.OneWayLane;
+import fr.tp.inf112.projects.robotsim.model.path.CustomDijkstraFactoryPathFinder;
+import fr.tp.inf112.projects.robotsim.model.path.NavigationData;
+import fr.tp.inf112.projects.robotsim.model.shapes.CircularShape;
+import fr.tp.inf112.projects.robotsim.model.shapes.RectangularShape;
+import fr.tp.inf112.projects.robotsim.model.simulation.FloorPartition;
+import fr.tp.slr201.projects.robotsim.service.service.SimulationOptions;
+
+class SimulationServiceImplTests {
+
+	private static final int RESOLUTION = 5;
+
+	private Path navigationDirectory;
+
+	private SimulationServiceImpl simulationService;
+
+	private SimulationOptions options;
+
+	@BeforeEach
+	void setUp() throws IOException {
+		navigationDirectory = Files.createTempDirectory("navigation");
+		simulationService = new SimulationServiceImpl(navigationDirectory);
+		options = new SimulationOptions();
+	}
+
+	@AfterEach
+	void tearDown() throws IOException {
+		try (Stream<Path> paths = Files.list(navigationDirectory)) {
+			for (Path path : (Iterable<Path>) paths::iterator) {
+				Files.delete(path);
+			}
+		}
+		Files.delete(navigationDirectory);
+	}
+
+	private static Factory createFactory() {
+		Factory factory = new Factory(200, 200, "Test Factory");
+		Room room = new Room(factory, new RectangularShape(20, 20, 75, 75), "Room 1");
+		new Door(room, Room.WALL.BOTTOM, 10, 20, true, "Entrance");
+		Area area = new Area(room, new RectangularShape(35, 35, 50, 50), "Area 1");
+		Machine machine = new Machine(area, new RectangularShape(50, 50, 15, 15), "Machine 1");
+
+		for (int index = 0; index < 4; index++) {
+			Robot robot = new Robot(factory, new CustomDijkstraFactoryPathFinder(factory, RESOLUTION),
+									new CircularShape(110 + 20 * index, 150, 2), new Battery(10), "Robot " + index);
+			robot.addTargetComponent(machine);
+		}
+		return factory;
+	}
+
+	private static Component getComponent(Factory factory, String name) {
+		for (Component component : factory.getComponents()) {
+			if (component.getName().equals(name)) {
+				return component;
+			}
+		}
+		return null;
+	}
+
+	@Test
+	void testNoOption() {
+		Factory factory = createFactory();
+
+		assertTrue(simulationService.applyOptions("factory", factory, options));
+		assertNull(factory.getCongestionMap());
+		assertTrue(factory.getOneWayLanes().isEmpty());
+		assertNull(factory.getPartitionedSimulation());
+		assertNull(factory.getFleetStore());
+		assertNull(factory.getNavigationData(RESOLUTION, false));
+	}
+
+	@Test
+	void testCongestionAware() {
+		Factory factory = createFactory();
+		options.setCongestionAware(true);
+
+		assertTrue(simulationService.applyOptions("factory", factory, options));
+		assertNotNull(factory.getCongestionMap());
+		assertEquals(RESOLUTION, factory.getCongestionMap().getResolution());
+	}
+
+	@Test
+	void testOneWayLanes() {
+		Factory factory = createFactory();
+		options.setOneWayLanes(List.of("100:100:80:10:RIGHT", "100:120:80:10:LEFT"));
+
+		assertTrue(simulationService.applyOptions("factory", factory, options));
+		assertEquals(2, factory.getOneWayLanes().size());
+		assertEquals(OneWayLane.DIRECTION.RIGHT, factory.getOneWayLanes().get(0).getDirection());
+		assertEquals(80, factory.getOneWayLanes().get(0).getArea().getWidth());
+
+		// A restored factory started again with the same options keeps its lanes.
+		assertTrue(simulationService.applyOptions("factory", factory, options));
+		assertEquals(2, factory.getOneWayLanes().size());
+	}
+
+	@Test
+	void testInvalidOneWayLanes() {
+		for (String oneWayLane : List.of("100:100:80:RIGHT", "100:100:80:10:NORTH", "a:100:80:10:LEFT")) {
+			options.setOneWayLanes(List.of(oneWayLane));
+
+			assertFalse(simulationService.applyOptions("factory", createFactory(), options), oneWayLane);
+		}
+	}
+
+	@Test
+	void testPartitions() {
+		Factory factory = createFactory();
+		options.setPartition("2x3");
+
+		assertTrue(simulationService.applyOptions("factory", factory, options));
+		FloorPartition partition = factory.getPartitionedSimulation().getPartition();
+		// The robots being on the same row, the rows balancing them collapse.
+		assertEquals(2, partition.getColumnsCount());
+		assertEquals(partition.getColumnsCount() * partition.getRowsCount(), partition.getRegionsCount());
+
+		factory = createFactory();
+		options.setPartition("rooms");
+
+		assertTrue(simulationService.applyOptions("factory", factory, options));
+		assertTrue(factory.getPartitionedSimulation().getPartition().getRegionsCount() > 1);
+
+		for (String invalidPartition : List.of("", "2x", "0x3", "axb", "walls")) {
+			options.setPartition(invalidPartition);
+
+			assertFalse(simulationService.applyOptions("factory", createFactory(), options), invalidPartition);
+		}
+	}
+
+	@Test
+	void testFleetStore() {
+		Factory factory = createFactory();
+		options.setFleetStore(true);
+
+		assertTrue(simulationService.applyOptions("factory", factory, options));
+		assertEquals(4, factory.getFleetStore().getRobotsCount());
+	}
+
+	@Test
+	void testServicesShareNavigationDataFiles() throws IOException {
+		Factory factory = createFactory();
+		options.setSharedNavigationData(true);
+
+		assertTrue(simulationService.applyOptions("factory", factory, options));
+
+		List<Path> files;
+		try (Stream<Path> paths = Files.list(navigationDirectory)) {
+			files = paths.toList();
+		}
+		assertEquals(1, files.size());
+		FileTime writeTime = Files.getLastModifiedTime(files.get(0));
+		NavigationData navigationData = factory.getNavigationData(RESOLUTION, false);
+		assertNotNull(navigationData);
+
+		// Another service instance simulating the same layout maps the same file without writing it again.
+		Factory otherFactory = createFactory();
+		assertTrue(new SimulationServiceImpl(navigationDirectory).applyOptions("other", otherFactory, options));
+
+		try (Stream<Path> paths = Files.list(navigationDirectory)) {
+			assertEquals(files, paths.toList());
+		}
+		assertEquals(writeTime, Files.getLastModifiedTime(files.get(0)));
+		NavigationData otherNavigationData = otherFactory.getNavigationData(RESOLUTION, false);
+		assertNotNull(otherNavigationData);
+		assertEquals(navigationData.getLayoutHash(), otherNavigationData.getLayoutHash());
+		assertEquals(navigationData.getOccupancyGrid(), otherNavigationData.getOccupancyGrid());
+
+		// The robots find paths as short as in a factory whose path finders build their graphs.
+		Factory builtFactory = createFactory();
+		Robot robot = (Robot) getComponent(otherFactory, "Robot 0");
+		Robot builtRobot = (Robot) getComponent(builtFactory, "Robot 0");
+		List<Position> builtPath = builtRobot.getPathFinder().findPath(builtRobot, getComponent(builtFactory, "Machine 1"));
+		List<Position> path = robot.getPathFinder().findPath(robot, getComponent(otherFactory, "Machine 1"));
+		assertFalse(builtPath.isEmpty());
+		assertEquals(builtPath.size(), path.size());
+		assertEquals(builtPath.get(builtPath.size() - 1), path.get(path.size() - 1));
+	}
+}